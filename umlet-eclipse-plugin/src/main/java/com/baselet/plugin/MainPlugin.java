@@ -19,6 +19,7 @@ import com.baselet.control.enums.Program;
 import com.baselet.control.enums.RuntimeType;
 import com.baselet.control.util.Path;
 import com.baselet.gui.CurrentGui;
+import com.baselet.plugin.builder.UmletBuilder;
 import com.baselet.plugin.gui.EclipseGUI;
 
 /**
@@ -80,6 +81,7 @@ public class MainPlugin extends AbstractUIPlugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		CurrentGui.getInstance().getGui().closeWindow();
+		UmletBuilder.shutdownExportPool();
 		plugin = null;
 		super.stop(context);
 	}
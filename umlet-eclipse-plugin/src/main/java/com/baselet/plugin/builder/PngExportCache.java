@@ -0,0 +1,158 @@
+package com.baselet.plugin.builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baselet.control.enums.Program;
+import com.baselet.plugin.MainPlugin;
+
+/**
+ * Remembers the content hash of every diagram whose png has been exported by the {@link UmletBuilder}, therefore builds can skip diagrams which haven't changed since their last export.
+ * The program version is part of the hash, so a new renderer exports all diagrams again.
+ * The cache of each project is stored as properties file in the working location of the plugin (outside of the project).
+ *
+ * The hashes can be read and updated by multiple export threads at the same time.
+ */
+public class PngExportCache {
+
+	private static final Logger log = LoggerFactory.getLogger(PngExportCache.class);
+
+	private static final String FILE_NAME = "png-export-cache.properties";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final File file;
+	private final Map<String, String> hashes = new ConcurrentHashMap<String, String>();
+	private volatile boolean changed = false;
+
+	private PngExportCache(File file) {
+		this.file = file;
+	}
+
+	public static PngExportCache load(IProject project) {
+		PngExportCache cache = new PngExportCache(getCacheFile(project));
+		if (cache.file.exists()) {
+			Properties props = new Properties();
+			InputStream is = null;
+			try {
+				is = new BufferedInputStream(new FileInputStream(cache.file));
+				props.load(is);
+				for (String key : props.stringPropertyNames()) {
+					cache.hashes.put(key, props.getProperty(key));
+				}
+			} catch (IOException e) {
+				log.warn("Cannot read png export cache " + cache.file + ", all diagrams will be exported", e);
+				cache.hashes.clear();
+			} finally {
+				closeQuietly(is);
+			}
+		}
+		return cache;
+	}
+
+	public static void delete(IProject project) {
+		File file = getCacheFile(project);
+		if (file.exists() && !file.delete()) {
+			log.warn("Cannot delete png export cache " + file);
+		}
+	}
+
+	private static File getCacheFile(IProject project) {
+		return new File(project.getWorkingLocation(MainPlugin.getPluginId()).toFile(), FILE_NAME);
+	}
+
+	/**
+	 * @return hash of the program version and the content of the diagram file
+	 */
+	public static String computeHash(File uxf) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		digest.update(Program.getInstance().getVersion().getBytes("UTF-8"));
+		InputStream is = new FileInputStream(uxf);
+		try {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			is.close();
+		}
+		byte[] hash = digest.digest();
+		char[] hex = new char[hash.length * 2];
+		for (int i = 0; i < hash.length; i++) {
+			hex[i * 2] = HEX[hash[i] >> 4 & 0xF];
+			hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+		}
+		return new String(hex);
+	}
+
+	/**
+	 * @param key project relative path of the diagram
+	 * @return true if the png has been exported from a diagram with the same hash
+	 */
+	public boolean isUpToDate(String key, String hash) {
+		return hash.equals(hashes.get(key));
+	}
+
+	public void put(String key, String hash) {
+		if (!hash.equals(hashes.put(key, hash))) {
+			changed = true;
+		}
+	}
+
+	public void remove(String key) {
+		if (hashes.remove(key) != null) {
+			changed = true;
+		}
+	}
+
+	/**
+	 * writes the cache if it has been changed since it was loaded
+	 */
+	public void save() {
+		if (!changed) {
+			return;
+		}
+		Properties props = new Properties();
+		props.putAll(hashes);
+		OutputStream os = null;
+		try {
+			file.getParentFile().mkdirs();
+			os = new BufferedOutputStream(new FileOutputStream(file));
+			props.store(os, "content hashes of exported UMLet diagrams");
+			changed = false;
+		} catch (IOException e) {
+			log.warn("Cannot write png export cache " + file, e);
+		} finally {
+			closeQuietly(os);
+		}
+	}
+
+	private static void closeQuietly(Closeable c) {
+		if (c != null) {
+			try {
+				c.close();
+			} catch (IOException e) {/* nothing to do */}
+		}
+	}
+}
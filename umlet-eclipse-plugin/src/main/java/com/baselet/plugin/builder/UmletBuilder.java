@@ -1,8 +1,10 @@
 package com.baselet.plugin.builder;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -12,6 +14,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.ProgressMonitor;
 
@@ -44,11 +47,11 @@ import com.baselet.plugin.refactoring.JavaDocParser.SourceString;
  * warnings are created for image references pointing to inexistant images.
  *
  * <ul>
- * <li> The png is only updated when the uxf is newer than the png </li>
+ * <li> The png is only updated when the content of the uxf (or the program version) has changed since the last export (see {@link PngExportCache}) </li>
  * <li> a clean removes all pngs with corresponding uxfs</li>
  * <li> a full build checks all uxfs</li>
  * <li> incremental build is supported</li>
- * <li> diagrams are converted in parallel </li>
+ * <li> diagrams are converted in parallel by a thread pool which is shared by all builds </li>
  * </ul>
  */
 public class UmletBuilder extends IncrementalProjectBuilder {
@@ -57,6 +60,34 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 	public static final String PROBLEM_MARKER_TYPE = "com.umlet.plugin.builderProblem";
 	public static final String IMG_MISSING_MARKER_TYPE = "com.umlet.plugin.imgMissing";
 
+	private static ExecutorService exportPool;
+
+	private static synchronized ExecutorService getExportPool() {
+		if (exportPool == null) {
+			exportPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				private int threadCount = 0;
+
+				@Override
+				public synchronized Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "UMLet png export " + ++threadCount);
+					t.setDaemon(true); // must not prevent the shutdown of eclipse
+					return t;
+				}
+			});
+		}
+		return exportPool;
+	}
+
+	/**
+	 * stops the threads of the export pool (a later build creates a new pool)
+	 */
+	public static synchronized void shutdownExportPool() {
+		if (exportPool != null) {
+			exportPool.shutdownNow();
+			exportPool = null;
+		}
+	}
+
 	private static class ResourceSet {
 		List<IFile> uxfFiles = new ArrayList<IFile>();
 		List<ICompilationUnit> units = new ArrayList<ICompilationUnit>();
@@ -116,6 +147,7 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 	protected void clean(IProgressMonitor monitor) throws CoreException {
 
 		IProject project = getProject();
+		PngExportCache.delete(project);
 		project.accept(new IResourceVisitor() {
 
 			@Override
@@ -165,16 +197,17 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 			monitor.beginTask("Update Umlet Diagrams", resources.size());
 		}
 
-		// create thread pool to process the diagrams in parallel
-		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		// process the diagrams in parallel
+		ExecutorService executor = getExportPool();
+		PngExportCache cache = PngExportCache.load(getProject());
+		List<ExportTask> tasks = new ArrayList<ExportTask>();
 		try {
-			List<ExportTask> tasks = new ArrayList<ExportTask>();
 			final Object monitorLock = new Object();
 			final LinkedHashSet<String> diagramsInProgress = new LinkedHashSet<String>();
 
 			// create a task for each resource. This will submit them to the executor
 			for (final IResource resource : resources.uxfFiles) {
-				tasks.add(new ExportTask(resource, executor, monitor, monitorLock, diagramsInProgress));
+				tasks.add(new ExportTask(resource, executor, cache, monitor, monitorLock, diagramsInProgress));
 			}
 
 			// await finishing all tasks. This also causes the resource refresh and placing problem markers
@@ -182,8 +215,11 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 				task.awaitFinish();
 			}
 		} finally {
-			// shutdown the pool
-			executor.shutdownNow();
+			// the pool is shared, therefore only the tasks of this build are cancelled (e.g. if the build has been cancelled)
+			for (ExportTask task : tasks) {
+				task.cancel();
+			}
+			cache.save();
 		}
 
 		// process compilation units and create makers for missing images
@@ -233,9 +269,12 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 		private IFile outFile;
 		private IFile inFile;
 		private final File inputFile;
-		private final Future<byte[]> future;
+		private final File outputFile;
+		private final String cacheKey;
+		private final PngExportCache cache;
+		private final Future<String> future;
 
-		public ExportTask(IResource res, ExecutorService exec, final IProgressMonitor monitor, final Object monitorLock, final LinkedHashSet<String> diagramsInProgress) {
+		public ExportTask(IResource res, ExecutorService exec, final PngExportCache cache, final IProgressMonitor monitor, final Object monitorLock, final LinkedHashSet<String> diagramsInProgress) {
 			inFile = res.getAdapter(IFile.class);
 			String baseName = inFile.getName().substring(0, inFile.getName().length() - 4);
 			IContainer parent = inFile.getParent();
@@ -255,11 +294,20 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 			if (outFile == null) {
 				throw new RuntimeException("unable to determine target location for " + inFile);
 			}
+			if (outFile.getLocation() == null) {
+				throw new RuntimeException("unable to determine local file system location for " + outFile);
+			}
 			inputFile = new File(inFile.getLocationURI());
-			future = exec.submit(new Callable<byte[]>() {
-
+			outputFile = outFile.getLocation().toFile();
+			cacheKey = inFile.getProjectRelativePath().toString();
+			this.cache = cache;
+			future = exec.submit(new Callable<String>() {
+
+				/**
+				 * @return the hash of the exported diagram or null if the png is up to date
+				 */
 				@Override
-				public byte[] call() throws Exception {
+				public String call() throws Exception {
 
 					if (monitor != null) {
 						synchronized (monitorLock) {
@@ -271,15 +319,13 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 						}
 					}
 					try {
-						// only export if inFile is newer than outFile
-						// if (!outFile.exists() || inFile.getModificationStamp() > outFile.getModificationStamp()) {
-						ByteArrayOutputStream os = new ByteArrayOutputStream();
-						DiagramHandler handler = new DiagramHandler(inputFile);
-						OutputHandler.createToStream("png", os, handler);
-						os.close();
-						return os.toByteArray();
-						// }
-						// return null;
+						// only export if the content of inFile has changed since the last export
+						String hash = PngExportCache.computeHash(inputFile);
+						if (outputFile.exists() && cache.isUpToDate(cacheKey, hash)) {
+							return null;
+						}
+						exportToFile();
+						return hash;
 					} catch (Exception e) {
 						throw new RuntimeException(e);
 					} finally {
@@ -293,6 +339,29 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 					}
 				}
 
+				/**
+				 * streams the png into a temporary file next to the target which replaces the target afterwards, therefore a failed export doesn't leave a broken png
+				 */
+				private void exportToFile() throws IOException {
+					File tempFile = File.createTempFile(outputFile.getName(), ".tmp", outputFile.getParentFile());
+					try {
+						OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile));
+						try {
+							DiagramHandler handler = new DiagramHandler(inputFile);
+							OutputHandler.createToStream("png", os, handler);
+						} finally {
+							os.close();
+						}
+						if (!tempFile.renameTo(outputFile) && !(outputFile.delete() && tempFile.renameTo(outputFile))) {
+							throw new IOException("cannot replace " + outputFile);
+						}
+					} finally {
+						if (tempFile.exists() && !tempFile.delete()) {
+							tempFile.deleteOnExit();
+						}
+					}
+				}
+
 				private void updateSubTask() {
 					if (monitor == null) {
 						return;
@@ -325,21 +394,17 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 				}
 
 				// wait for task to complete
-				byte[] bb = future.get();
+				String hash = future.get();
 
-				// write result
-				if (bb != null) {
+				// the png has been written to the file system, therefore the workspace must be refreshed
+				if (hash != null) {
 					try {
-						if (outFile.exists()) {
-							outFile.setContents(new ByteArrayInputStream(bb), false, true, null);
-						}
-						else {
-							outFile.create(new ByteArrayInputStream(bb), true, null);
-						}
+						outFile.refreshLocal(IResource.DEPTH_ZERO, null);
 						outFile.setDerived(true, null);
 					} catch (CoreException e) {
 						throw new ExecutionException(e);
 					}
+					cache.put(cacheKey, hash);
 				}
 
 			} catch (InterruptedException e) {
@@ -348,6 +413,7 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 				if (e.getCause() instanceof OperationCanceledException) {
 					throw (OperationCanceledException) e.getCause();
 				}
+				cache.remove(cacheKey);
 				try {
 					if (inFile.exists()) {
 						IMarker marker = inFile.createMarker(PROBLEM_MARKER_TYPE);
@@ -359,6 +425,10 @@ public class UmletBuilder extends IncrementalProjectBuilder {
 				}
 			}
 		}
+
+		void cancel() {
+			future.cancel(true);
+		}
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.baselet.control;
+
+import java.util.List;
+
+/**
+ * Immutable matrix of primitive double values, stored column-major in a single array.
+ * Rows can have different lengths (like the rows of a {@link Matrix}), cells behind the end of a row don't exist.
+ * Minimum, maximum and sum of all values are calculated once on creation (minimum and maximum are ordered like {@link Double#compareTo(Double)}).
+ */
+public class DoubleMatrix {
+
+	private final double[] values;
+	private final int[] rowLengths;
+	private final int rows;
+	private final int cols;
+	private final int size;
+
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	private double sum = 0;
+
+	public DoubleMatrix(List<double[]> rowList) {
+		rows = rowList.size();
+		rowLengths = new int[rows];
+		int longestRow = 0;
+		int count = 0;
+		for (int r = 0; r < rows; r++) {
+			rowLengths[r] = rowList.get(r).length;
+			longestRow = Math.max(longestRow, rowLengths[r]);
+			count += rowLengths[r];
+		}
+		cols = longestRow;
+		size = count;
+		values = new double[rows * cols];
+		for (int r = 0; r < rows; r++) {
+			double[] row = rowList.get(r);
+			for (int c = 0; c < row.length; c++) {
+				double v = row[c];
+				values[c * rows + r] = v;
+				if (Double.compare(v, min) < 0) {
+					min = v;
+				}
+				if (Double.compare(v, max) > 0) {
+					max = v;
+				}
+				sum += v;
+			}
+		}
+	}
+
+	/**
+	 * @return the row size
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * @return the column size (the length of the longest row)
+	 */
+	public int cols() {
+		return cols;
+	}
+
+	public int rowLength(int row) {
+		return rowLengths[row];
+	}
+
+	public double get(int row, int col) {
+		if (col >= rowLengths[row]) {
+			throw new IndexOutOfBoundsException("Row " + row + " has only " + rowLengths[row] + " columns");
+		}
+		return values[col * rows + row];
+	}
+
+	/**
+	 * @return the number of cells in all rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the smallest value or {@link Double#POSITIVE_INFINITY} if the matrix is empty
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the largest value or {@link Double#NEGATIVE_INFINITY} if the matrix is empty
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	public double getSum() {
+		return sum;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("");
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < rowLengths[r]; c++) {
+				sb.append(values[c * rows + r]).append("\t");
+			}
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+}
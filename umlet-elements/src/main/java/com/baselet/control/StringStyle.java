@@ -1,6 +1,7 @@
 package com.baselet.control;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 import com.baselet.control.constants.SharedConstants;
@@ -9,7 +10,9 @@ import com.baselet.control.enums.FormatLabels;
 public class StringStyle {
 
 	public static final String ESCAPE_CHARACTER = "\\";
-	private static final String TEMP_REPLACEMENT = "§$§ä%§%ü/,";
+
+	private static final FormatLabels[] FORMAT_LABELS = FormatLabels.values();
+	private static final Set<FormatLabels>[] FORMAT_COMBINATIONS = createFormatCombinations(); // index is a bitmask of the ordinals of the contained labels
 
 	private final Set<FormatLabels> format;
 	private final String stringWithoutMarkup;
@@ -27,33 +30,77 @@ public class StringStyle {
 	}
 
 	/**
+	 * replaces every occurrence of old which isn't preceded by the escape character; the escape character of escaped occurrences is removed
 	 * this method does not use "complex" regular expressions to avoid problems with compiling to GWT
+	 * @return s itself if it doesn't contain old (the usual case), otherwise the result of a single pass over s
 	 */
 	public static String replaceNotEscaped(String s, String old, String replacement) {
-		s = s.replace(ESCAPE_CHARACTER + old, TEMP_REPLACEMENT);
-		s = s.replace(old, replacement);
-		s = s.replace(TEMP_REPLACEMENT, old);
-		return s;
+		if (s.indexOf(old) < 0) {
+			return s;
+		}
+		String escaped = ESCAPE_CHARACTER + old;
+		StringBuilder sb = new StringBuilder(s.length());
+		int i = 0;
+		while (i < s.length()) {
+			if (s.startsWith(escaped, i)) {
+				sb.append(old);
+				i += escaped.length();
+			}
+			else if (s.startsWith(old, i)) {
+				sb.append(replacement);
+				i += old.length();
+			}
+			else {
+				sb.append(s.charAt(i));
+				i++;
+			}
+		}
+		return sb.toString();
 	}
 
+	/**
+	 * removes the markup of all format labels which surround the string (in any order and repetition, eg: "*_text_*")
+	 * the markup is only checked by moving two offsets into s, therefore at most one substring is created
+	 * @return the style; its format set is shared and must not be modified
+	 */
 	public static StringStyle analyzeFormatLabels(String s) {
-		Set<FormatLabels> format = new HashSet<FormatLabels>();
+		int formatMask = 0;
 		if (s != null && !s.isEmpty()) {
+			int begin = 0;
+			int end = s.length();
 			// As long as any text format applies the loop continues
 			boolean matchFound = true;
 			while (matchFound) {
 				matchFound = false;
-				for (FormatLabels formatLabel : FormatLabels.values()) {
+				for (FormatLabels formatLabel : FORMAT_LABELS) {
 					String markup = formatLabel.getValue();
-					if (s.startsWith(markup) && s.endsWith(markup) && s.length() > markup.length() * 2) {
-						format.add(formatLabel);
-						s = s.substring(markup.length(), s.length() - markup.length());
+					int markupLength = markup.length();
+					if (end - begin > markupLength * 2 && s.startsWith(markup, begin) && s.startsWith(markup, end - markupLength)) {
+						formatMask |= 1 << formatLabel.ordinal();
+						begin += markupLength;
+						end -= markupLength;
 						matchFound = true;
 					}
 				}
 			}
+			s = s.substring(begin, end);
+		}
+		return new StringStyle(FORMAT_COMBINATIONS[formatMask], s);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Set<FormatLabels>[] createFormatCombinations() {
+		Set<FormatLabels>[] combinations = new Set[1 << FORMAT_LABELS.length];
+		for (int mask = 0; mask < combinations.length; mask++) {
+			EnumSet<FormatLabels> set = EnumSet.noneOf(FormatLabels.class);
+			for (FormatLabels formatLabel : FORMAT_LABELS) {
+				if ((mask & 1 << formatLabel.ordinal()) != 0) {
+					set.add(formatLabel);
+				}
+			}
+			combinations[mask] = Collections.unmodifiableSet(set);
 		}
-		return new StringStyle(format, s);
+		return combinations;
 	}
 
 	public Set<FormatLabels> getFormat() {
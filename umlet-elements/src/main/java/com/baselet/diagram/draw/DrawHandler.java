@@ -24,11 +24,14 @@ public abstract class DrawHandler {
 
 	protected static final double HALF_PX = 0.5f;
 
+	private static final StringStyle TEXT_HEIGHT_MAX_DUMMY = new StringStyle(Collections.<FormatLabels> emptySet(), "Hy"); // "Hy" is a good dummy for a generic max height and depth
+
 	protected Style style = new Style();
 	private final Style overlay = new Style();
 
 	private final ArrayList<DrawFunction> drawablesBackground = new ArrayList<DrawFunction>();
 	private final ArrayList<DrawFunction> drawablesForeground = new ArrayList<DrawFunction>();
+	private int modificationCount = 0; // is increased every time the draw functions change, therefore renderings of the draw functions can be cached
 
 	public static enum Layer {
 		Foreground, Background
@@ -56,6 +59,7 @@ public abstract class DrawHandler {
 
 	protected void addDrawable(DrawFunction drawable) {
 		if (enableDrawing) {
+			modificationCount++;
 			if (layer == Layer.Foreground) {
 				drawablesForeground.add(drawable);
 			}
@@ -79,6 +83,14 @@ public abstract class DrawHandler {
 	public void clearCache() {
 		drawablesBackground.clear();
 		drawablesForeground.clear();
+		modificationCount++;
+	}
+
+	/**
+	 * @return a number which changes every time draw functions are added or removed (if it hasn't changed, {@link #drawAll()} draws the same as before)
+	 */
+	public int getModificationCount() {
+		return modificationCount;
 	}
 
 	public final double textHeightMaxWithSpace() {
@@ -86,7 +98,7 @@ public abstract class DrawHandler {
 	}
 
 	public final double textHeightMax() {
-		return textDimension(new StringStyle(Collections.<FormatLabels> emptySet(), "Hy")).getHeight(); // "Hy" is a good dummy for a generic max height and depth
+		return textDimension(TEXT_HEIGHT_MAX_DUMMY).getHeight();
 	}
 
 	/**
@@ -264,7 +276,16 @@ public abstract class DrawHandler {
 	 */
 	protected abstract DimensionDouble textDimensionHelper(StringStyle singleLine);
 
-	protected abstract double getDefaultFontSize();
+	public abstract double getDefaultFontSize();
+
+	/**
+	 * Text measurements which are cached (e.g. by the {@link TextSplitter}) are only shared between DrawHandlers with the same namespace.
+	 * Subclasses must override this method if the text dimensions depend on settings which are not part of the {@link Style} (e.g. the font family)
+	 * @return a string which identifies the way this DrawHandler measures text
+	 */
+	public String getTextMetricsNamespace() {
+		return getClass().getName();
+	}
 
 	/* DRAW METHODS */
 	public void drawRectangle(Rectangle rect) {
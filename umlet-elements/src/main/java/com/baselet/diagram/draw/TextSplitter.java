@@ -2,7 +2,6 @@ package com.baselet.diagram.draw;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
@@ -16,7 +15,7 @@ import com.baselet.control.enums.AlignHorizontal;
 import com.baselet.control.enums.AlignVertical;
 import com.baselet.control.enums.FormatLabels;
 import com.baselet.diagram.draw.helper.Style;
-import com.baselet.util.LRUCache;
+import com.baselet.util.ShardedLRUCache;
 
 /**
  * Based on the old TextSplitter, but offers additional features.
@@ -37,20 +36,46 @@ public class TextSplitter {
 
 	// since the 2nd and 3rd cache use the value of the 1st as a partial key, the size shouldn't be too different
 	// especially for the 2nd, the 3rd is bigger because there will be many different width value because of resize operations
-	private static final int WORD_CACHE_SIZE = 180;
-	private static final int MIN_WIDTH_CACHE_SIZE = 190;
-	private static final int WORDWRAP_CACHE_SIZE = 400;
+	// the sizes must be big enough to hold the text of diagrams with a few hundred elements, otherwise the caches thrash on every repaint
+	public static final int DEFAULT_WORD_CACHE_SIZE = 2000;
+	public static final int DEFAULT_MIN_WIDTH_CACHE_SIZE = 2000;
+	public static final int DEFAULT_WORDWRAP_CACHE_SIZE = 5000;
 
 	private static final String SPLIT_CHARS = " \t";
 
-	// 3 Caches are used
+	// 3 Caches are used (they are shared by all threads, e.g. during batch exports)
 	// String line -> WordRegion[] words
-	// WordRegion[] words + Style style + FormatLabels -> Double minWidth
-	// WordRegion[] words + Style style + FormatLabels + Double width -> String[] wrappedLines + double height
+	// WordRegion[] words + Style style + FormatLabels + text metrics namespace -> Double minWidth
+	// WordRegion[] words + Style style + FormatLabels + text metrics namespace + Double width -> String[] wrappedLines + double height
 
-	private static LinkedHashMap<String, WordRegion[]> wordCache = new LRUCache<String, WordRegion[]>(WORD_CACHE_SIZE);
-	private static LinkedHashMap<MinWidthCacheKey, Double> minWidthCache = new LRUCache<MinWidthCacheKey, Double>(MIN_WIDTH_CACHE_SIZE);
-	private static LinkedHashMap<WordwrapCacheKey, WordwrapCacheValue> wordwrapCache = new LRUCache<WordwrapCacheKey, WordwrapCacheValue>(WORDWRAP_CACHE_SIZE);
+	private static final ShardedLRUCache<String, WordRegion[]> wordCache = new ShardedLRUCache<String, WordRegion[]>(DEFAULT_WORD_CACHE_SIZE);
+	private static final ShardedLRUCache<MinWidthCacheKey, Double> minWidthCache = new ShardedLRUCache<MinWidthCacheKey, Double>(DEFAULT_MIN_WIDTH_CACHE_SIZE);
+	private static final ShardedLRUCache<WordwrapCacheKey, WordwrapCacheValue> wordwrapCache = new ShardedLRUCache<WordwrapCacheKey, WordwrapCacheValue>(DEFAULT_WORDWRAP_CACHE_SIZE);
+
+	/**
+	 * Changes the size limits of the caches (all currently cached values are dropped)
+	 * @param wordCacheSize max number of lines whose word regions are cached
+	 * @param minWidthCacheSize max number of cached minimum widths
+	 * @param wordwrapCacheSize max number of cached wordwrap results
+	 */
+	public static void setCacheSizes(int wordCacheSize, int minWidthCacheSize, int wordwrapCacheSize) {
+		wordCache.setMaxSize(wordCacheSize);
+		minWidthCache.setMaxSize(minWidthCacheSize);
+		wordwrapCache.setMaxSize(wordwrapCacheSize);
+	}
+
+	public static void clearCaches() {
+		wordCache.clear();
+		minWidthCache.clear();
+		wordwrapCache.clear();
+	}
+
+	/**
+	 * @return size, hit, miss and eviction counters of all caches (e.g. for logging after a batch conversion)
+	 */
+	public static String getCacheStatistics() {
+		return "wordCache=" + wordCache + ", minWidthCache=" + minWidthCache + ", wordwrapCache=" + wordwrapCache;
+	}
 
 	/**
 	 *
@@ -118,7 +143,7 @@ public class TextSplitter {
 			return drawer.textWidth(analyzedText.getStringWithoutMarkup()) + endBuffer(drawer) + 0.01 < width;
 		}
 		else {
-			WordwrapCacheValue wwValue = getCachedWordwrap(words, width, drawer.getStyleClone(), analyzedText.getFormat());
+			WordwrapCacheValue wwValue = getCachedWordwrap(analyzedText.getStringWithoutMarkup(), words, width, drawer.getStyleClone(), analyzedText.getFormat(), drawer.getTextMetricsNamespace());
 			if (wwValue == null) {
 				return drawer.textWidth(analyzedText.getStringWithoutMarkup()) + endBuffer(drawer) + 0.01 < width;
 			}
@@ -193,7 +218,7 @@ public class TextSplitter {
 		StringStyle analyzedText = StringStyle.analyzeFormatLabels(StringStyle.replaceNotEscaped(text));
 		String finalText = analyzedText.getStringWithoutMarkup();
 		WordRegion[] words = splitIntoWords(finalText);
-		WordwrapCacheKey key = new WordwrapCacheKey(words, maxWidth, drawer.getStyleClone(), analyzedText.getFormat());
+		WordwrapCacheKey key = new WordwrapCacheKey(finalText, words, maxWidth, drawer.getStyleClone(), analyzedText.getFormat(), drawer.getTextMetricsNamespace());
 		WordwrapCacheValue cachedWordwrap = getCachedWordwrap(key);
 		if (cachedWordwrap != null) {
 			log.trace("got value from cache " + cachedWordwrap);
@@ -266,10 +291,11 @@ public class TextSplitter {
 	 */
 	public static double getTextMinWidth(String text, DrawHandler drawer) {
 		StringStyle analyzedText = StringStyle.analyzeFormatLabels(StringStyle.replaceNotEscaped(text));
-		MinWidthCacheKey key = new MinWidthCacheKey(splitIntoWords(analyzedText.getStringWithoutMarkup()),
-				drawer.getStyleClone(), analyzedText.getFormat());
-		if (getCachedMinWidth(key) != null) {
-			return getCachedMinWidth(key);
+		MinWidthCacheKey key = new MinWidthCacheKey(analyzedText.getStringWithoutMarkup(), splitIntoWords(analyzedText.getStringWithoutMarkup()),
+				drawer.getStyleClone(), analyzedText.getFormat(), drawer.getTextMetricsNamespace());
+		Double cachedMinWidth = getCachedMinWidth(key);
+		if (cachedMinWidth != null) {
+			return cachedMinWidth;
 		}
 		else {
 			double minWidth = 0;
@@ -382,8 +408,8 @@ public class TextSplitter {
 		return wordwrapCache.get(key);
 	}
 
-	private static WordwrapCacheValue getCachedWordwrap(WordRegion[] words, double width, Style style, Set<FormatLabels> format) {
-		return getCachedWordwrap(new WordwrapCacheKey(words, width, style, format));
+	private static WordwrapCacheValue getCachedWordwrap(String text, WordRegion[] words, double width, Style style, Set<FormatLabels> format, String metricsNamespace) {
+		return getCachedWordwrap(new WordwrapCacheKey(text, words, width, style, format, metricsNamespace));
 	}
 
 	private static void setCachedWordwrap(WordwrapCacheKey key, WordwrapCacheValue value) {
@@ -411,6 +437,23 @@ public class TextSplitter {
 			return end;
 		}
 
+		@Override
+		public int hashCode() {
+			return 31 * begin + end;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof WordRegion)) {
+				return false;
+			}
+			WordRegion other = (WordRegion) obj;
+			return begin == other.begin && end == other.end;
+		}
+
 		@Override
 		public String toString() {
 			return "WordRegion [begin=" + begin + ", end=" + end + "]";
@@ -419,15 +462,19 @@ public class TextSplitter {
 	}
 
 	private static class MinWidthCacheKey {
+		private final String text; // the regions only describe the words of this text, therefore equal regions of different texts must not share an entry
 		private final WordRegion[] words;
 		private final Style style; // must be part of key, because text width also depends on styling like fontsize
 		private final Set<FormatLabels> format;
+		private final String metricsNamespace; // text widths of different DrawHandlers (e.g. fonts) must not be mixed
 
-		public MinWidthCacheKey(WordRegion[] words, Style style, Set<FormatLabels> format) {
+		public MinWidthCacheKey(String text, WordRegion[] words, Style style, Set<FormatLabels> format, String metricsNamespace) {
 			super();
+			this.text = text;
 			this.words = words;
 			this.style = style;
 			this.format = format;
+			this.metricsNamespace = metricsNamespace;
 		}
 
 		public WordRegion[] getWords() {
@@ -443,7 +490,9 @@ public class TextSplitter {
 			final int prime = 31;
 			int result = 1;
 			result = prime * result + (format == null ? 0 : format.hashCode());
+			result = prime * result + (metricsNamespace == null ? 0 : metricsNamespace.hashCode());
 			result = prime * result + (style == null ? 0 : style.hashCode());
+			result = prime * result + (text == null ? 0 : text.hashCode());
 			result = prime * result + Arrays.hashCode(words);
 			return result;
 		}
@@ -468,6 +517,14 @@ public class TextSplitter {
 			else if (!format.equals(other.format)) {
 				return false;
 			}
+			if (metricsNamespace == null) {
+				if (other.metricsNamespace != null) {
+					return false;
+				}
+			}
+			else if (!metricsNamespace.equals(other.metricsNamespace)) {
+				return false;
+			}
 			if (style == null) {
 				if (other.style != null) {
 					return false;
@@ -476,6 +533,14 @@ public class TextSplitter {
 			else if (!style.equals(other.style)) {
 				return false;
 			}
+			if (text == null) {
+				if (other.text != null) {
+					return false;
+				}
+			}
+			else if (!text.equals(other.text)) {
+				return false;
+			}
 			if (!Arrays.equals(words, other.words)) {
 				return false;
 			}
@@ -485,17 +550,21 @@ public class TextSplitter {
 	}
 
 	private static class WordwrapCacheKey {
+		private final String text; // the regions only describe the words of this text, therefore equal regions of different texts must not share an entry
 		private final WordRegion[] words;
 		private final double width;
 		private final Style style; // must be part of key, because text width also depends on styling like fontsize
 		private final Set<FormatLabels> format;
+		private final String metricsNamespace; // text widths of different DrawHandlers (e.g. fonts) must not be mixed
 
-		public WordwrapCacheKey(WordRegion[] words, double width, Style style, Set<FormatLabels> format) {
+		public WordwrapCacheKey(String text, WordRegion[] words, double width, Style style, Set<FormatLabels> format, String metricsNamespace) {
 			super();
+			this.text = text;
 			this.words = words;
 			this.width = width;
 			this.style = style;
 			this.format = format;
+			this.metricsNamespace = metricsNamespace;
 		}
 
 		public WordRegion[] getWords() {
@@ -519,7 +588,9 @@ public class TextSplitter {
 			final int prime = 31;
 			int result = 1;
 			result = prime * result + (format == null ? 0 : format.hashCode());
+			result = prime * result + (metricsNamespace == null ? 0 : metricsNamespace.hashCode());
 			result = prime * result + (style == null ? 0 : style.hashCode());
+			result = prime * result + (text == null ? 0 : text.hashCode());
 			long temp;
 			temp = Double.doubleToLongBits(width);
 			result = prime * result + (int) (temp ^ temp >>> 32);
@@ -547,6 +618,14 @@ public class TextSplitter {
 			else if (!format.equals(other.format)) {
 				return false;
 			}
+			if (metricsNamespace == null) {
+				if (other.metricsNamespace != null) {
+					return false;
+				}
+			}
+			else if (!metricsNamespace.equals(other.metricsNamespace)) {
+				return false;
+			}
 			if (style == null) {
 				if (other.style != null) {
 					return false;
@@ -555,6 +634,14 @@ public class TextSplitter {
 			else if (!style.equals(other.style)) {
 				return false;
 			}
+			if (text == null) {
+				if (other.text != null) {
+					return false;
+				}
+			}
+			else if (!text.equals(other.text)) {
+				return false;
+			}
 			if (Double.doubleToLongBits(width) != Double.doubleToLongBits(other.width)) {
 				return false;
 			}
@@ -100,8 +100,20 @@ public abstract class NewGridElement implements GridElement {
 	 */
 	private boolean autoresizePossiblyInProgress = false;
 
+	/**
+	 * the inputs of the last model update; if they are unchanged the draw list of the drawers is still valid and parsing can be skipped
+	 */
+	private ModelUpdateKey lastModelUpdateKey = null;
+
 	@Override
 	public void updateModelFromText() {
+		if (lastModelUpdateKey == null || !lastModelUpdateKey.equals(createModelUpdateKey())) {
+			parseProperties();
+		} // otherwise nothing relevant changed, therefore the drawers still contain the correct draw functions
+		component.afterModelUpdate(); // also without parsing, because the component may have to be repainted (e.g. the gwt component marks itself for the next redraw)
+	}
+
+	private void parseProperties() {
 		autoresizePossiblyInProgress = true;
 		drawer.clearCache();
 		drawer.resetStyle(); // must be set before actions which depend on the fontsize (otherwise a changed fontsize would be recognized too late)
@@ -117,8 +129,13 @@ public abstract class NewGridElement implements GridElement {
 			drawError(drawer, localizedMessage);
 		}
 		autoresizePossiblyInProgress = false;
+		lastModelUpdateKey = createModelUpdateKey(); // created after parsing because autoresize can change the size
+	}
 
-		component.afterModelUpdate();
+	private ModelUpdateKey createModelUpdateKey() {
+		SharedConfig config = SharedConfig.getInstance();
+		return new ModelUpdateKey(panelAttributes, getAdditionalAttributes(), getRealSize(), drawer.getDefaultFontSize(), drawer.getTextMetricsNamespace(),
+				config.isShow_stickingpolygon(), config.isDev_mode());
 	}
 
 	protected void drawError(DrawHandler drawer, String errorText) {
@@ -547,4 +564,64 @@ public abstract class NewGridElement implements GridElement {
 		}
 	}
 
+	/**
+	 * Contains everything the result of {@link PropertiesParser#parsePropertiesAndHandleFacets(NewGridElement, PropertiesParserState)} depends on
+	 * (the zoom level is not part of it, because the draw functions use unzoomed coordinates and the DrawHandler applies the zoom when they are painted)
+	 */
+	private static class ModelUpdateKey {
+		private final List<String> panelAttributes;
+		private final String additionalAttributes;
+		private final Dimension realSize;
+		private final double defaultFontSize;
+		private final String textMetricsNamespace;
+		private final boolean showStickingPolygon;
+		private final boolean devMode;
+
+		public ModelUpdateKey(List<String> panelAttributes, String additionalAttributes, Dimension realSize, double defaultFontSize, String textMetricsNamespace, boolean showStickingPolygon, boolean devMode) {
+			this.panelAttributes = panelAttributes;
+			this.additionalAttributes = additionalAttributes;
+			this.realSize = realSize;
+			this.defaultFontSize = defaultFontSize;
+			this.textMetricsNamespace = textMetricsNamespace;
+			this.showStickingPolygon = showStickingPolygon;
+			this.devMode = devMode;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + (panelAttributes == null ? 0 : panelAttributes.hashCode());
+			result = prime * result + (additionalAttributes == null ? 0 : additionalAttributes.hashCode());
+			result = prime * result + (realSize == null ? 0 : realSize.hashCode());
+			long temp = Double.doubleToLongBits(defaultFontSize);
+			result = prime * result + (int) (temp ^ temp >>> 32);
+			result = prime * result + (textMetricsNamespace == null ? 0 : textMetricsNamespace.hashCode());
+			result = prime * result + (showStickingPolygon ? 1231 : 1237);
+			result = prime * result + (devMode ? 1231 : 1237);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ModelUpdateKey)) {
+				return false;
+			}
+			ModelUpdateKey other = (ModelUpdateKey) obj;
+			return showStickingPolygon == other.showStickingPolygon &&
+					devMode == other.devMode &&
+					Double.doubleToLongBits(defaultFontSize) == Double.doubleToLongBits(other.defaultFontSize) &&
+					equal(realSize, other.realSize) &&
+					equal(textMetricsNamespace, other.textMetricsNamespace) &&
+					equal(additionalAttributes, other.additionalAttributes) &&
+					equal(panelAttributes, other.panelAttributes);
+		}
+
+		private static boolean equal(Object a, Object b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
 }
@@ -1,14 +1,11 @@
 package com.baselet.element;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import com.baselet.control.basics.geom.DimensionDouble;
 import com.baselet.control.enums.ElementStyle;
 import com.baselet.element.facet.Facet;
+import com.baselet.element.facet.FacetIndex;
 import com.baselet.element.facet.PropertiesParserState;
 
 /**
@@ -44,31 +41,30 @@ public class PropertiesParser {
 	}
 
 	private static void parseFacets(NewGridElement element, PropertiesParserState state, List<String> propertiesText, boolean drawMetaDrawer) {
-		List<String> propertiesAfterFirstRun = parseFacets(state.getSettings().getFacetsForFirstRun(), propertiesText, state); // must be before element.drawCommonContent (because bg=... and other settings are set here)
+		List<String> propertiesAfterFirstRun = parseFacets(state.getSettings().getFacetIndexForFirstRun(), propertiesText, state); // must be before element.drawCommonContent (because bg=... and other settings are set here)
 		element.resetMetaDrawerAndDrawCommonContent(state, drawMetaDrawer); // draw common content like border around classes
-		parseFacets(state.getSettings().getFacetsForSecondRun(), propertiesAfterFirstRun, state); // iterate over propertiestext and draw text and resolve second-run facets
+		parseFacets(state.getSettings().getFacetIndexForSecondRun(), propertiesAfterFirstRun, state); // iterate over propertiestext and draw text and resolve second-run facets
 	}
 
-	private static List<String> parseFacets(List<? extends Facet> facets, List<String> properties, PropertiesParserState state) {
-		Map<Facet, List<String>> facetUsageMap = new HashMap<Facet, List<String>>();
-		for (Facet f : facets) { // at parsing start every facet has an empty usage list
-			facetUsageMap.put(f, new ArrayList<String>());
-		}
-
-		List<String> unusedProperties = new ArrayList<String>(properties);
-		for (Iterator<String> iter = unusedProperties.iterator(); iter.hasNext();) {
-			String line = iter.next();
-			for (Facet f : facets) {
-				if (f.checkStart(line, state)) {
-					f.handleLine(line, state);
-					facetUsageMap.get(f).add(line);
-					iter.remove();
-					break; // once a facet has consumed a line, no other facet can
-				}
+	/**
+	 * @return the lines which haven't been consumed by any facet (the list is reused by the next run with the same index)
+	 */
+	private static List<String> parseFacets(FacetIndex facetIndex, List<String> properties, PropertiesParserState state) {
+		facetIndex.reset(); // at parsing start every facet has an empty usage list
+		List<String> unusedProperties = facetIndex.getUnusedLines();
+		for (String line : properties) {
+			int facetPos = facetIndex.findFacet(line, state); // once a facet has consumed a line, no other facet can
+			if (facetPos < 0) {
+				unusedProperties.add(line);
+			}
+			else {
+				facetIndex.getFacet(facetPos).handleLine(line, state);
+				facetIndex.getHandledLines(facetPos).add(line);
 			}
 		}
-		for (Facet f : facets) {
-			f.parsingFinished(state, facetUsageMap.get(f));
+		for (int i = 0; i < facetIndex.size(); i++) {
+			Facet f = facetIndex.getFacet(i);
+			f.parsingFinished(state, facetIndex.getHandledLines(i));
 		}
 		return unusedProperties;
 	}
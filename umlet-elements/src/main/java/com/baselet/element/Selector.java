@@ -92,6 +92,17 @@ public abstract class Selector {
 
 	}
 
+	/**
+	 * selects exactly the given elements without expanding their groups and without the after selection action (e.g. to highlight search results while typing)
+	 */
+	public void selectOnlyWithoutAfterAction(Collection<GridElement> elements) {
+		deselectHelper(false, getSelectedElements());
+		for (GridElement e : elements) {
+			getSelectedElements().add(e);
+			doAfterSelect(e);
+		}
+	}
+
 	public void select(Collection<GridElement> elements) {
 		selectHelper(true, elements);
 	}
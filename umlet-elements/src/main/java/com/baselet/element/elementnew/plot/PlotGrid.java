@@ -6,6 +6,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.baselet.control.DoubleMatrix;
 import com.baselet.control.Matrix;
 import com.baselet.control.basics.geom.Dimension;
 import com.baselet.control.enums.AlignHorizontal;
@@ -105,18 +106,13 @@ public class PlotGrid extends NewGridElement {
 	private void setOverallMinMaxValue(List<PlotState> plotStateList) {
 		minValue = Double.MAX_VALUE;
 		maxValue = Double.MIN_VALUE;
-		Double[][] data;
 		for (PlotState state : plotStateList) {
-			data = state.getDataSet().data();
-			for (Double[] dArray : data) {
-				for (Double d : dArray) {
-					if (d > maxValue) {
-						maxValue = d;
-					}
-					if (d < minValue) {
-						minValue = d;
-					}
-				}
+			DoubleMatrix data = state.getDataSet().data();
+			if (data.getMax() > maxValue) {
+				maxValue = data.getMax();
+			}
+			if (data.getMin() < minValue) {
+				minValue = data.getMin();
 			}
 		}
 	}
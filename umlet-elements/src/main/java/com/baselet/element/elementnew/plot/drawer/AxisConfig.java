@@ -3,6 +3,7 @@ package com.baselet.element.elementnew.plot.drawer;
 import java.util.List;
 import java.util.TreeSet;
 
+import com.baselet.control.DoubleMatrix;
 import com.baselet.element.elementnew.plot.parser.PlotConstants.AxisList;
 import com.baselet.element.elementnew.plot.parser.PlotConstants.AxisShow;
 
@@ -165,9 +166,13 @@ public class AxisConfig {
 		this.valueSegment = valueSegment;
 	}
 
-	public TreeSet<Double> setValueAxisList(TreeSet<Double> valuesSorted) {
+	public TreeSet<Double> setValueAxisList(DoubleMatrix values) {
 		if (showRelevantValues) {
-			valueAxisList.addAll(valuesSorted);
+			for (int r = 0; r < values.rows(); r++) {
+				for (int c = 0; c < values.rowLength(r); c++) {
+					valueAxisList.add(values.get(r, c));
+				}
+			}
 		}
 		return valueAxisList;
 	}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeSet;
 
+import com.baselet.control.DoubleMatrix;
 import com.baselet.control.SharedUtils;
 import com.baselet.control.basics.geom.Dimension;
 import com.baselet.control.basics.geom.Point;
@@ -23,8 +24,7 @@ public class PlotDrawHandler {
 	// Plot specific settings
 	private String[] title;
 	private String[] desc;
-	private Double[][] values;
-	private TreeSet<Double> valuesSorted;
+	private DoubleMatrix values;
 	private TreeSet<Double> valuesShownOnAxisSorted;
 	// private Double[][] valuesMinMaxCorrected; // if all values are >0 or all values are <0 the distance from 0 to the first real value will be subtracted
 
@@ -220,12 +220,7 @@ public class PlotDrawHandler {
 			}
 		}
 
-		int elementCount = desc.length; // Amount of bars/lines/...
-		for (Double[] vArray : values) {
-			if (vArray.length > elementCount) {
-				elementCount = vArray.length;
-			}
-		}
+		int elementCount = Math.max(desc.length, values.cols()); // Amount of bars/lines/...
 
 		// Calculate some necessary variables to draw the bars (these variables abstract from horizontal/vertical to a relative point of view)
 		if (axisConfig.isxDescription()) {
@@ -346,15 +341,14 @@ public class PlotDrawHandler {
 		}
 	}
 
-	private final void drawLineOrPoints(boolean xIsDescription, Double[][] values, int sourceAxisPos, int valueAxisPos, Double valueSegment, int descSegment, List<String> colors, boolean line) {
+	private final void drawLineOrPoints(boolean xIsDescription, DoubleMatrix values, int sourceAxisPos, int valueAxisPos, Double valueSegment, int descSegment, List<String> colors, boolean line) {
 		int cIndex = 0;
-		for (int valueIndex = 0; valueIndex < values.length; valueIndex++) {
-			Double[] vArray = values[valueIndex];
+		for (int valueIndex = 0; valueIndex < values.rows(); valueIndex++) {
 			int actualValPos;
 			int lineIterator = valueAxisPos + descSegment / 2;
-			List<Point> points = new ArrayList<Point>();
-			for (Double v : vArray) {
-				actualValPos = (int) calculateValuePos(v, valueSegment);
+			List<Point> points = new ArrayList<Point>(values.rowLength(valueIndex));
+			for (int i = 0; i < values.rowLength(valueIndex); i++) {
+				actualValPos = (int) calculateValuePos(values.get(valueIndex, i), valueSegment);
 				if (xIsDescription) {
 					points.add(new Point(lineIterator, sourceAxisPos - actualValPos));
 				}
@@ -393,13 +387,14 @@ public class PlotDrawHandler {
 		base.resetColorSettings();
 	}
 
-	private final void drawBars(boolean xIsDescription, Double[][] values, int sourceAxisPos, int valueAxisPos, Double valueSegment, int descSegment, List<String> colors) {
+	private final void drawBars(boolean xIsDescription, DoubleMatrix values, int sourceAxisPos, int valueAxisPos, Double valueSegment, int descSegment, List<String> colors) {
 		int barLength;
-		int valueRowAmount = values.length;
+		int valueRowAmount = values.rows();
 		for (int vIndex = 0; vIndex < valueRowAmount; vIndex++) {
 			int cIndex = 0;
 			int subBarIterator = valueAxisPos;
-			for (Double v : values[vIndex]) {
+			for (int i = 0; i < values.rowLength(vIndex); i++) {
+				double v = values.get(vIndex, i);
 				if (cIndex >= colors.size()) {
 					cIndex = 0; // Restart with first color if all colors in the array has been used
 				}
@@ -445,9 +440,9 @@ public class PlotDrawHandler {
 
 	public final void drawPiePlot() {
 
-		Double valueSum = 0.0;
-		for (Double v : values[0]) {
-			valueSum += Math.abs(v);
+		double valueSum = 0.0;
+		for (int i = 0; i < values.rowLength(0); i++) {
+			valueSum += Math.abs(values.get(0, i));
 		}
 
 		final Point ulCorner;
@@ -457,16 +452,17 @@ public class PlotDrawHandler {
 		int width = canvas.getInnerHorizontalDrawspace();
 		diameter = height > width ? width : height;
 		ulCorner = new Point(canvas.getInnerLeftPos(), canvas.getInnerUpPos());
-		drawPieArcs(values[0], desc, ulCorner, diameter, valueSum, colors);
+		drawPieArcs(values, 0, desc, ulCorner, diameter, valueSum, colors);
 	}
 
-	private final void drawPieArcs(Double[] values, String[] desc, Point ulCorner, int diameter, Double valueSum, List<String> colors) {
+	private final void drawPieArcs(DoubleMatrix values, int row, String[] desc, Point ulCorner, int diameter, double valueSum, List<String> colors) {
 		int cIndex = 0;
 
 		Double arcAngle = 0D;
 		Double startAngle = 0D;
 
-		for (int i = 0; i < values.length; i++) {
+		int valueCount = values.rowLength(row);
+		for (int i = 0; i < valueCount; i++) {
 			if (cIndex >= colors.size()) {
 				cIndex = 0; // Restart with first color if all colors in the array has been used
 			}
@@ -474,7 +470,7 @@ public class PlotDrawHandler {
 			base.setForegroundColor(ColorOwn.TRANSPARENT);
 			base.setBackgroundColorAndKeepTransparency(colors.get(cIndex));
 
-			arcAngle = i < values.length - 1 ? Math.round(360.0 / valueSum * Math.abs(values[i])) : 360 - startAngle;
+			arcAngle = i < valueCount - 1 ? Math.round(360.0 / valueSum * Math.abs(values.get(row, i))) : 360 - startAngle;
 
 			// System.out.println("val: "+values[i]+" winkel: "+arcAngle);
 
@@ -552,19 +548,16 @@ public class PlotDrawHandler {
 		return value * valueSegment;
 	}
 
-	public void setValues(String[] desc, String[] title, Double[][] values, List<String> colors) {
+	/**
+	 * @param values is not copied because a DoubleMatrix is immutable
+	 */
+	public void setValues(String[] desc, String[] title, DoubleMatrix values, List<String> colors) {
 		this.desc = SharedUtils.cloneArray(desc);
 		this.title = SharedUtils.cloneArray(title);
 		this.colors = new ArrayList<String>(colors);
-		this.values = SharedUtils.cloneArray(values);
+		this.values = values;
 
-		valuesSorted = new TreeSet<Double>();
-		for (Double[] vArray : values) {
-			for (Double v : vArray) {
-				valuesSorted.add(v);
-			}
-		}
-		valuesShownOnAxisSorted = axisConfig.setValueAxisList(valuesSorted);
+		valuesShownOnAxisSorted = axisConfig.setValueAxisList(values);
 
 		minVal = minRealOrShownValue();
 		maxVal = maxRealOrShownValue();
@@ -592,19 +585,19 @@ public class PlotDrawHandler {
 
 	private double minRealOrShownValue() {
 		if (valuesShownOnAxisSorted.isEmpty()) {
-			return valuesSorted.first();
+			return values.getMin();
 		}
 		else {
-			return Math.min(valuesSorted.first(), valuesShownOnAxisSorted.first());
+			return Math.min(values.getMin(), valuesShownOnAxisSorted.first());
 		}
 	}
 
 	private double maxRealOrShownValue() {
 		if (valuesShownOnAxisSorted.isEmpty()) {
-			return valuesSorted.last();
+			return values.getMax();
 		}
 		else {
-			return Math.max(valuesSorted.last(), valuesShownOnAxisSorted.last());
+			return Math.max(values.getMax(), valuesShownOnAxisSorted.last());
 		}
 	}
 
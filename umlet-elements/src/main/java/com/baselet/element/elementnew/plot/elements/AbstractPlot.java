@@ -2,6 +2,7 @@ package com.baselet.element.elementnew.plot.elements;
 
 import java.util.List;
 
+import com.baselet.control.DoubleMatrix;
 import com.baselet.diagram.draw.DrawHandler;
 import com.baselet.diagram.draw.helper.ColorOwn;
 import com.baselet.diagram.draw.helper.ColorOwn.Transparency;
@@ -62,14 +63,14 @@ public abstract class AbstractPlot {
 		String[] title = ds.titleCol();
 		// System.out.print("\ntitle of ds " + ds.getLineNr() + " :");
 		// for (String t : title) System.out.print("<" + t + ">");
-		Double[][] values = ds.data();
+		DoubleMatrix values = ds.data();
 		List<String> colors = plotState.getValueList(PlotConstants.KEY_LIST_COLORS, PlotConstants.COLORS_DEFAULT);
 		for (String color : colors) {
 			if (ColorOwn.forStringOrNull(color, Transparency.FOREGROUND) == null) {
 				throw new ParserException("Unknown color: " + color + "(line: " + plotState.getLine(PlotConstants.KEY_LIST_COLORS) + ")");
 			}
 		}
-		if (values.length > getMaxAllowedValueRows()) {
+		if (values.rows() > getMaxAllowedValueRows()) {
 			throw new ParserException("The dataset (line: " + plotState.getDataSet().getLineNr() + ") has too many rows for the plot (line: " + plotState.getPlotLineNr() + ")");
 		}
 
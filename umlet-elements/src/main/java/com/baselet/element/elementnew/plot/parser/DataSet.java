@@ -1,22 +1,25 @@
 package com.baselet.element.elementnew.plot.parser;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
-import com.baselet.control.Matrix;
+import com.baselet.control.DoubleMatrix;
 
 public class DataSet {
 	private String id;
 	private Integer nr;
 	private int lineNr;
 	private boolean isInverted;
+	private boolean isMatrixInverted; // is also switched if the analysis of the inverted matrix fails (unlike isInverted)
+	private boolean isPadded; // once inverted, short lines are padded with missing cells (like an inverted Matrix which is inverted back)
 
 	private List<String> titleRow = null;
 	private List<String> titleCol = null;
 
-	private Matrix<Double> valueMatrix;
-	private Matrix<String> analyseMatrix;
+	private DoubleMatrix valueMatrix;
+	// the analysed matrix is not copied on inversion, instead the cells of the lines are accessed with swapped row and column
+	private final List<Line> lines = new ArrayList<Line>();
+	private int longestLine = 0;
 
 	public static final Double VALUE_DEFAULT = 0.0; // used for invalid value fields or missing fields
 
@@ -24,7 +27,6 @@ public class DataSet {
 		this.id = id;
 		this.nr = nr;
 		this.lineNr = lineNr;
-		analyseMatrix = new Matrix<String>();
 	}
 
 	public String getId() {
@@ -58,24 +60,13 @@ public class DataSet {
 	}
 
 	/**
-	 * @param index
-	 *            the index of the row
-	 * @return a Double[] containing the cells of the row
+	 * @return the values of the dataset (the matrix is immutable, therefore it's not copied)
 	 */
-	public Double[] row(int index) {
-		List<Double> list = valueMatrix.row(index);
-		return list.toArray(new Double[list.size()]);
-	}
-
-	public Double[][] data() {
+	public DoubleMatrix data() {
 		if (valueMatrix.isEmpty()) {
 			throw new ParserException("The dataset (line: " + getLineNr() + ") has no values");
 		}
-		Double[][] returnArray = new Double[rows()][];
-		for (int i = 0; i < rows(); i++) {
-			returnArray[i] = row(i);
-		}
-		return returnArray;
+		return valueMatrix;
 	}
 
 	/**
@@ -84,7 +75,8 @@ public class DataSet {
 	 */
 	public void setInvert(boolean shouldBeInverted) {
 		if (isInverted == !shouldBeInverted) {
-			analyseMatrix.invert();
+			isMatrixInverted = !isMatrixInverted;
+			isPadded = true;
 			separateTitleRowColFromContent();
 			isInverted = shouldBeInverted;
 		}
@@ -100,11 +92,24 @@ public class DataSet {
 
 	@Override
 	public String toString() {
-		return "Dataset (" + id + ")\n" + analyseMatrix;
+		StringBuilder sb = new StringBuilder("Dataset (" + id + ")\n");
+		for (int r = 0; r < analysedRows(); r++) {
+			for (int c = 0; c < analysedRowLength(r); c++) {
+				String text = cellText(r, c);
+				sb.append(text != null ? text : "null").append("\t");
+			}
+			sb.append("\n");
+		}
+		return sb.toString();
 	}
 
-	protected void addLine(String[] line) {
-		analyseMatrix.addLine(new ArrayList<String>(Arrays.asList(line)));
+	/**
+	 * adds the line [from, to) of the source; its cells are split and parsed immediately, therefore inversions don't parse again
+	 */
+	protected void addLine(String source, int from, int to) {
+		Line line = new Line(source, from, to);
+		lines.add(line);
+		longestLine = Math.max(longestLine, line.size());
 	}
 
 	protected void analyseMatrix() {
@@ -115,13 +120,19 @@ public class DataSet {
 	}
 
 	private void separateTitleRowColFromContent() {
-		if (analyseMatrix.isEmpty()) {
+		if (isAnalysedMatrixEmpty()) {
 			throw new ParserException("The dataset (line: " + getLineNr() + ") has no content");
 		}
-		List<String> firstRow = analyseMatrix.row(0);
-		List<String> firstCol = analyseMatrix.col(0);
-		boolean hasTitleRow = isTitleLine(firstRow);
-		boolean hasTitleCol = isTitleLine(firstCol);
+		List<String> firstRow = new ArrayList<String>(analysedRowLength(0));
+		for (int c = 0; c < analysedRowLength(0); c++) {
+			firstRow.add(cellText(0, c));
+		}
+		List<String> firstCol = new ArrayList<String>(analysedRows());
+		for (int r = 0; r < analysedRows(); r++) {
+			firstCol.add(cellText(r, 0));
+		}
+		boolean hasTitleRow = isTitleRow();
+		boolean hasTitleCol = isTitleCol();
 
 		if (hasTitleRow && hasTitleCol) {
 			if (!firstRow.get(0).isEmpty() || !firstCol.get(0).isEmpty()) {
@@ -144,40 +155,94 @@ public class DataSet {
 			titleCol = createEmptyList(firstCol.size());
 		}
 
-		valueMatrix = new Matrix<Double>();
-		for (int r = hasTitleRow ? 1 : 0; r < analyseMatrix.rows(); r++) {
-			List<String> row = analyseMatrix.row(r);
-			List<Double> rowDouble = new ArrayList<Double>();
-			for (int c = hasTitleCol ? 1 : 0; c < row.size(); c++) {
-				String val = row.get(c);
-				try {
-					if (val == null) {
-						throw new NumberFormatException();
-					}
-					else {
-						rowDouble.add(Double.parseDouble(val));
-					}
-				} catch (NumberFormatException ex) {
+		int firstValueCol = hasTitleCol ? 1 : 0;
+		List<double[]> valueRows = new ArrayList<double[]>(analysedRows());
+		for (int r = hasTitleRow ? 1 : 0; r < analysedRows(); r++) {
+			int rowLength = analysedRowLength(r);
+			double[] rowDouble = new double[Math.max(0, rowLength - firstValueCol)];
+			for (int c = firstValueCol; c < rowLength; c++) {
+				Line line = lineOfCell(r, c);
+				int cell = cellIndexInLine(r, c);
+				if (cell >= line.size() || !line.numeric[cell]) {
 					throw new ParserException("The Dataset (line: " + getLineNr() + ") contains invalid values");
 				}
+				rowDouble[c - firstValueCol] = line.values[cell];
 			}
-			valueMatrix.addLine(rowDouble);
+			valueRows.add(rowDouble);
 		}
+		valueMatrix = new DoubleMatrix(valueRows);
 	}
 
-	private boolean isTitleLine(List<String> row) {
+	/**
+	 * a title row contains more texts (or empty cells) than numbers; missing cells are ignored
+	 */
+	private boolean isTitleRow() {
 		int numbersInRow = 0;
-		for (String cell : row) {
-			if (cell == null) {
-				continue;
-			}
-			try {
-				Double.parseDouble(cell);
+		for (int c = 0; c < analysedRowLength(0); c++) {
+			if (isNumber(0, c)) {
 				numbersInRow++;
-			} catch (NumberFormatException ex) {/* do nothing */}
+			}
+		}
+		return analysedRowLength(0) - numbersInRow > numbersInRow;
+	}
+
+	private boolean isTitleCol() {
+		int numbersInCol = 0;
+		for (int r = 0; r < analysedRows(); r++) {
+			if (isNumber(r, 0)) {
+				numbersInCol++;
+			}
+		}
+		return analysedRows() - numbersInCol > numbersInCol;
+	}
+
+	private int analysedRows() {
+		return isMatrixInverted ? longestLine : lines.size();
+	}
+
+	private int analysedRowLength(int row) {
+		if (isMatrixInverted) {
+			return lines.size();
+		}
+		return isPadded ? longestLine : lines.get(row).size();
+	}
+
+	private boolean isAnalysedMatrixEmpty() {
+		for (int r = 0; r < analysedRows(); r++) {
+			if (analysedRowLength(r) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Line lineOfCell(int row, int col) {
+		return lines.get(isMatrixInverted ? col : row);
+	}
+
+	private int cellIndexInLine(int row, int col) {
+		return isMatrixInverted ? row : col;
+	}
+
+	private boolean isNumber(int row, int col) {
+		if (col >= analysedRowLength(row)) {
+			return false;
 		}
+		Line line = lineOfCell(row, col);
+		int cell = cellIndexInLine(row, col);
+		return cell < line.size() && line.numeric[cell];
+	}
 
-		return row.size() - numbersInRow > numbersInRow;
+	/**
+	 * @return the text of the cell or null if the cell is missing
+	 */
+	private String cellText(int row, int col) {
+		if (col >= analysedRowLength(row)) {
+			return null;
+		}
+		Line line = lineOfCell(row, col);
+		int cell = cellIndexInLine(row, col);
+		return cell < line.size() ? line.text(cell) : null;
 	}
 
 	private List<String> createEmptyList(int size) {
@@ -187,4 +252,32 @@ public class DataSet {
 		}
 		return returnList;
 	}
+
+	/**
+	 * A dataset line of the source. Only the bounds of its cells are stored, numbers are parsed from the source directly.
+	 */
+	private static class Line {
+		private final String source;
+		private final int[] bounds;
+		private final boolean[] numeric;
+		private final double[] values;
+
+		private Line(String source, int from, int to) {
+			this.source = source;
+			bounds = PlotLexer.splitCells(source, from, to);
+			numeric = new boolean[size()];
+			values = new double[size()];
+			for (int i = 0; i < size(); i++) {
+				numeric[i] = PlotLexer.parseDouble(source, bounds[i * 2], bounds[i * 2 + 1], values, i);
+			}
+		}
+
+		private int size() {
+			return bounds.length / 2;
+		}
+
+		private String text(int cell) {
+			return source.substring(bounds[cell * 2], bounds[cell * 2 + 1]);
+		}
+	}
 }
@@ -1,10 +1,8 @@
 package com.baselet.element.elementnew.plot.parser;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map.Entry;
 
 import org.slf4j.Logger;
@@ -33,39 +31,38 @@ public class Parser {
 
 	public ParserResult parse(String source) {
 
-		List<String> inputList = Arrays.asList(source.split("\n", -1));
-		ListIterator<String> inputIterator = inputList.listIterator();
+		PlotLexer lexer = new PlotLexer(source);
 
-		while (inputIterator.hasNext()) {
-			String line = inputIterator.next();
-			if (line.isEmpty() || line.matches(PlotConstants.REGEX_COMMENT)) {/* ignore empty lines and comments */}
-			else if (line.matches(PlotConstants.REGEX_PLOT)) {
-				parserResult.addPlotState(createPlotStateObject(line.split(" "), inputIterator));
+		while (lexer.hasNext()) {
+			lexer.next();
+			if (lexer.isEmpty() || lexer.isComment()) {/* ignore empty lines and comments */}
+			else if (lexer.isPlot()) {
+				parserResult.addPlotState(createPlotStateObject(lexer.line().split(" "), lexer));
 			}
-			else if (line.matches(PlotConstants.REGEX_PLOT_ADD)) {
+			else if (lexer.isPlotAdd()) {
 				List<PlotState> plotStates = parserResult.getPlotStateList();
 				if (plotStates.isEmpty()) {
 					// if no plotStates, create a new one
-					parserResult.addPlotState(createPlotStateObject(line.split(" "), inputIterator));
+					parserResult.addPlotState(createPlotStateObject(lexer.line().split(" "), lexer));
 				}
 				else {
 					// if plots exist, add new plotState to last plotState
 					PlotState last = plotStates.get(plotStates.size() - 1);
-					last.addSubPlot(createPlotStateObject(line.split(" "), inputIterator));
+					last.addSubPlot(createPlotStateObject(lexer.line().split(" "), lexer));
 				}
 			}
-			else if (line.matches(PlotConstants.REGEX_DATA)) {
-				createDatasetObject(line.split(" "), inputIterator);
+			else if (lexer.isData()) {
+				createDatasetObject(lexer.getDataName(), lexer);
 			}
-			else if (line.matches(PlotConstants.REGEX_DATA_GUESS)) {
-				inputIterator.previous(); // Must go 1 step back to avoid skipping the first line in createDatasetObject
-				createDatasetObject(new String[] { PlotConstants.DATA }, inputIterator);
+			else if (lexer.isDataGuess()) {
+				lexer.previous(); // Must go 1 step back to avoid skipping the first line in createDatasetObject
+				createDatasetObject(null, lexer);
 			}
-			else if (line.matches(PlotConstants.REGEX_VALUE_ASSIGNMENT)) {
-				createKeyValueAssignment(line, inputIterator.nextIndex());
+			else if (lexer.isValueAssignment()) {
+				createKeyValueAssignment(lexer.line(), lexer.nextIndex());
 			}
 			else {
-				throw new ParserException("Invalid line: " + line + "(line: " + inputIterator.nextIndex() + ")");
+				throw new ParserException("Invalid line: " + lexer.line() + "(line: " + lexer.nextIndex() + ")");
 			}
 		}
 
@@ -138,32 +135,25 @@ public class Parser {
 	}
 
 	/**
-	 * Creates a dataset with the second argument as its id (if it has no such parameter it gets a generated id)
+	 * Creates a dataset with the given id (if it has no id it gets a generated id)
 	 * This method is called if the input string starts with "data" or if the input string contains a tab (then a dataset is assumed)
 	 * All lines until the next empty line are part of the dataset
 	 *
-	 * @param args any parameters to the data command including the command itself as first parameter
+	 * @param datasetId the parameter of the data command or null
 	 */
-	private void createDatasetObject(String[] args, ListIterator<String> inputIterator) {
-		int lineNr = inputIterator.nextIndex();
-		String datasetId = null;
-		if (args != null) {
-			if (args.length > 1) {
-				datasetId = args[1];
-				/* handle further parameters here */
-			}
-		}
+	private void createDatasetObject(String datasetId, PlotLexer lexer) {
+		int lineNr = lexer.nextIndex();
 		DataSet newDataset = new DataSet(datasetId, datasetNr++, lineNr);
-		while (inputIterator.hasNext()) {
-			String nextLine = inputIterator.next();
-			if (nextLine.matches(PlotConstants.REGEX_COMMENT)) {
+		while (lexer.hasNext()) {
+			lexer.next();
+			if (lexer.isComment()) {
 				continue;
 			}
-			else if (nextLine.trim().isEmpty()) {
+			else if (lexer.isBlank()) {
 				break;
 			}
 			else {
-				newDataset.addLine(nextLine.split(PlotConstants.REGEX_DATA_SEPARATOR));
+				newDataset.addLine(lexer.getSource(), lexer.start(), lexer.end());
 			}
 		}
 
@@ -183,8 +173,8 @@ public class Parser {
 	 *
 	 * @param args any parameters to the data command including the command itself as first parameter
 	 */
-	private PlotState createPlotStateObject(String[] args, ListIterator<String> inputIterator) {
-		int lineNr = inputIterator.nextIndex();
+	private PlotState createPlotStateObject(String[] args, PlotLexer lexer) {
+		int lineNr = lexer.nextIndex();
 		HashMap<String, KeyValue> localCopyOfValuesCache = copyHashMap(tempPlotValuesCache);
 		if (args != null) {
 			// Arguments are handled as any other key->value assignment but are only valid for this plot
@@ -213,7 +203,7 @@ public class Parser {
 		if (split.length == 1) {
 			split = new String[] { split[0], "" };
 		}
-		if (split[0].matches(PlotConstants.KEY_INT_GRID_WIDTH)) {
+		if (split[0].equals(PlotConstants.KEY_INT_GRID_WIDTH)) {
 			parserResult.addPlotGridValue(split[0], new KeyValue(split[0], split[1], lineNr));
 		}
 		else {
@@ -0,0 +1,372 @@
+package com.baselet.element.elementnew.plot.parser;
+
+/**
+ * Single pass lexer for the plot source. Lines are only referenced by their character range in the source, therefore recognizing the type of a line or the cells and numbers of a dataset line doesn't create intermediate Strings.
+ * The line type checks accept exactly the lines which are matched by the corresponding REGEX_ constants in {@link PlotConstants}.
+ *
+ * The lexer is a cursor over the lines of the source (like a ListIterator): {@link #next()} moves to the next line, which is described by {@link #start()} and {@link #end()}.
+ */
+public class PlotLexer {
+
+	private static final int MAX_FAST_PATH_DIGITS = 15; // every integer with up to 15 digits is exactly representable as double
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 }; // all exactly representable
+
+	private final String source;
+	private final int[] lineStarts; // the last entry is the end of the source + 1, so the line i ends at lineStarts[i + 1] - 1
+	private int nextLine = 0;
+
+	public PlotLexer(String source) {
+		this.source = source;
+		int lineCount = 1;
+		for (int i = 0; i < source.length(); i++) {
+			if (source.charAt(i) == '\n') {
+				lineCount++;
+			}
+		}
+		lineStarts = new int[lineCount + 1];
+		int line = 1;
+		for (int i = 0; i < source.length(); i++) {
+			if (source.charAt(i) == '\n') {
+				lineStarts[line++] = i + 1;
+			}
+		}
+		lineStarts[lineCount] = source.length() + 1;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public boolean hasNext() {
+		return nextLine < lineStarts.length - 1;
+	}
+
+	public void next() {
+		nextLine++;
+	}
+
+	public void previous() {
+		nextLine--;
+	}
+
+	/**
+	 * @return the index of the line which will be returned by the next call to next (equals the 1-based number of the current line)
+	 */
+	public int nextIndex() {
+		return nextLine;
+	}
+
+	/**
+	 * @return start (inclusive) of the current line
+	 */
+	public int start() {
+		return lineStarts[nextLine - 1];
+	}
+
+	/**
+	 * @return end (exclusive) of the current line
+	 */
+	public int end() {
+		return lineStarts[nextLine] - 1;
+	}
+
+	public String line() {
+		return source.substring(start(), end());
+	}
+
+	public boolean isEmpty() {
+		return start() == end();
+	}
+
+	/**
+	 * @return true if the line only contains whitespace (like an empty String after trim())
+	 */
+	public boolean isBlank() {
+		for (int i = start(); i < end(); i++) {
+			if (source.charAt(i) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_COMMENT
+	 */
+	public boolean isComment() {
+		return source.startsWith("//", start()) && !containsLineTerminator(start() + 2, end());
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_PLOT
+	 */
+	public boolean isPlot() {
+		return isPlot(start());
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_PLOT_ADD
+	 */
+	public boolean isPlotAdd() {
+		return start() < end() && source.charAt(start()) == '+' && isPlot(start() + 1);
+	}
+
+	private boolean isPlot(int from) {
+		int to = end();
+		if (!source.startsWith(PlotConstants.PLOT, from)) {
+			return false;
+		}
+		int pos = from + PlotConstants.PLOT.length();
+		if (pos == to || pos + 1 == to && source.charAt(pos) == ' ') {
+			return true;
+		}
+		if (source.charAt(pos) != ' ') {
+			return false;
+		}
+		// 1 or more value assignments, each one preceded by exactly one space
+		while (pos < to && source.charAt(pos) == ' ') {
+			int assignmentEnd = indexOf(' ', pos + 1, to);
+			if (!isValueAssignment(pos + 1, assignmentEnd)) {
+				return false;
+			}
+			pos = assignmentEnd;
+		}
+		return pos == to;
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_DATA
+	 */
+	public boolean isData() {
+		int from = start();
+		int to = end();
+		if (!source.startsWith(PlotConstants.DATA, from)) {
+			return false;
+		}
+		int pos = from + PlotConstants.DATA.length();
+		if (pos == to || pos + 1 == to && source.charAt(pos) == ' ') {
+			return true;
+		}
+		if (source.charAt(pos) != ' ' || pos + 1 == to) {
+			return false;
+		}
+		for (int i = pos + 1; i < to; i++) {
+			if (!isWordChar(source.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the name of a data line (which must be checked by {@link #isData()} before) or null if it has no name
+	 */
+	public String getDataName() {
+		int nameStart = start() + PlotConstants.DATA.length() + 1;
+		return nameStart < end() ? source.substring(nameStart, end()) : null;
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_DATA_GUESS
+	 */
+	public boolean isDataGuess() {
+		int from = start();
+		int to = end();
+		if (source.startsWith("//", from)) {
+			return false;
+		}
+		boolean containsSeparator = false;
+		for (int i = from; i < to; i++) {
+			char c = source.charAt(i);
+			if (isDataSeparator(c)) {
+				containsSeparator = true;
+			}
+		}
+		return from < to && indexOf('=', from, to) == to || containsSeparator && !containsLineTerminator(from, to);
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_VALUE_ASSIGNMENT
+	 */
+	public boolean isValueAssignment() {
+		return isValueAssignment(start(), end());
+	}
+
+	private boolean isValueAssignment(int from, int to) {
+		int separator = indexOf('=', from, to);
+		if (separator == from || separator == to) {
+			return false;
+		}
+		for (int i = from; i < separator; i++) {
+			if (!isKeyChar(source.charAt(i))) {
+				return false;
+			}
+		}
+		for (int i = separator + 1; i < to; i++) {
+			if (!isValueChar(source.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * splits the range into the cells of a dataset line like String.split(PlotConstants.REGEX_DATA_SEPARATOR) (a line which starts with a separator has an empty first cell, separators at the end are ignored)
+	 * @return the bounds of the cells: cell i is the range [bounds[2*i], bounds[2*i+1])
+	 */
+	public static int[] splitCells(String source, int from, int to) {
+		if (from == to) {
+			return new int[] { from, to }; // String.split returns the input if there is no separator
+		}
+		int[] bounds = new int[countCells(source, from, to) * 2];
+		int cells = 0;
+		int pos = skipSeparators(source, from, to);
+		if (pos > from && pos < to) {
+			bounds[0] = from; // leading separators create an empty first cell
+			bounds[1] = from;
+			cells++;
+		}
+		while (pos < to) {
+			bounds[cells * 2] = pos;
+			while (pos < to && !isDataSeparator(source.charAt(pos))) {
+				pos++;
+			}
+			bounds[cells * 2 + 1] = pos;
+			cells++;
+			pos = skipSeparators(source, pos, to);
+		}
+		return bounds;
+	}
+
+	private static int countCells(String source, int from, int to) {
+		int pos = skipSeparators(source, from, to);
+		int cells = pos > from && pos < to ? 1 : 0;
+		while (pos < to) {
+			while (pos < to && !isDataSeparator(source.charAt(pos))) {
+				pos++;
+			}
+			cells++;
+			pos = skipSeparators(source, pos, to);
+		}
+		return cells;
+	}
+
+	private static int skipSeparators(String source, int from, int to) {
+		int pos = from;
+		while (pos < to && isDataSeparator(source.charAt(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * parses the range like Double.parseDouble(source.substring(from, to)), but simple decimal numbers are parsed without creating a String
+	 * @return true if the range is a valid number (which is stored in values[index]), false otherwise
+	 */
+	public static boolean parseDouble(String source, int from, int to, double[] values, int index) {
+		if (from == to) {
+			return false;
+		}
+		int pos = from;
+		boolean negative = false;
+		char first = source.charAt(pos);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			pos++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean dot = false;
+		boolean simple = pos < to;
+		for (int i = pos; i < to && simple; i++) {
+			char c = source.charAt(i);
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + c - '0';
+				digits++;
+				if (dot) {
+					fractionDigits++;
+				}
+			}
+			else if (c == '.' && !dot) {
+				dot = true;
+			}
+			else {
+				simple = false;
+			}
+		}
+		if (simple && digits > 0 && digits <= MAX_FAST_PATH_DIGITS) {
+			// mantissa and power of ten are exact doubles, therefore the division is correctly rounded like Double.parseDouble
+			double value = mantissa / POWERS_OF_TEN[fractionDigits];
+			values[index] = negative ? -value : value;
+			return true;
+		}
+		if (!couldBeNumber(source, from, to)) {
+			return false; // avoid the exception for texts like titles
+		}
+		try {
+			values[index] = Double.parseDouble(source.substring(from, to));
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return false if Double.parseDouble would certainly throw an exception
+	 */
+	private static boolean couldBeNumber(String source, int from, int to) {
+		char c = source.charAt(from);
+		if (c <= ' ') {
+			return true; // parseDouble trims whitespace
+		}
+		if ((c == '-' || c == '+') && from + 1 < to) {
+			c = source.charAt(from + 1);
+		}
+		return c >= '0' && c <= '9' || c == '.' || c == 'N' || c == 'I';
+	}
+
+	private int indexOf(char c, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (source.charAt(i) == c) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	private boolean containsLineTerminator(int from, int to) {
+		for (int i = from; i < to; i++) {
+			char c = source.charAt(i);
+			if (c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') { // the chars which are not matched by . in a regex (except \n which separates lines)
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isDataSeparator(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	/**
+	 * @return true for characters matched by \w (without the UNICODE_CHARACTER_CLASS flag)
+	 */
+	private static boolean isWordChar(char c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_KEY
+	 */
+	private static boolean isKeyChar(char c) {
+		return isWordChar(c) || c == '(' || c == ')' || c == '.';
+	}
+
+	/**
+	 * @see PlotConstants#REGEX_VALUE
+	 */
+	private static boolean isValueChar(char c) {
+		return isKeyChar(c) || c == '-' || c == '#' || c == ',';
+	}
+}
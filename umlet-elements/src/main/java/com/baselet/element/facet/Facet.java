@@ -24,6 +24,14 @@ public abstract class Facet {
 	 */
 	public abstract boolean checkStart(String line, PropertiesParserState state);
 
+	/**
+	 * Facets which only accept lines with certain prefixes should return them, so the parser can skip the checkStart() call for all other lines (see {@link FacetIndex})
+	 * @return the prefixes of all lines which can be accepted by {@link #checkStart(String, PropertiesParserState)} or null if any line can be accepted
+	 */
+	public List<String> getLinePrefixes() {
+		return null;
+	}
+
 	/**
 	 * This method is invoked at the time when a specific line is parsed
 	 * @param line the current line which is parsed
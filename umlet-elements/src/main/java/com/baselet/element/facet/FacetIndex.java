@@ -0,0 +1,160 @@
+package com.baselet.element.facet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes property lines to the facets which could possibly handle them.
+ * Facets which declare {@link Facet#getLinePrefixes()} are stored in a prefix trie, therefore their checkStart method is only called if a line starts with one of their prefixes.
+ * Free-form facets (without prefixes) are checked for every line.
+ * The candidates are always checked in the order of the facet list, so the first facet which accepts a line still consumes it.
+ *
+ * The lists which collect the handled and unused lines are reused for every parser run, therefore an index must only be used by one parser at a time
+ * (this is the case because every element creates its own {@link Settings}).
+ */
+public class FacetIndex {
+
+	private final Facet[] facets;
+	private final boolean[] freeForm;
+	private final boolean[] candidate; // reused marker array for the current line
+	private final int[] usageSlot; // equal facets in the list share the list of handled lines
+	private final List<List<String>> handledLines = new ArrayList<List<String>>();
+	private final List<String> unusedLines = new ArrayList<String>();
+	private final TrieNode root = new TrieNode();
+	private boolean hasFreeFormFacets = false;
+
+	public FacetIndex(List<? extends Facet> facetList) {
+		facets = facetList.toArray(new Facet[facetList.size()]);
+		freeForm = new boolean[facets.length];
+		candidate = new boolean[facets.length];
+		usageSlot = new int[facets.length];
+		for (int i = 0; i < facets.length; i++) {
+			usageSlot[i] = initUsageSlot(i);
+			List<String> prefixes = facets[i].getLinePrefixes();
+			if (prefixes == null) {
+				freeForm[i] = true;
+				hasFreeFormFacets = true;
+			}
+			else {
+				for (String prefix : prefixes) {
+					root.add(prefix, 0, i);
+				}
+			}
+		}
+	}
+
+	private int initUsageSlot(int facetPos) {
+		for (int j = 0; j < facetPos; j++) {
+			if (facets[j].equals(facets[facetPos])) {
+				return usageSlot[j];
+			}
+		}
+		handledLines.add(new ArrayList<String>());
+		return handledLines.size() - 1;
+	}
+
+	public int size() {
+		return facets.length;
+	}
+
+	public Facet getFacet(int facetPos) {
+		return facets[facetPos];
+	}
+
+	/**
+	 * @return the first facet position in the list whose checkStart method accepts the line or -1 if no facet accepts it
+	 */
+	public int findFacet(String line, PropertiesParserState state) {
+		boolean anyCandidate = root.markCandidates(line, candidate);
+		if (!anyCandidate && !hasFreeFormFacets) {
+			return -1;
+		}
+		int found = -1;
+		for (int i = 0; i < facets.length; i++) {
+			if ((freeForm[i] || candidate[i]) && facets[i].checkStart(line, state)) {
+				found = i;
+				break;
+			}
+		}
+		if (anyCandidate) {
+			Arrays.fill(candidate, false);
+		}
+		return found;
+	}
+
+	/**
+	 * clears the handled and unused lines of the last parser run
+	 */
+	public void reset() {
+		for (List<String> lines : handledLines) {
+			lines.clear();
+		}
+		unusedLines.clear();
+	}
+
+	/**
+	 * @return the lines handled by the facet at the given position during the current parser run
+	 */
+	public List<String> getHandledLines(int facetPos) {
+		return handledLines.get(usageSlot[facetPos]);
+	}
+
+	/**
+	 * @return the lines no facet has accepted during the current parser run
+	 */
+	public List<String> getUnusedLines() {
+		return unusedLines;
+	}
+
+	private static class TrieNode {
+		private char[] keys = new char[0];
+		private TrieNode[] children = new TrieNode[0];
+		private int[] facetPositions = new int[0]; // facets which have a prefix ending at this node
+
+		private void add(String prefix, int charPos, int facetPos) {
+			if (charPos == prefix.length()) {
+				facetPositions = Arrays.copyOf(facetPositions, facetPositions.length + 1);
+				facetPositions[facetPositions.length - 1] = facetPos;
+				return;
+			}
+			char c = prefix.charAt(charPos);
+			TrieNode child = getChild(c);
+			if (child == null) {
+				child = new TrieNode();
+				keys = Arrays.copyOf(keys, keys.length + 1);
+				keys[keys.length - 1] = c;
+				children = Arrays.copyOf(children, children.length + 1);
+				children[children.length - 1] = child;
+			}
+			child.add(prefix, charPos + 1, facetPos);
+		}
+
+		private TrieNode getChild(char c) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == c) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * walks along the line and marks every facet with a prefix of the line
+		 * @return true if at least one facet has been marked
+		 */
+		private boolean markCandidates(String line, boolean[] candidate) {
+			boolean marked = false;
+			TrieNode node = this;
+			int charPos = 0;
+			while (node != null) {
+				for (int facetPos : node.facetPositions) {
+					candidate[facetPos] = true;
+					marked = true;
+				}
+				node = charPos < line.length() ? node.getChild(line.charAt(charPos++)) : null;
+			}
+			return marked;
+		}
+	}
+}
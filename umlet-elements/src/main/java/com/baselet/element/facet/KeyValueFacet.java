@@ -100,6 +100,11 @@ public abstract class KeyValueFacet extends Facet {
 		return line.startsWith(getKeyWithSep());
 	}
 
+	@Override
+	public List<String> getLinePrefixes() {
+		return Arrays.asList(getKeyWithSep());
+	}
+
 	@Override
 	public void handleLine(String line, PropertiesParserState state) {
 		String value = extractValue(line);
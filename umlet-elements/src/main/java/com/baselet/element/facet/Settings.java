@@ -88,6 +88,8 @@ public abstract class Settings {
 
 	private List<Facet> firstRunFacets;
 	private List<Facet> secondRunFacets;
+	private FacetIndex firstRunIndex;
+	private FacetIndex secondRunIndex;
 
 	private void initFacets() {
 		if (firstRunFacets == null) {
@@ -132,4 +134,18 @@ public abstract class Settings {
 		return secondRunFacets;
 	}
 
+	public final FacetIndex getFacetIndexForFirstRun() {
+		if (firstRunIndex == null) {
+			firstRunIndex = new FacetIndex(getFacetsForFirstRun());
+		}
+		return firstRunIndex;
+	}
+
+	public final FacetIndex getFacetIndexForSecondRun() {
+		if (secondRunIndex == null) {
+			secondRunIndex = new FacetIndex(getFacetsForSecondRun());
+		}
+		return secondRunIndex;
+	}
+
 }
\ No newline at end of file
@@ -12,9 +12,16 @@ public class CommentFacet extends FirstRunFacet {
 
 	public static final CommentFacet INSTANCE = new CommentFacet();
 
+	private static final String PREFIX = "//";
+
 	@Override
 	public boolean checkStart(String line, PropertiesParserState state) {
-		return line.startsWith("//"); // comments start with // and are removed
+		return line.startsWith(PREFIX); // comments start with // and are removed
+	}
+
+	@Override
+	public List<String> getLinePrefixes() {
+		return Collections.singletonList(PREFIX);
 	}
 
 	@Override
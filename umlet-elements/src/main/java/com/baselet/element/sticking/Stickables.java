@@ -13,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.baselet.control.basics.geom.PointDouble;
+import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.constants.SharedConstants;
 import com.baselet.element.sticking.StickingPolygon.StickLine;
 
@@ -22,13 +23,33 @@ public class Stickables {
 
 	public static StickableMap getStickingPointsWhichAreConnectedToStickingPolygon(StickingPolygon oldStickingPolygon, Collection<? extends Stickable> stickables) {
 		int maxDistance = SharedConstants.DEFAULT_GRID_SIZE - 1; // because stickables is always calculated at 10px gridsize, the maxdistance for sticking is 9px (this tolerance is important for diagonal stickinglines like the UseCase has, otherwise 0px tolerance should always work if the stickingLineEnd is always on the exact same Point as the stickingpolygon)
-		log.debug("Polygon to check: " + oldStickingPolygon);
+		if (log.isDebugEnabled()) {
+			log.debug("Polygon to check: " + oldStickingPolygon);
+		}
 		StickableMap returnMap = new StickableMap();
+		Rectangle polygonBounds = oldStickingPolygon.getBounds();
+		if (polygonBounds == null) {
+			return returnMap; // a polygon without points has no sticklines
+		}
+		// a point which is outside of the bounds of the polygon (enlarged by maxDistance) cannot be near any of its sticklines
+		double minX = polygonBounds.getX() - maxDistance;
+		double minY = polygonBounds.getY() - maxDistance;
+		double maxX = polygonBounds.getX2() + maxDistance;
+		double maxY = polygonBounds.getY2() + maxDistance;
+		List<StickLine> stickLines = oldStickingPolygon.getStickLines();
 		for (final Stickable stickable : stickables) {
+			Rectangle stickableRect = stickable.getRealRectangle();
 			for (final PointDoubleIndexed p : stickable.getStickablePoints()) {
-				PointDouble absolutePointPosition = getAbsolutePosition(stickable, p);
-				for (StickLine sl : oldStickingPolygon.getStickLines()) {
-					log.trace("CHECK " + sl + "/" + absolutePointPosition + "/" + maxDistance);
+				double absX = stickableRect.getX() + p.getX().intValue();
+				double absY = stickableRect.getY() + p.getY().intValue();
+				if (absX < minX || absX > maxX || absY < minY || absY > maxY) {
+					continue;
+				}
+				PointDouble absolutePointPosition = new PointDouble(absX, absY);
+				for (StickLine sl : stickLines) {
+					if (log.isTraceEnabled()) {
+						log.trace("CHECK " + sl + "/" + absolutePointPosition + "/" + maxDistance);
+					}
 					if (sl.isConnected(absolutePointPosition, maxDistance)) {
 						returnMap.add(stickable, p);
 					}
@@ -148,6 +148,28 @@ public class StickingPolygon {
 		return stick;
 	}
 
+	/**
+	 * @return the smallest rectangle which contains all points of the polygon or null if the polygon has no points
+	 */
+	public Rectangle getBounds() {
+		if (allPoints.isEmpty()) {
+			return null;
+		}
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (PointDouble p : allPoints) {
+			minX = Math.min(minX, p.getX());
+			minY = Math.min(minY, p.getY());
+			maxX = Math.max(maxX, p.getX());
+			maxY = Math.max(maxY, p.getY());
+		}
+		int x = (int) Math.floor(minX);
+		int y = (int) Math.floor(minY);
+		return new Rectangle(x, y, (int) Math.ceil(maxX) - x, (int) Math.ceil(maxY) - y);
+	}
+
 	public int isConnected(PointDouble p, int gridSize) {
 		int con = -1;
 		for (int i = 0; i < stick.size(); i++) {
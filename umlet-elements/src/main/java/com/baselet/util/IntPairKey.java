@@ -0,0 +1,16 @@
+package com.baselet.util;
+
+/**
+ * Hash map keys for pairs of ints (e.g. the coordinates of a grid cell).
+ */
+public class IntPairKey {
+
+	private IntPairKey() {}
+
+	/**
+	 * @return a key which is unique for the pair; the multiplication with an odd constant keeps the keys unique, but spreads their hash codes (Long.hashCode of the packed pair would be a ^ b, which is equal for all cells on a diagonal)
+	 */
+	public static Long of(int a, int b) {
+		return ((long) a << 32 | b & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+	}
+}
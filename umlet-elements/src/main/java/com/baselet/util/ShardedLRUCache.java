@@ -0,0 +1,173 @@
+package com.baselet.util;
+
+/**
+ * Thread-safe cache which distributes its entries over several {@link LRUCache} shards.
+ * Each shard is guarded by its own lock, therefore threads which access different keys rarely block each other.
+ * The eviction order is LRU per shard, which approximates a global LRU order if the keys are well distributed.
+ *
+ * Only synchronized blocks and java.util classes are used, so the class also works in the GWT client.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class ShardedLRUCache<K, V> {
+
+	private static final int DEFAULT_SHARD_COUNT = 16;
+
+	private final int shardCount;
+	private volatile Shard<K, V>[] shards; // volatile instead of synchronized access, because it is read on every cache lookup
+	private int maxSize;
+
+	/**
+	 * @param maxSize how many elements should fit in the cache (split equally over all shards)
+	 */
+	public ShardedLRUCache(int maxSize) {
+		this(maxSize, DEFAULT_SHARD_COUNT);
+	}
+
+	/**
+	 * @param maxSize how many elements should fit in the cache (split equally over all shards)
+	 * @param shardCount number of independently locked segments, will be rounded up to a power of 2
+	 */
+	public ShardedLRUCache(int maxSize, int shardCount) {
+		if (maxSize < 1 || shardCount < 1) {
+			throw new IllegalArgumentException("maxSize and shardCount must be > 0");
+		}
+		int count = 1;
+		while (count < shardCount) {
+			count <<= 1;
+		}
+		this.shardCount = count;
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * changes the size limit of the cache; all cached entries and statistics are dropped
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be > 0");
+		}
+		this.maxSize = maxSize;
+		int shardSize = (maxSize + shardCount - 1) / shardCount;
+		Shard<K, V>[] newShards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			newShards[i] = new Shard<K, V>(shardSize);
+		}
+		shards = newShards;
+	}
+
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the cached value or null if there is no value for the key
+	 */
+	public V get(K key) {
+		Shard<K, V> shard = shardFor(key);
+		synchronized (shard) {
+			V value = shard.get(key);
+			if (value == null) {
+				shard.misses++;
+			}
+			else {
+				shard.hits++;
+			}
+			return value;
+		}
+	}
+
+	public void put(K key, V value) {
+		Shard<K, V> shard = shardFor(key);
+		synchronized (shard) {
+			shard.put(key, value);
+		}
+	}
+
+	public void clear() {
+		for (Shard<K, V> shard : getShards()) {
+			synchronized (shard) {
+				shard.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Shard<K, V> shard : getShards()) {
+			synchronized (shard) {
+				size += shard.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHitCount() {
+		long count = 0;
+		for (Shard<K, V> shard : getShards()) {
+			synchronized (shard) {
+				count += shard.hits;
+			}
+		}
+		return count;
+	}
+
+	public long getMissCount() {
+		long count = 0;
+		for (Shard<K, V> shard : getShards()) {
+			synchronized (shard) {
+				count += shard.misses;
+			}
+		}
+		return count;
+	}
+
+	public long getEvictionCount() {
+		long count = 0;
+		for (Shard<K, V> shard : getShards()) {
+			synchronized (shard) {
+				count += shard.evictions;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "ShardedLRUCache [size=" + size() + ", maxSize=" + getMaxSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private Shard<K, V>[] getShards() {
+		return shards;
+	}
+
+	private Shard<K, V> shardFor(K key) {
+		int h = key == null ? 0 : key.hashCode();
+		h ^= h >>> 16; // spread the higher bits, because only the lowest bits are used to select the shard
+		return getShards()[h & shardCount - 1];
+	}
+
+	private static class Shard<K, V> extends LRUCache<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private long hits;
+		private long misses;
+		private long evictions;
+
+		public Shard(int cacheSize) {
+			super(cacheSize + 1); // LRUCache keeps cacheSize-1 elements
+		}
+
+		@Override
+		protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
+			boolean remove = super.removeEldestEntry(eldest);
+			if (remove) {
+				evictions++;
+			}
+			return remove;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.baselet.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.baselet.control.basics.geom.Point;
+import com.baselet.control.basics.geom.Rectangle;
+
+/**
+ * Uniform grid which maps rectangles to the cells they cover, so that area and point queries only have to check the objects in the touched cells instead of all objects.
+ * Objects which would cover too many cells (e.g. huge relations) are stored in a separate list which is checked on every query.
+ *
+ * Query results are always returned in insertion order, therefore they are consistent with the order of the list the index is built from.
+ * The index is not thread-safe (it is meant to be used from the UI thread) and only uses java.util classes, so it also works in the GWT client.
+ *
+ * @param <T> the indexed objects (used as keys of a HashMap)
+ */
+public class SpatialIndex<T> {
+
+	public static final int DEFAULT_CELL_SIZE = 200;
+
+	private static final int MAX_CELLS_PER_ENTRY = 64;
+
+	private static final Comparator<Entry<?>> INSERTION_ORDER = new Comparator<Entry<?>>() {
+		@Override
+		public int compare(Entry<?> o1, Entry<?> o2) {
+			return o1.sequence < o2.sequence ? -1 : o1.sequence == o2.sequence ? 0 : 1;
+		}
+	};
+
+	private final int cellSize;
+	private final Map<T, Entry<T>> entries = new HashMap<T, Entry<T>>();
+	private final Map<Long, List<Entry<T>>> cells = new HashMap<Long, List<Entry<T>>>();
+	private final List<Entry<T>> oversizedEntries = new ArrayList<Entry<T>>();
+	private long nextSequence = 0;
+	private int queryStamp = 0;
+
+	public SpatialIndex() {
+		this(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * @param cellSize width and height of a grid cell; should be in the range of a typical object size
+	 */
+	public SpatialIndex(int cellSize) {
+		if (cellSize < 1) {
+			throw new IllegalArgumentException("cellSize must be > 0");
+		}
+		this.cellSize = cellSize;
+	}
+
+	public void add(T object, Rectangle bounds) {
+		remove(object);
+		Entry<T> entry = new Entry<T>(object, nextSequence++);
+		entries.put(object, entry);
+		insert(entry, bounds);
+	}
+
+	/**
+	 * moves the object to its new bounds (it keeps its position in the insertion order)
+	 */
+	public void update(T object, Rectangle bounds) {
+		Entry<T> entry = entries.get(object);
+		if (entry == null) {
+			add(object, bounds);
+		}
+		else if (!bounds.equals(entry.bounds)) {
+			detach(entry);
+			insert(entry, bounds);
+		}
+	}
+
+	public void remove(T object) {
+		Entry<T> entry = entries.remove(object);
+		if (entry != null) {
+			detach(entry);
+		}
+	}
+
+	public boolean contains(T object) {
+		return entries.containsKey(object);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+		cells.clear();
+		oversizedEntries.clear();
+	}
+
+	/**
+	 * @return all objects whose bounds intersect the area (borders are inclusive like in {@link Rectangle#intersects(Rectangle)})
+	 */
+	public List<T> query(Rectangle area) {
+		queryStamp++;
+		List<Entry<T>> found = new ArrayList<Entry<T>>();
+		collect(oversizedEntries, area, found);
+		int minX = cell(area.getX());
+		int maxX = cell(area.getX2());
+		int minY = cell(area.getY());
+		int maxY = cell(area.getY2());
+		if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) { // huge area, iterating the filled cells is cheaper
+			for (List<Entry<T>> cellEntries : cells.values()) {
+				collect(cellEntries, area, found);
+			}
+		}
+		else {
+			for (int cx = minX; cx <= maxX; cx++) {
+				for (int cy = minY; cy <= maxY; cy++) {
+					List<Entry<T>> cellEntries = cells.get(IntPairKey.of(cx, cy));
+					if (cellEntries != null) {
+						collect(cellEntries, area, found);
+					}
+				}
+			}
+		}
+		Collections.sort(found, INSERTION_ORDER);
+		List<T> result = new ArrayList<T>(found.size());
+		for (Entry<T> entry : found) {
+			result.add(entry.object);
+		}
+		return result;
+	}
+
+	/**
+	 * @return all objects whose bounds contain the point
+	 */
+	public List<T> query(Point point) {
+		return query(new Rectangle(point.getX(), point.getY(), 0, 0));
+	}
+
+	private void collect(List<Entry<T>> candidates, Rectangle area, List<Entry<T>> found) {
+		for (Entry<T> entry : candidates) {
+			if (entry.queryStamp != queryStamp && entry.bounds.intersects(area)) {
+				entry.queryStamp = queryStamp; // an entry which covers multiple cells must only be returned once
+				found.add(entry);
+			}
+		}
+	}
+
+	private void insert(Entry<T> entry, Rectangle bounds) {
+		entry.bounds = bounds.copy();
+		if (cellCount(entry.bounds) > MAX_CELLS_PER_ENTRY) {
+			oversizedEntries.add(entry);
+			return;
+		}
+		for (int cx = cell(entry.bounds.getX()); cx <= cell(entry.bounds.getX2()); cx++) {
+			for (int cy = cell(entry.bounds.getY()); cy <= cell(entry.bounds.getY2()); cy++) {
+				Long key = IntPairKey.of(cx, cy);
+				List<Entry<T>> cellEntries = cells.get(key);
+				if (cellEntries == null) {
+					cellEntries = new ArrayList<Entry<T>>(4);
+					cells.put(key, cellEntries);
+				}
+				cellEntries.add(entry);
+			}
+		}
+	}
+
+	private void detach(Entry<T> entry) {
+		if (cellCount(entry.bounds) > MAX_CELLS_PER_ENTRY) {
+			oversizedEntries.remove(entry);
+			return;
+		}
+		for (int cx = cell(entry.bounds.getX()); cx <= cell(entry.bounds.getX2()); cx++) {
+			for (int cy = cell(entry.bounds.getY()); cy <= cell(entry.bounds.getY2()); cy++) {
+				Long key = IntPairKey.of(cx, cy);
+				List<Entry<T>> cellEntries = cells.get(key);
+				if (cellEntries != null) {
+					cellEntries.remove(entry);
+					if (cellEntries.isEmpty()) {
+						cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	private long cellCount(Rectangle bounds) {
+		return (long) (cell(bounds.getX2()) - cell(bounds.getX()) + 1) * (cell(bounds.getY2()) - cell(bounds.getY()) + 1);
+	}
+
+	private int cell(int coordinate) {
+		return (int) Math.floor((double) coordinate / cellSize); // floor instead of integer division, because elements can be located at negative coordinates
+	}
+
+	private static class Entry<T> {
+		private final T object;
+		private final long sequence;
+		private Rectangle bounds;
+		private int queryStamp;
+
+		private Entry(T object, long sequence) {
+			this.object = object;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.baselet.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted trigram index over the (lowercased) text of objects, which answers case insensitive substring queries without scanning the text of every object.
+ * A query is split at whitespace into tokens and returns all objects which contain every token.
+ * Candidates are taken from the smallest posting list of all trigrams of the tokens and are verified afterwards, therefore the result is exact.
+ * Tokens with less than 3 characters have no trigrams and are only verified (if the query only consists of such tokens, all objects are checked).
+ *
+ * Query results are returned in insertion order. Like {@link SpatialIndex} the index is not thread-safe and only uses java.util classes.
+ *
+ * @param <T> the indexed objects (used as keys of a HashMap)
+ */
+public class TextIndex<T> {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private static final Comparator<Entry<?>> INSERTION_ORDER = new Comparator<Entry<?>>() {
+		@Override
+		public int compare(Entry<?> o1, Entry<?> o2) {
+			return o1.sequence < o2.sequence ? -1 : o1.sequence == o2.sequence ? 0 : 1;
+		}
+	};
+
+	private final Map<T, Entry<T>> entries = new HashMap<T, Entry<T>>();
+	private final Map<Long, Set<Entry<T>>> postings = new HashMap<Long, Set<Entry<T>>>();
+	private long nextSequence = 0;
+
+	/**
+	 * adds the object or replaces its indexed text (the object keeps its position in the insertion order)
+	 */
+	public void update(T object, String text) {
+		String lowerCaseText = text.toLowerCase();
+		Entry<T> entry = entries.get(object);
+		if (entry == null) {
+			entry = new Entry<T>(object, nextSequence++);
+			entries.put(object, entry);
+		}
+		else if (entry.text.equals(lowerCaseText)) {
+			return;
+		}
+		else {
+			detach(entry);
+		}
+		entry.text = lowerCaseText;
+		entry.grams = grams(lowerCaseText);
+		for (Long gram : entry.grams) {
+			Set<Entry<T>> posting = postings.get(gram);
+			if (posting == null) {
+				posting = new HashSet<Entry<T>>();
+				postings.put(gram, posting);
+			}
+			posting.add(entry);
+		}
+	}
+
+	public void remove(T object) {
+		Entry<T> entry = entries.remove(object);
+		if (entry != null) {
+			detach(entry);
+		}
+	}
+
+	public boolean contains(T object) {
+		return entries.containsKey(object);
+	}
+
+	/**
+	 * @return the lowercased text which is indexed for the object or null if the object is not indexed
+	 */
+	public String getIndexedText(T object) {
+		Entry<T> entry = entries.get(object);
+		return entry == null ? null : entry.text;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+		postings.clear();
+	}
+
+	/**
+	 * @return all objects whose text contains every whitespace separated token of the query (case insensitive); an empty query returns no objects
+	 */
+	public List<T> query(String query) {
+		List<String> tokens = tokenize(query.toLowerCase());
+		if (tokens.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Collection<Entry<T>> candidates = entries.values();
+		for (String token : tokens) {
+			for (Long gram : grams(token)) {
+				Set<Entry<T>> posting = postings.get(gram);
+				if (posting == null) {
+					return Collections.emptyList(); // no object contains this part of the token
+				}
+				if (posting.size() < candidates.size()) {
+					candidates = posting;
+				}
+			}
+		}
+		List<Entry<T>> found = new ArrayList<Entry<T>>();
+		for (Entry<T> entry : candidates) {
+			if (containsAll(entry.text, tokens)) {
+				found.add(entry);
+			}
+		}
+		Collections.sort(found, INSERTION_ORDER);
+		List<T> result = new ArrayList<T>(found.size());
+		for (Entry<T> entry : found) {
+			result.add(entry.object);
+		}
+		return result;
+	}
+
+	private void detach(Entry<T> entry) {
+		for (Long gram : entry.grams) {
+			Set<Entry<T>> posting = postings.get(gram);
+			if (posting != null) {
+				posting.remove(entry);
+				if (posting.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	private static boolean containsAll(String text, List<String> tokens) {
+		for (String token : tokens) {
+			if (text.indexOf(token) == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static List<String> tokenize(String query) {
+		List<String> tokens = new ArrayList<String>();
+		int start = -1;
+		for (int i = 0; i <= query.length(); i++) {
+			boolean separator = i == query.length() || query.charAt(i) <= ' '; // whitespace and control characters
+			if (separator && start != -1) {
+				tokens.add(query.substring(start, i));
+				start = -1;
+			}
+			else if (!separator && start == -1) {
+				start = i;
+			}
+		}
+		return tokens;
+	}
+
+	private static Set<Long> grams(String text) {
+		Set<Long> grams = new HashSet<Long>();
+		for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+			grams.add((long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+		}
+		return grams;
+	}
+
+	private static class Entry<T> {
+		private final T object;
+		private final long sequence;
+		private String text = "";
+		private Set<Long> grams = Collections.emptySet();
+
+		private Entry(T object, long sequence) {
+			this.object = object;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.baselet.control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class DoubleMatrixTest {
+
+	@Test
+	public void cellsAndStatisticsOfRaggedRows() {
+		DoubleMatrix m = new DoubleMatrix(Arrays.asList(new double[] { 1, -2, 3 }, new double[] { 4 }, new double[] {}));
+		assertThat(m.rows()).isEqualTo(3);
+		assertThat(m.cols()).isEqualTo(3);
+		assertThat(m.size()).isEqualTo(4);
+		assertThat(m.rowLength(1)).isEqualTo(1);
+		assertThat(m.get(0, 1)).isEqualTo(-2.0);
+		assertThat(m.get(1, 0)).isEqualTo(4.0);
+		assertThat(m.getMin()).isEqualTo(-2.0);
+		assertThat(m.getMax()).isEqualTo(4.0);
+		assertThat(m.getSum()).isEqualTo(6.0);
+		assertThat(m.isEmpty()).isFalse();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void cellBehindEndOfRowDoesNotExist() {
+		new DoubleMatrix(Arrays.asList(new double[] { 1, 2 }, new double[] { 3 })).get(1, 1);
+	}
+
+	@Test
+	public void matrixWithoutCellsIsEmpty() {
+		assertThat(new DoubleMatrix(Collections.<double[]> emptyList()).isEmpty()).isTrue();
+		assertThat(new DoubleMatrix(Arrays.asList(new double[] {}, new double[] {})).isEmpty()).isTrue();
+	}
+}
@@ -0,0 +1,78 @@
+package com.baselet.control;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import com.baselet.control.enums.FormatLabels;
+
+public class StringStyleTest {
+
+	@Test
+	public void surroundingMarkupIsRemovedInAnyOrder() {
+		assertStyle("*_text_*", "text", FormatLabels.BOLD, FormatLabels.UNDERLINE);
+		assertStyle("/*_text_*/", "text", FormatLabels.BOLD, FormatLabels.UNDERLINE, FormatLabels.ITALIC);
+		assertStyle("__text__", "text", FormatLabels.UNDERLINE);
+		assertStyle("*text*", "text", FormatLabels.BOLD);
+	}
+
+	@Test
+	public void unbalancedOrInnerMarkupIsKept() {
+		assertStyle("*text", "*text");
+		assertStyle("*_text*_", "*_text*_");
+		assertStyle("a*b*c", "a*b*c");
+		assertStyle("", "");
+	}
+
+	@Test
+	public void markupWithoutTextIsKept() {
+		assertStyle("**", "**");
+		assertStyle("***", "*", FormatLabels.BOLD);
+		assertStyle("*__*", "__", FormatLabels.BOLD);
+	}
+
+	@Test
+	public void stringWithoutMarkupIsNotCopied() {
+		String s = "text";
+		assertThat(StringStyle.analyzeFormatLabels(s).getStringWithoutMarkup()).isSameAs(s);
+		assertThat(StringStyle.replaceNotEscaped(s)).isSameAs(s);
+	}
+
+	@Test
+	public void nullHasNoFormat() {
+		StringStyle style = StringStyle.analyzeFormatLabels(null);
+		assertThat(style.getStringWithoutMarkup()).isNull();
+		assertThat(style.getFormat()).isEmpty();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void sharedFormatCantBeModified() {
+		StringStyle.analyzeFormatLabels("text").getFormat().add(FormatLabels.BOLD);
+	}
+
+	@Test
+	public void quotationsAreReplacedUnlessEscaped() {
+		assertThat(StringStyle.replaceNotEscaped("<<interface>>")).isEqualTo("\u00ABinterface\u00BB");
+		assertThat(StringStyle.replaceNotEscaped("\\<<interface\\>>")).isEqualTo("<<interface>>");
+		assertThat(StringStyle.replaceNotEscaped("<<<a>>>")).isEqualTo("\u00AB<a\u00BB>");
+		assertThat(StringStyle.replaceNotEscaped("\\<<<<<")).isEqualTo("<<\u00AB<");
+		assertThat(StringStyle.replaceNotEscaped("\\\\<<")).isEqualTo("\\<<");
+	}
+
+	@Test
+	public void escapedLineBreakIsKept() {
+		assertThat(StringStyle.replaceNotEscaped("a\\nb\\\\nc", "\\n", "\n")).isEqualTo("a\nb\\nc");
+	}
+
+	private static void assertStyle(String input, String expectedText, FormatLabels... expectedFormat) {
+		StringStyle style = StringStyle.analyzeFormatLabels(input);
+		assertThat(style.getStringWithoutMarkup()).isEqualTo(expectedText);
+		EnumSet<FormatLabels> expected = EnumSet.noneOf(FormatLabels.class);
+		for (FormatLabels label : expectedFormat) {
+			expected.add(label);
+		}
+		assertThat(style.getFormat()).isEqualTo(expected);
+	}
+}
@@ -0,0 +1,91 @@
+package com.baselet.diagram.draw;
+
+import com.baselet.control.StringStyle;
+import com.baselet.control.basics.geom.DimensionDouble;
+import com.baselet.control.basics.geom.PointDouble;
+import com.baselet.control.enums.AlignHorizontal;
+import com.baselet.control.enums.AlignVertical;
+import com.baselet.element.facet.customdrawings.DummyDrawHandler;
+
+/**
+ * Simple benchmark for the text layout of elements, which analyzes the markup of every text line on every layout and draw.
+ * It's not executed as part of the test suite; run the main method manually and compare the numbers before and after a change.
+ */
+public class TextSplitterBenchmark {
+
+	private static final String[] LINES = {
+			"<<interface>>",
+			"*/ClassName/*",
+			"_-attribute: int_",
+			"+method(param: String): List<String>",
+			"a longer description of the element which is wrapped into several lines by the text splitter",
+			"\\<<escaped\\>> quotations and *inner* markup" };
+	private static final int WARMUP_ROUNDS = 20000;
+	private static final int MEASURED_ROUNDS = 100000;
+
+	public static void main(String[] args) {
+		DrawHandler drawer = new DummyDrawHandler() {
+			@Override
+			protected DimensionDouble textDimensionHelper(StringStyle singleLine) {
+				return new DimensionDouble(singleLine.getStringWithoutMarkup().length() * 7, 10);
+			}
+		};
+		String multiLine = join(LINES);
+
+		int result = 0;
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			result += analyze();
+			result += layout(drawer);
+			drawer.print(multiLine, new PointDouble(0, 0), AlignHorizontal.LEFT);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			result += analyze();
+		}
+		print("StringStyle analysis", start, result);
+
+		start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			result += layout(drawer);
+		}
+		print("TextSplitter layout and draw", start, result);
+
+		start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			drawer.print(multiLine, new PointDouble(0, 0), AlignHorizontal.LEFT);
+		}
+		print("DrawHandler.print", start, result);
+	}
+
+	private static int analyze() {
+		int length = 0;
+		for (String line : LINES) {
+			length += StringStyle.analyzeFormatLabels(StringStyle.replaceNotEscaped(line)).getStringWithoutMarkup().length();
+		}
+		return length;
+	}
+
+	/**
+	 * the calls of a text facet: check the size of the text and draw it wrapped into the element
+	 */
+	private static int layout(DrawHandler drawer) {
+		double width = 200;
+		double height = TextSplitter.getSplitStringHeight(LINES, width, drawer);
+		TextSplitter.drawText(drawer, LINES, 0, 0, width, height, AlignHorizontal.CENTER, AlignVertical.TOP);
+		return (int) (height + TextSplitter.getTextMinWidth(LINES, drawer));
+	}
+
+	private static String join(String[] lines) {
+		StringBuilder sb = new StringBuilder();
+		for (String line : lines) {
+			sb.append(line).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static void print(String name, long start, int result) {
+		long nanos = System.nanoTime() - start;
+		System.out.println(name + ": " + (double) nanos / MEASURED_ROUNDS / LINES.length + " nanoseconds per line (" + result + ")");
+	}
+}
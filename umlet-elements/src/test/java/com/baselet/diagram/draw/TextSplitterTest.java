@@ -1,6 +1,7 @@
 package com.baselet.diagram.draw;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -65,6 +66,30 @@ public class TextSplitterTest {
 		assertContentEquals(style, Collections.<String> emptyList());
 	}
 
+	@Test
+	public void textsWithTheSameWordLayoutDontShareCacheEntries() throws Exception {
+		DrawHandler drawer = new DummyDrawHandler() {
+			@Override
+			protected DimensionDouble textDimensionHelper(StringStyle sinlgeLine) {
+				String s = sinlgeLine.getStringWithoutMarkup();
+				double width = 0;
+				for (int i = 0; i < s.length(); i++) {
+					width += s.charAt(i) == 'W' ? 10 : 2;
+				}
+				return new DimensionDouble(width, 10);
+			}
+		};
+		assertThat(TextSplitter.getTextMinWidth("WWW", drawer)).isEqualTo(32.01, offset(0.0001));
+		assertThat(TextSplitter.getTextMinWidth("iii", drawer)).isEqualTo(8.01, offset(0.0001));
+
+		assertContentEquals(TextSplitter.splitStringAlgorithm("abc def", 100.0, drawer), Arrays.asList("abc def"));
+		assertContentEquals(TextSplitter.splitStringAlgorithm("xyz uvw", 100.0, drawer), Arrays.asList("xyz uvw"));
+		assertThat(TextSplitter.checkifStringFitsNoWordwrap("WWW WWW", 30.0, drawer)).isFalse();
+		assertThat(TextSplitter.splitStringAlgorithm("WWW WWW", 50.0, drawer)).hasSize(2);
+		assertThat(TextSplitter.splitStringAlgorithm("iii iii", 50.0, drawer)).hasSize(1);
+		assertThat(TextSplitter.checkifStringFitsNoWordwrap("iii iii", 50.0, drawer)).isTrue();
+	}
+
 	private void assertContentEquals(StringStyle[] style, List<String> expected) {
 		assertThat(style.length).isEqualTo(expected.size());
 		for (int i = 0; i < style.length; i++) {
@@ -0,0 +1,58 @@
+package com.baselet.element.elementnew.plot.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PlotLexerTest {
+
+	@Test
+	public void lineTypesMatchRegexes() {
+		String[] lines = { "", "  ", "// comment", "plot", "plot ", "plot grid.width=5 colors=red,#00ff00", "plot  x=1", "+plot", "data", "data abc_1", "data a-b", "1\t2 3", "key=value", "=value", "plt" };
+		StringBuilder source = new StringBuilder();
+		for (int i = 0; i < lines.length; i++) {
+			source.append(lines[i]).append(i < lines.length - 1 ? "\n" : "");
+		}
+		PlotLexer lexer = new PlotLexer(source.toString());
+		for (String line : lines) {
+			assertThat(lexer.hasNext()).isTrue();
+			lexer.next();
+			assertThat(lexer.line()).isEqualTo(line);
+			assertThat(lexer.isEmpty()).as(line).isEqualTo(line.isEmpty());
+			assertThat(lexer.isBlank()).as(line).isEqualTo(line.trim().isEmpty());
+			assertThat(lexer.isComment()).as(line).isEqualTo(line.matches(PlotConstants.REGEX_COMMENT));
+			assertThat(lexer.isPlot()).as(line).isEqualTo(line.matches(PlotConstants.REGEX_PLOT));
+			assertThat(lexer.isPlotAdd()).as(line).isEqualTo(line.matches(PlotConstants.REGEX_PLOT_ADD));
+			assertThat(lexer.isData()).as(line).isEqualTo(line.matches(PlotConstants.REGEX_DATA));
+			assertThat(lexer.isDataGuess()).as(line).isEqualTo(line.matches(PlotConstants.REGEX_DATA_GUESS));
+			assertThat(lexer.isValueAssignment()).as(line).isEqualTo(line.matches(PlotConstants.REGEX_VALUE_ASSIGNMENT));
+		}
+		assertThat(lexer.hasNext()).isFalse();
+	}
+
+	@Test
+	public void cellsAreSplitLikeStringSplit() {
+		for (String line : new String[] { "a b", " a\tb  ", "\t\t", "abc", "" }) {
+			int[] bounds = PlotLexer.splitCells(line, 0, line.length());
+			String[] cells = new String[bounds.length / 2];
+			for (int i = 0; i < cells.length; i++) {
+				cells[i] = line.substring(bounds[2 * i], bounds[2 * i + 1]);
+			}
+			assertThat(Arrays.asList(cells)).as(line).isEqualTo(Arrays.asList(line.split(PlotConstants.REGEX_DATA_SEPARATOR)));
+		}
+	}
+
+	@Test
+	public void numbersAreParsedLikeParseDouble() {
+		double[] values = new double[1];
+		for (String number : new String[] { "0", "-12.5", "+.25", "3.", "0.1", "123456789012345678", "1e3", "NaN", "-Infinity", " 7 " }) {
+			assertThat(PlotLexer.parseDouble(number, 0, number.length(), values, 0)).as(number).isTrue();
+			assertThat(values[0]).as(number).isEqualTo(Double.parseDouble(number));
+		}
+		for (String text : new String[] { "", "-", ".", "1.2.3", "abc", "1,5" }) {
+			assertThat(PlotLexer.parseDouble(text, 0, text.length(), values, 0)).as(text).isFalse();
+		}
+	}
+}
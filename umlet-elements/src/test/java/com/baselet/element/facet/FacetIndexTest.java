@@ -0,0 +1,50 @@
+package com.baselet.element.facet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.baselet.element.facet.common.BackgroundColorFacet;
+import com.baselet.element.facet.common.CommentFacet;
+import com.baselet.element.facet.common.ForegroundColorFacet;
+import com.baselet.element.facet.common.SeparatorLineFacet;
+import com.baselet.element.facet.common.TextPrintFacet;
+
+public class FacetIndexTest {
+
+	private final FacetIndex index = new FacetIndex(Arrays.<Facet> asList(CommentFacet.INSTANCE, BackgroundColorFacet.INSTANCE, ForegroundColorFacet.INSTANCE, SeparatorLineFacet.INSTANCE));
+	private final FacetIndex indexWithFreeForm = new FacetIndex(Arrays.<Facet> asList(CommentFacet.INSTANCE, TextPrintFacet.INSTANCE, BackgroundColorFacet.INSTANCE));
+
+	@Test
+	public void linesAreRoutedByPrefix() {
+		assertThat(index.findFacet("// comment", null)).isEqualTo(0);
+		assertThat(index.findFacet("bg=red", null)).isEqualTo(1);
+		assertThat(index.findFacet("fg=red", null)).isEqualTo(2);
+		assertThat(index.findFacet("--", null)).isEqualTo(3);
+	}
+
+	@Test
+	public void prefixMatchStillRequiresCheckStart() {
+		assertThat(index.findFacet("--x", null)).isEqualTo(-1); // separator lines must match exactly
+		assertThat(index.findFacet("bg", null)).isEqualTo(-1);
+		assertThat(index.findFacet("", null)).isEqualTo(-1);
+	}
+
+	@Test
+	public void freeFormFacetsKeepListOrder() {
+		assertThat(indexWithFreeForm.findFacet("// comment", null)).isEqualTo(0);
+		assertThat(indexWithFreeForm.findFacet("bg=red", null)).isEqualTo(1); // TextPrintFacet accepts every line and is before the bg facet
+		assertThat(indexWithFreeForm.findFacet("text", null)).isEqualTo(1);
+	}
+
+	@Test
+	public void handledLinesAreResetForEveryRun() {
+		index.getHandledLines(1).add("bg=red");
+		index.getUnusedLines().add("text");
+		index.reset();
+		assertThat(index.getHandledLines(1)).isEmpty();
+		assertThat(index.getUnusedLines()).isEmpty();
+	}
+}
@@ -35,7 +35,7 @@ public class DummyDrawHandler extends com.baselet.diagram.draw.DrawHandler {
 	}
 
 	@Override
-	protected double getDefaultFontSize() {
+	public double getDefaultFontSize() {
 		return 0;
 	}
 
@@ -0,0 +1,51 @@
+package com.baselet.element.sticking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.baselet.control.basics.geom.Rectangle;
+import com.baselet.element.sticking.StickablesTest.TestStickable;
+
+/**
+ * Simple benchmark for the sticking detection which is executed at the start of every drag of an element.
+ * It's not executed as part of the test suite; run the main method manually and compare the numbers before and after a change.
+ */
+public class StickablesBenchmark {
+
+	private static final int RELATIONS = 1000;
+	private static final int POINTS_PER_RELATION = 4;
+	private static final int WARMUP_ROUNDS = 2000;
+	private static final int MEASURED_ROUNDS = 10000;
+
+	public static void main(String[] args) {
+		List<Stickable> stickables = createDenseDiagram();
+		StickingPolygon polygon = new StickingPolygon(1500, 1500);
+		polygon.addRectangle(0, 0, 120, 80);
+
+		int found = 0;
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			found += Stickables.getStickingPointsWhichAreConnectedToStickingPolygon(polygon, stickables).getStickables().size();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			found += Stickables.getStickingPointsWhichAreConnectedToStickingPolygon(polygon, stickables).getStickables().size();
+		}
+		long micros = (System.nanoTime() - start) / 1000;
+		System.out.println(RELATIONS + " relations: " + (double) micros / MEASURED_ROUNDS + " microseconds per call (" + found + " sticking relations found)");
+	}
+
+	/**
+	 * relations on a 40x25 grid with 80px spacing, each with points along a diagonal
+	 */
+	private static List<Stickable> createDenseDiagram() {
+		List<Stickable> stickables = new ArrayList<Stickable>();
+		for (int i = 0; i < RELATIONS; i++) {
+			PointDoubleIndexed[] points = new PointDoubleIndexed[POINTS_PER_RELATION];
+			for (int p = 0; p < POINTS_PER_RELATION; p++) {
+				points[p] = new PointDoubleIndexed(p, p * 20, p * 20);
+			}
+			stickables.add(new TestStickable(new Rectangle(i % 40 * 80, i / 40 * 80, 80, 80), points));
+		}
+		return stickables;
+	}
+}
@@ -1,10 +1,16 @@
 package com.baselet.element.sticking;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 import org.junit.Test;
 
 import com.baselet.control.basics.geom.PointDouble;
+import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.element.sticking.StickingPolygon.StickLine;
 
 public class StickablesTest {
@@ -93,6 +99,56 @@ public class StickablesTest {
 		assertPoint(-30, 50, change);
 	}
 
+	@Test
+	public void connectedPoints_onlyPointsNearTheStickLinesStick() throws Exception {
+		StickingPolygon polygon = new StickingPolygon(100, 100);
+		polygon.addRectangle(0, 0, 50, 40);
+		// relation located at 90/90, its points are relative to this location
+		TestStickable relation = new TestStickable(new Rectangle(90, 90, 200, 200),
+				new PointDoubleIndexed(0, 10, 15), // on the left line
+				new PointDoubleIndexed(1, 64, 20), // 4px right of the right line
+				new PointDoubleIndexed(2, 35, 35), // inside the polygon but 15px away from the nearest line
+				new PointDoubleIndexed(3, 190, 190)); // far away
+		StickableMap map = Stickables.getStickingPointsWhichAreConnectedToStickingPolygon(polygon, Arrays.asList(relation));
+		List<PointDoubleIndexed> sticking = map.getStickablePoints(relation);
+		assertEquals(2, sticking.size());
+		assertTrue(sticking.contains(relation.points.get(0)));
+		assertTrue(sticking.contains(relation.points.get(1)));
+	}
+
+	@Test
+	public void connectedPoints_farAwayStickableIsIgnored() throws Exception {
+		StickingPolygon polygon = new StickingPolygon(0, 0);
+		polygon.addRectangle(0, 0, 50, 40);
+		TestStickable relation = new TestStickable(new Rectangle(1000, 1000, 20, 20), new PointDoubleIndexed(0, 0, 0), new PointDoubleIndexed(1, 10, 10));
+		assertTrue(Stickables.getStickingPointsWhichAreConnectedToStickingPolygon(polygon, Arrays.asList(relation)).isEmpty());
+	}
+
+	static class TestStickable implements Stickable {
+		private final Rectangle rect;
+		private final List<PointDoubleIndexed> points;
+
+		TestStickable(Rectangle rect, PointDoubleIndexed... points) {
+			this.rect = rect;
+			this.points = Arrays.asList(points);
+		}
+
+		@Override
+		public Collection<PointDoubleIndexed> getStickablePoints() {
+			return points;
+		}
+
+		@Override
+		public List<PointDoubleIndexed> movePoints(List<PointChange> changedStickPoints) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Rectangle getRealRectangle() {
+			return rect;
+		}
+	}
+
 	private void assertPoint(int x, int y, PointChange change) {
 		assertEquals("correct x movement", x, change.getDiffX());
 		assertEquals("correct y movement", y, change.getDiffY());
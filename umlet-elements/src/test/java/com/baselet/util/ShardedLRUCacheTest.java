@@ -0,0 +1,50 @@
+package com.baselet.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ShardedLRUCacheTest {
+
+	@Test
+	public void countsHitsAndMisses() {
+		ShardedLRUCache<String, Integer> cache = new ShardedLRUCache<String, Integer>(10, 2);
+		cache.put("a", 1);
+		assertThat(cache.get("a")).isEqualTo(1);
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void sizeLimitIsNeverExceeded() {
+		ShardedLRUCache<Integer, Integer> cache = new ShardedLRUCache<Integer, Integer>(8, 1);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+		assertThat(cache.size()).isEqualTo(8);
+		assertThat(cache.getEvictionCount()).isEqualTo(92);
+		assertThat(cache.get(99)).isEqualTo(99);
+		assertThat(cache.get(0)).isNull();
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted() {
+		ShardedLRUCache<Integer, Integer> cache = new ShardedLRUCache<Integer, Integer>(2, 1);
+		cache.put(1, 1);
+		cache.put(2, 2);
+		cache.get(1);
+		cache.put(3, 3);
+		assertThat(cache.get(1)).isEqualTo(1);
+		assertThat(cache.get(2)).isNull();
+	}
+
+	@Test
+	public void setMaxSizeDropsEntries() {
+		ShardedLRUCache<Integer, Integer> cache = new ShardedLRUCache<Integer, Integer>(4);
+		cache.put(1, 1);
+		cache.setMaxSize(100);
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.getMaxSize()).isEqualTo(100);
+	}
+}
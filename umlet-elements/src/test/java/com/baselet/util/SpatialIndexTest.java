@@ -0,0 +1,51 @@
+package com.baselet.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.baselet.control.basics.geom.Point;
+import com.baselet.control.basics.geom.Rectangle;
+
+public class SpatialIndexTest {
+
+	@Test
+	public void queryReturnsIntersectingObjectsInInsertionOrder() {
+		SpatialIndex<String> index = new SpatialIndex<String>(50);
+		index.add("c", new Rectangle(120, 120, 20, 20));
+		index.add("a", new Rectangle(0, 0, 500, 500));
+		index.add("b", new Rectangle(1000, 1000, 10, 10));
+		assertThat(index.query(new Rectangle(100, 100, 30, 30))).containsExactly("c", "a");
+		assertThat(index.query(new Point(1005, 1005))).containsExactly("b");
+		assertThat(index.query(new Point(-5, -5))).isEmpty();
+	}
+
+	@Test
+	public void updateMovesObjectAndKeepsOrder() {
+		SpatialIndex<String> index = new SpatialIndex<String>(50);
+		index.add("a", new Rectangle(0, 0, 10, 10));
+		index.add("b", new Rectangle(300, 300, 10, 10));
+		index.update("a", new Rectangle(305, 305, 10, 10));
+		assertThat(index.query(new Point(5, 5))).isEmpty();
+		assertThat(index.query(new Point(308, 308))).containsExactly("a", "b");
+	}
+
+	@Test
+	public void negativeCoordinatesAndRemove() {
+		SpatialIndex<String> index = new SpatialIndex<String>(50);
+		index.add("a", new Rectangle(-120, -80, 30, 30));
+		assertThat(index.query(new Point(-100, -60))).containsExactly("a");
+		index.remove("a");
+		assertThat(index.query(new Point(-100, -60))).isEmpty();
+		assertThat(index.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void hugeObjectsAndHugeAreasAreFound() {
+		SpatialIndex<String> index = new SpatialIndex<String>(10);
+		index.add("huge", new Rectangle(0, 0, 5000, 5000));
+		index.add("small", new Rectangle(20, 20, 5, 5));
+		assertThat(index.query(new Point(4000, 4000))).containsExactly("huge");
+		assertThat(index.query(new Rectangle(-100000, -100000, 200000, 200000))).containsExactly("huge", "small");
+	}
+}
@@ -0,0 +1,45 @@
+package com.baselet.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class TextIndexTest {
+
+	@Test
+	public void substringQueriesAreCaseInsensitive() {
+		TextIndex<String> index = new TextIndex<String>();
+		index.update("a", "class Customer\n--\n-name: String");
+		index.update("b", "class Order\n--\n-customerId: int");
+		index.update("c", "note");
+		assertThat(index.query("CUSTOMER")).containsExactly("a", "b");
+		assertThat(index.query("stomer\n--\n-na")).containsExactly("a");
+		assertThat(index.query("or")).containsExactly("b");
+		assertThat(index.query("xyz")).isEmpty();
+		assertThat(index.query("  ")).isEmpty();
+	}
+
+	@Test
+	public void allTokensMustBeContained() {
+		TextIndex<String> index = new TextIndex<String>();
+		index.update("a", "class Customer\n-name");
+		index.update("b", "class Order\n-customer");
+		assertThat(index.query("customer name")).containsExactly("a");
+		assertThat(index.query("class  customer")).containsExactly("a", "b");
+		assertThat(index.query("class id")).isEmpty();
+	}
+
+	@Test
+	public void updateReplacesTextAndKeepsOrder() {
+		TextIndex<String> index = new TextIndex<String>();
+		index.update("a", "foo");
+		index.update("b", "bar");
+		index.update("a", "barbar");
+		assertThat(index.query("foo")).isEmpty();
+		assertThat(index.query("bar")).containsExactly("a", "b");
+		index.remove("a");
+		assertThat(index.query("bar")).containsExactly("b");
+		assertThat(index.getIndexedText("a")).isNull();
+		assertThat(index.size()).isEqualTo(1);
+	}
+}
@@ -61,6 +61,13 @@ public class ComponentGwt implements Component {
 
 	private boolean lastSelected = false;
 
+	/**
+	 * @return true if the next {@link #drawOn(Context2d, boolean)} call will render the element again instead of reusing its cached canvas
+	 */
+	public boolean isRedrawNecessary(boolean isSelected) {
+		return redrawNecessary || lastSelected != isSelected;
+	}
+
 	public void drawOn(Context2d context, boolean isSelected) {
 		if (redrawNecessary || lastSelected != isSelected) {
 			redrawNecessary = false;
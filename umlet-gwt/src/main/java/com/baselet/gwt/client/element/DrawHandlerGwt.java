@@ -41,7 +41,7 @@ public class DrawHandlerGwt extends DrawHandler {
 	}
 
 	@Override
-	protected double getDefaultFontSize() {
+	public double getDefaultFontSize() {
 		return 12;
 	}
 
@@ -1,6 +1,11 @@
 package com.baselet.gwt.client.view;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.config.SharedConfig;
@@ -17,7 +22,18 @@ import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.TextResource;
 import com.google.gwt.user.client.ui.FocusWidget;
 
+/**
+ * Canvas of a DrawPanel. Every element renders itself into its own offscreen canvas (see {@link ComponentGwt}), which is only updated if the element has changed.
+ *
+ * To avoid repainting the whole canvas on every change, {@link #repaint(List, Selector, Rectangle)} tracks the bounds each element had when it was drawn last.
+ * If only some elements have changed (eg while dragging), only the region around their old and new bounds is cleared and repainted.
+ * Elements which are far outside of the visible part of the scroll panel are not drawn at all; the canvas is repainted as soon as the visible part leaves the drawn area.
+ */
 public class DrawCanvas {
+
+	private static final int MAX_DAMAGED_ELEMENTS = 50; // if more elements have changed, a full repaint is usually faster
+	private static final int DAMAGE_MARGIN = 2; // element canvases are 1px larger than the element, therefore the cleared region must be a bit larger
+
 	public interface HelptextResources extends ClientBundle {
 		HelptextResources INSTANCE = GWT.create(HelptextResources.class);
 
@@ -27,6 +43,9 @@ public class DrawCanvas {
 
 	private final Canvas canvas = Canvas.createIfSupported();
 
+	private final Map<GridElement, Rectangle> drawnBounds = new HashMap<GridElement, Rectangle>();
+	private Rectangle drawnArea = null; // the area in which all elements have been drawn by the last full repaint (null if damaged regions cannot be repainted)
+
 	public FocusWidget getWidget() {
 		return canvas;
 	}
@@ -39,6 +58,7 @@ public class DrawCanvas {
 		// setCoordinateSpace always clears the canvas. To avoid that see https://groups.google.com/d/msg/google-web-toolkit/dpc84mHeKkA/3EKxrlyFCEAJ
 		canvas.setCoordinateSpaceWidth(width);
 		canvas.setCoordinateSpaceHeight(height);
+		drawnArea = null;
 	}
 
 	public int getWidth() {
@@ -58,17 +78,118 @@ public class DrawCanvas {
 	}
 
 	void draw(boolean drawEmptyInfo, List<GridElement> gridElements, Selector selector) {
+		draw(drawEmptyInfo, gridElements, selector, null);
+	}
+
+	/**
+	 * repaints the changed regions of the canvas or the whole canvas if that's cheaper or necessary
+	 * @param viewport the visible part of the canvas or null if the whole canvas must be drawn
+	 */
+	void repaint(List<GridElement> gridElements, Selector selector, Rectangle viewport) {
+		if (!repaintDamagedRegion(gridElements, selector, viewport)) {
+			clearAndSetSize(getWidth(), getHeight());
+			Rectangle area = null;
+			if (viewport != null) {
+				// draw some area around the viewport, so that small scroll movements don't need a repaint
+				area = new Rectangle(viewport.getX() - viewport.getWidth(), viewport.getY() - viewport.getHeight(), viewport.getWidth() * 3, viewport.getHeight() * 3);
+			}
+			draw(true, gridElements, selector, area);
+			if (viewport != null && !SharedConfig.getInstance().isDev_mode() && !gridElements.isEmpty()) { // the grid and the empty info text are not part of any element region
+				drawnArea = area;
+			}
+		}
+	}
+
+	/**
+	 * @return false if the whole canvas must be repainted
+	 */
+	private boolean repaintDamagedRegion(List<GridElement> gridElements, Selector selector, Rectangle viewport) {
+		if (drawnArea == null || viewport == null || !drawnArea.contains(viewport)) {
+			return false;
+		}
+		if (gridElements.isEmpty()) { // e.g. the last elements were deleted; only a full repaint draws the empty info text
+			return false;
+		}
+		Rectangle damaged = null;
+		int damagedElements = 0;
+		Set<GridElement> existing = new HashSet<GridElement>();
+		for (GridElement ge : gridElements) {
+			existing.add(ge);
+			Rectangle old = drawnBounds.get(ge);
+			Rectangle current = ge.getRectangle();
+			boolean moved = old == null || !old.equals(current);
+			if (moved || ((ComponentGwt) ge.getComponent()).isRedrawNecessary(selector.isSelected(ge))) {
+				if (++damagedElements > MAX_DAMAGED_ELEMENTS) {
+					return false;
+				}
+				damaged = union(damaged, current);
+				if (old != null && moved) {
+					damaged = union(damaged, old);
+				}
+			}
+		}
+		for (Iterator<Map.Entry<GridElement, Rectangle>> iter = drawnBounds.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<GridElement, Rectangle> removed = iter.next();
+			if (!existing.contains(removed.getKey())) {
+				damaged = union(damaged, removed.getValue());
+				iter.remove();
+			}
+		}
+		if (damaged == null) {
+			return true; // nothing has changed
+		}
+		damaged.addBorder(DAMAGE_MARGIN);
+		if ((long) damaged.getWidth() * damaged.getHeight() > (long) viewport.getWidth() * viewport.getHeight() / 2) {
+			return false;
+		}
+
+		Context2d ctx = getContext2d();
+		ctx.save();
+		ctx.beginPath();
+		ctx.rect(damaged.getX(), damaged.getY(), damaged.getWidth(), damaged.getHeight());
+		ctx.clip();
+		ctx.clearRect(damaged.getX(), damaged.getY(), damaged.getWidth(), damaged.getHeight());
+		for (GridElement ge : gridElements) { // unchanged elements which overlap the region must be repainted too (in the correct layer order)
+			Rectangle current = ge.getRectangle();
+			if (current.intersects(damaged)) {
+				((ComponentGwt) ge.getComponent()).drawOn(ctx, selector.isSelected(ge));
+				drawnBounds.put(ge, current);
+			}
+			else if (!drawnBounds.containsKey(ge)) {
+				drawnBounds.put(ge, current);
+			}
+		}
+		ctx.restore();
+		return true;
+	}
+
+	private static Rectangle union(Rectangle union, Rectangle rect) {
+		if (union == null) {
+			return rect.copy();
+		}
+		union.merge(rect);
+		return union;
+	}
+
+	/**
+	 * @param area only elements which intersect this area are drawn (null to draw all elements)
+	 */
+	private void draw(boolean drawEmptyInfo, List<GridElement> gridElements, Selector selector, Rectangle area) {
 		if (SharedConfig.getInstance().isDev_mode()) {
 			CanvasUtils.drawGridOn(getContext2d());
 		}
 
+		drawnBounds.clear();
 		if (drawEmptyInfo && gridElements.isEmpty()) {
 			drawEmptyInfoText();
 		}
 		else {
-			// if (tryOptimizedDrawing()) return;
 			for (GridElement ge : gridElements) {
-				((ComponentGwt) ge.getComponent()).drawOn(canvas.getContext2d(), selector.isSelected(ge));
+				Rectangle bounds = ge.getRectangle();
+				drawnBounds.put(ge, bounds); // elements outside of the area are also remembered, because if they move into the drawn area, their region must be repainted
+				if (area == null || bounds.intersects(area)) {
+					((ComponentGwt) ge.getComponent()).drawOn(canvas.getContext2d(), selector.isSelected(ge));
+				}
 			}
 		}
 	}
@@ -82,25 +203,4 @@ public class DrawCanvas {
 		((ComponentGwt) emptyElement.getComponent()).drawOn(canvas.getContext2d(), false);
 
 	}
-
-	// TODO would not work because canvas gets always resized and therefore cleaned -> so everything must be redrawn
-	// private boolean tryOptimizedDrawing() {
-	// List<GridElement> geToRedraw = new ArrayList<GridElement>();
-	// for (GridElement ge : gridElements) {
-	// if(((GwtComponent) ge.getComponent()).isRedrawNecessary()) {
-	// for (GridElement geRedraw : geToRedraw) {
-	// if (geRedraw.getRectangle().intersects(ge.getRectangle())) {
-	// return false;
-	// }
-	// }
-	// geToRedraw.add(ge);
-	// }
-	// }
-	//
-	// for (GridElement ge : gridElements) {
-	// elementCanvas.getContext2d().clearRect(0, 0, ge.getRectangle().getWidth(), ge.getRectangle().getHeight());
-	// ((GwtComponent) ge.getComponent()).drawOn(elementCanvas.getContext2d());
-	// }
-	// return true;
-	// }
 }
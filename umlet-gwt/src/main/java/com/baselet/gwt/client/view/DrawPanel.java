@@ -219,12 +219,16 @@ public abstract class DrawPanel extends SimplePanel implements CommandTarget, Ha
 			// now realign bottom right corner to include the translate-factor and the changed visible and diagram rect
 			int width = Math.max(visibleRect.getX2(), diagramRect.getX2()) - xTranslate;
 			int height = Math.max(visibleRect.getY2(), diagramRect.getY2()) - yTranslate;
-			canvas.clearAndSetSize(width, height);
-		}
-		else {
-			canvas.clearAndSetSize(canvas.getWidth(), canvas.getHeight());
+			if (width != canvas.getWidth() || height != canvas.getHeight()) {
+				canvas.clearAndSetSize(width, height);
+			}
 		}
-		canvas.draw(true, gridElements, selector);
+		canvas.repaint(gridElements, selector, scrollPanel == null ? null : getVisibleBounds());
+	}
+
+	@Override
+	public void onScroll() {
+		redraw(false); // the canvas only repaints if the scrolled viewport leaves the area in which the elements have been drawn
 	}
 
 	@Override
@@ -6,4 +6,9 @@ public interface AutoresizeScrollDropTarget extends IsWidget, AcceptDiagram, Red
 
 	void setAutoresizeScrollDrop(HasScrollPanel autoResizeScrollDropPanel);
 
+	/**
+	 * called every time the visible part of the target has been scrolled
+	 */
+	void onScroll();
+
 }
\ No newline at end of file
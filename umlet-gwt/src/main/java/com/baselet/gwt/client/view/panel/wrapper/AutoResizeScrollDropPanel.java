@@ -7,6 +7,8 @@ import com.baselet.gwt.client.view.interfaces.AutoresizeScrollDropTarget;
 import com.baselet.gwt.client.view.interfaces.HasScrollPanel;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.logical.shared.ResizeHandler;
 import com.google.gwt.user.client.Window;
@@ -47,6 +49,14 @@ public class AutoResizeScrollDropPanel extends ScrollPanel implements HasScrollP
 			}
 		});
 
+		// elements outside of the visible part are not always drawn, therefore the diagram must know when it has been scrolled
+		addScrollHandler(new ScrollHandler() {
+			@Override
+			public void onScroll(ScrollEvent event) {
+				diagram.onScroll();
+			}
+		});
+
 	}
 
 	@Override
@@ -0,0 +1,211 @@
+package com.baselet.standalone;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baselet.diagram.DiagramHandler;
+import com.baselet.diagram.FontHandler;
+import com.baselet.diagram.draw.TextSplitter;
+
+/**
+ * Converts diagram files on a pool of worker threads. All conversions share the JVM and therefore also the font and text layout caches.
+ * After the conversion a summary with the status and duration of every file can be written.
+ */
+public class BatchConverter {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchConverter.class);
+
+	private final String outputFormat;
+	private final String outputParam;
+	private final int threads;
+	private int usedThreads;
+
+	private final List<Result> results = new ArrayList<Result>();
+
+	/**
+	 * @param outputFormat the export format (e.g. png, svg, pdf)
+	 * @param outputParam output file or directory or null if the output should be placed next to the input file
+	 * @param threads number of worker threads (1 converts all files sequentially on the calling thread); if all files are converted to the same output file, they are always converted sequentially
+	 */
+	public BatchConverter(String outputFormat, String outputParam, int threads) {
+		this.outputFormat = outputFormat;
+		this.outputParam = outputParam;
+		this.threads = Math.max(1, threads);
+	}
+
+	public List<Result> convert(List<File> inputFiles) {
+		results.clear();
+		usedThreads = Math.min(threads, Math.max(1, inputFiles.size()));
+		if (usedThreads > 1 && isSingleOutputFile()) {
+			log.info("All files are converted to " + outputParam + ", therefore they are converted sequentially");
+			usedThreads = 1; // parallel conversions would write the same file at the same time
+		}
+		if (usedThreads == 1) {
+			for (File file : inputFiles) {
+				results.add(convertFile(file));
+			}
+		}
+		else {
+			ExecutorService executor = Executors.newFixedThreadPool(usedThreads, new BatchThreadFactory());
+			try {
+				List<Future<Result>> futures = new ArrayList<Future<Result>>();
+				for (final File file : inputFiles) {
+					futures.add(executor.submit(new Callable<Result>() {
+						@Override
+						public Result call() {
+							return convertFile(file);
+						}
+					}));
+				}
+				for (int i = 0; i < futures.size(); i++) {
+					results.add(waitForResult(inputFiles.get(i), futures.get(i)));
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+		log.debug("Text layout caches after batch conversion: " + TextSplitter.getCacheStatistics() + ", " + FontHandler.getTextMetricsCacheStatistics());
+		return results;
+	}
+
+	private boolean isSingleOutputFile() {
+		return outputParam != null && !new File(outputParam).isDirectory();
+	}
+
+	private Result waitForResult(File file, Future<Result> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new Result(file, null, false, 0, "Interrupted");
+		} catch (ExecutionException e) {
+			return new Result(file, null, false, 0, String.valueOf(e.getCause()));
+		}
+	}
+
+	private Result convertFile(File inputFile) {
+		long start = System.currentTimeMillis();
+		if (!inputFile.exists()) {
+			printToConsole("File '" + inputFile.getAbsolutePath() + "' not found.");
+			return new Result(inputFile, null, false, 0, "File not found");
+		}
+		log.info("Converting file " + inputFile.getAbsolutePath());
+		String outputFileName = determineOutputName(inputFile, outputFormat, outputParam);
+		try {
+			DiagramHandler handler = new DiagramHandler(inputFile);
+			handler.getFileHandler().doExportAs(outputFormat, new File(outputFileName));
+			printToConsole("Conversion finished: \"" + inputFile.getAbsolutePath() + "\" to \"" + outputFileName + "\"");
+			return new Result(inputFile, outputFileName, true, System.currentTimeMillis() - start, null);
+		} catch (Exception e) {
+			printToConsole(e.getMessage());
+			return new Result(inputFile, outputFileName, false, System.currentTimeMillis() - start, e.getMessage());
+		}
+	}
+
+	/**
+	 * writes one tab separated line (status, duration in ms, input file, output file or error message) per converted file and a final total line
+	 */
+	public void writeSummary(File summaryFile) throws IOException {
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(summaryFile), "UTF-8"));
+		try {
+			int failed = 0;
+			long totalMillis = 0;
+			for (Result result : results) {
+				writer.println(result);
+				totalMillis += result.getMillis();
+				if (!result.isSuccess()) {
+					failed++;
+				}
+			}
+			writer.println("TOTAL\t" + totalMillis + "\t" + results.size() + " files, " + failed + " failed, " + usedThreads + " threads");
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void printToConsole(String text) {
+		System.out.println(text);
+	}
+
+	private static String determineOutputName(File inputFile, String outputFormat, String outputParam) {
+		String outputFileName;
+		if (outputParam == null) {
+			outputFileName = inputFile.getAbsolutePath();
+		}
+		else if (new File(outputParam).isDirectory()) { // if outputdir already exists
+			outputFileName = outputParam + File.separator + inputFile.getName();
+		}
+		else {
+			outputFileName = outputParam;
+		}
+		return createBatchOutputName(outputFormat, outputFileName);
+	}
+
+	private static String createBatchOutputName(String extension, String fileName) {
+		if (fileName.endsWith(extension)) {
+			return fileName;
+		}
+		else {
+			return fileName + "." + extension;
+		}
+	}
+
+	public static class Result {
+		private final File inputFile;
+		private final String outputFileName;
+		private final boolean success;
+		private final long millis;
+		private final String errorMessage;
+
+		public Result(File inputFile, String outputFileName, boolean success, long millis, String errorMessage) {
+			this.inputFile = inputFile;
+			this.outputFileName = outputFileName;
+			this.success = success;
+			this.millis = millis;
+			this.errorMessage = errorMessage;
+		}
+
+		public File getInputFile() {
+			return inputFile;
+		}
+
+		public boolean isSuccess() {
+			return success;
+		}
+
+		public long getMillis() {
+			return millis;
+		}
+
+		@Override
+		public String toString() {
+			return (success ? "OK" : "FAILED") + "\t" + millis + "\t" + inputFile.getAbsolutePath() + "\t" + (success ? outputFileName : errorMessage);
+		}
+	}
+
+	private static class BatchThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Batch Converter " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
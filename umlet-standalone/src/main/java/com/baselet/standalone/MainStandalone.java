@@ -4,16 +4,18 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Timer;
 
 import javax.imageio.ImageIO;
 
 import org.apache.commons.io.filefilter.WildcardFileFilter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.baselet.control.Main;
 import com.baselet.control.config.Config;
@@ -24,14 +26,11 @@ import com.baselet.control.util.Path;
 import com.baselet.control.util.RunningFileChecker;
 import com.baselet.control.util.Utils;
 import com.baselet.control.util.Utils.BuildInfo;
-import com.baselet.diagram.DiagramHandler;
 import com.baselet.diagram.UpdateCheckTimerTask;
 import com.baselet.standalone.gui.StandaloneGUI;
 
 public class MainStandalone {
 
-	private static final Logger log = LoggerFactory.getLogger(MainStandalone.class);
-
 	public static void main(final String[] args) {
 		// #369 Before anything else make sure that OSX handles cmd+Q as expected (see #369 and https://stackoverflow.com/questions/2061194/swing-on-osx-how-to-trap-command-q/2061318#2061318)
 		System.setProperty("apple.eawt.quitStrategy", "CLOSE_ALL_WINDOWS");
@@ -41,6 +40,10 @@ public class MainStandalone {
 			String format = null;
 			String filename = null;
 			String output = null;
+			String threads = null;
+			String summary = null;
+			String scale = null;
+			String dpi = null;
 			for (String arg : args) {
 				if (arg.startsWith("-action=")) {
 					action = arg.substring(8);
@@ -54,6 +57,18 @@ public class MainStandalone {
 				else if (arg.startsWith("-output=")) {
 					output = arg.substring(8);
 				}
+				else if (arg.startsWith("-threads=")) {
+					threads = arg.substring(9);
+				}
+				else if (arg.startsWith("-summary=")) {
+					summary = arg.substring(9);
+				}
+				else if (arg.startsWith("-scale=")) {
+					scale = arg.substring(7);
+				}
+				else if (arg.startsWith("-dpi=")) {
+					dpi = arg.substring(5);
+				}
 			}
 			// Program started by double-click on diagram file (either diagram filename is passed without prefix or with -filename=... prefix)
 			if (action == null && format == null && (filename != null || args.length == 1)) {
@@ -68,18 +83,39 @@ public class MainStandalone {
 			else if (action != null && format != null && filename != null) {
 				if (action.equals("convert")) {
 					initAll(RuntimeType.BATCH);
-					String[] splitFilename = filename.split("(/|\\\\)");
-					String localName = splitFilename[splitFilename.length - 1];
-					String dir = filename.substring(0, filename.length() - localName.length());
-					if (dir.isEmpty()) {
-						dir = ".";
+					int threadCount;
+					Double scaleValue = null;
+					Integer dpiValue = null;
+					try {
+						threadCount = threads == null ? 1 : Integer.parseInt(threads);
+						if (scale != null) {
+							scaleValue = Double.parseDouble(scale);
+						}
+						if (dpi != null) {
+							dpiValue = Integer.parseInt(dpi);
+						}
+					} catch (NumberFormatException e) {
+						printUsage();
+						return;
 					}
-					FileFilter fileFilter = new WildcardFileFilter(localName);
-					File[] files = new File(dir).listFiles(fileFilter);
-					if (files != null) {
-						for (File file : files) {
-							log.info("Converting file " + file.getAbsolutePath());
-							doConvert(file, format, output);
+					if (scaleValue != null && !(scaleValue > 0) || dpiValue != null && dpiValue <= 0) { // !(scale > 0) also rejects NaN
+						printUsage();
+						return;
+					}
+					// scale and dpi override the image export settings of the config file
+					if (scaleValue != null) {
+						Config.getInstance().setImageExportScale(scaleValue);
+					}
+					if (dpiValue != null) {
+						Config.getInstance().setImageExportDpi(dpiValue);
+					}
+					BatchConverter converter = new BatchConverter(format, output, threadCount);
+					converter.convert(findInputFiles(filename));
+					if (summary != null) {
+						try {
+							converter.writeSummary(new File(summary));
+						} catch (IOException e) {
+							printToConsole("Cannot write summary file '" + summary + "': " + e.getMessage());
 						}
 					}
 				}
@@ -117,50 +153,37 @@ public class MainStandalone {
 		}
 	}
 
-	static void doConvert(File inputFile, String outputFormat, String outputParam) {
-		if (!inputFile.exists()) {
-			printToConsole("File '" + inputFile.getAbsolutePath() + "' not found.");
-			return;
+	/**
+	 * @param filename a single file, a wildcard pattern (e.g. dir/*.uxf) or a directory (all diagram files in it are converted)
+	 */
+	private static List<File> findInputFiles(String filename) {
+		File[] files;
+		File directory = new File(filename);
+		if (directory.isDirectory()) {
+			FileFilter diagramFilter = new WildcardFileFilter("*." + Program.getInstance().getExtension());
+			files = directory.listFiles(diagramFilter);
 		}
-		DiagramHandler handler = new DiagramHandler(inputFile);
-
-		String outputFileName = determineOutputName(inputFile, outputFormat, outputParam);
-
-		try {
-			handler.getFileHandler().doExportAs(outputFormat, new File(outputFileName));
-			printToConsole("Conversion finished: \"" + inputFile.getAbsolutePath() + "\" to \"" + outputFileName + "\"");
-		} catch (Exception e) {
-			printToConsole(e.getMessage());
+		else {
+			String[] splitFilename = filename.split("(/|\\\\)");
+			String localName = splitFilename[splitFilename.length - 1];
+			String dir = filename.substring(0, filename.length() - localName.length());
+			if (dir.isEmpty()) {
+				dir = ".";
+			}
+			FileFilter fileFilter = new WildcardFileFilter(localName);
+			files = new File(dir).listFiles(fileFilter);
+		}
+		List<File> fileList = new ArrayList<File>();
+		if (files != null) {
+			fileList.addAll(Arrays.asList(files));
 		}
+		return fileList;
 	}
 
 	private static void printToConsole(String text) {
 		System.out.println(text);
 	}
 
-	private static String determineOutputName(File inputFile, String outputFormat, String outputParam) {
-		String outputFileName;
-		if (outputParam == null) {
-			outputFileName = inputFile.getAbsolutePath();
-		}
-		else if (new File(outputParam).isDirectory()) { // if outputdir already exists
-			outputFileName = outputParam + File.separator + inputFile.getName();
-		}
-		else {
-			outputFileName = outputParam;
-		}
-		return createBatchOutputName(outputFormat, outputFileName);
-	}
-
-	private static String createBatchOutputName(String extension, String fileName) {
-		if (fileName.endsWith(extension)) {
-			return fileName;
-		}
-		else {
-			return fileName + "." + extension;
-		}
-	}
-
 	private static void initHomeProgramPath() {
 		String tempPath, realPath;
 		tempPath = Path.executable();
@@ -217,7 +240,7 @@ public class MainStandalone {
 		for (String format : ImageIO.getWriterFileSuffixes()) {
 			formatBuilder.append("|").append(format);
 		}
-		printToConsole("USAGE: -action=convert -format=(" + formatBuilder.toString() + ") -filename=inputfile." + Program.getInstance().getExtension() + " [-output=outputfile[.extension]]");
+		printToConsole("USAGE: -action=convert -format=(" + formatBuilder.toString() + ") -filename=(inputfile." + Program.getInstance().getExtension() + "|wildcard|directory) [-output=outputfile[.extension]] [-threads=number] [-summary=summaryfile] [-scale=imagescale] [-dpi=imagedpi]");
 	}
 
 }
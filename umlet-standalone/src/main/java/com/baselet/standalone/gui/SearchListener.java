@@ -4,6 +4,8 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JTextField;
 
@@ -11,11 +13,18 @@ import com.baselet.control.basics.Converter;
 import com.baselet.diagram.CurrentDiagram;
 import com.baselet.diagram.DiagramHandler;
 import com.baselet.element.CursorOwn;
+import com.baselet.element.interfaces.GridElement;
 import com.baselet.gui.CurrentGui;
 import com.baselet.gui.command.Search;
 
 public class SearchListener implements KeyListener, MouseMotionListener {
 
+	// while typing, the matches are highlighted in the current diagram; its selection before the search is restored if the search is canceled
+	private DiagramHandler highlightedDiagram;
+	private List<GridElement> selectionBeforeSearch;
+	private List<GridElement> highlightedSelection;
+	private String highlightedText;
+
 	public SearchListener() {}
 
 	@Override
@@ -29,13 +38,57 @@ public class SearchListener implements KeyListener, MouseMotionListener {
 			JTextField search = (JTextField) e.getComponent();
 			DiagramHandler h = CurrentDiagram.getInstance().getDiagramHandler();
 			if (h != null && search != null && !"".equals(search.getText())) {
+				endHighlighting(false); // the search command selects the matches itself
 				h.getController().executeCommand(new Search(search.getText()));
 			}
+			else {
+				endHighlighting(true);
+			}
 			CurrentGui.getInstance().getGui().enableSearch(false);
 		}
 		else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+			endHighlighting(true);
 			CurrentGui.getInstance().getGui().enableSearch(false);
 		}
+		else { // highlight the matches in the current diagram while typing
+			highlight(((JTextField) e.getComponent()).getText());
+		}
+	}
+
+	private void highlight(String text) {
+		DiagramHandler h = CurrentDiagram.getInstance().getDiagramHandler();
+		if (h == null) {
+			return;
+		}
+		if (h != highlightedDiagram || !h.getDrawPanel().getSelector().getSelectedElements().equals(highlightedSelection)) { // the search starts (or the current diagram or its selection has been changed outside of the search field)
+			endHighlighting(h != highlightedDiagram);
+			highlightedDiagram = h;
+			selectionBeforeSearch = new ArrayList<GridElement>(h.getDrawPanel().getSelector().getSelectedElements());
+			highlightedText = "";
+		}
+		if (!text.equals(highlightedText)) {
+			highlightedText = text;
+			if (text.trim().isEmpty()) {
+				h.getDrawPanel().getSelector().selectOnlyWithoutAfterAction(selectionBeforeSearch);
+			}
+			else {
+				Search.highlight(h, text);
+			}
+			highlightedSelection = new ArrayList<GridElement>(h.getDrawPanel().getSelector().getSelectedElements());
+		}
+	}
+
+	/**
+	 * @param restoreSelection if true, the selection of the diagram before the search is restored
+	 */
+	private void endHighlighting(boolean restoreSelection) {
+		if (highlightedDiagram != null && restoreSelection) {
+			highlightedDiagram.getDrawPanel().getSelector().selectOnlyWithoutAfterAction(selectionBeforeSearch);
+		}
+		highlightedDiagram = null;
+		selectionBeforeSearch = null;
+		highlightedSelection = null;
+		highlightedText = null;
 	}
 
 	@Override
@@ -1,20 +1,32 @@
 package com.baselet.standalone;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.baselet.control.basics.geom.Rectangle;
+import com.baselet.diagram.DiagramHandler;
+import com.baselet.diagram.io.OutputHandler;
+import com.baselet.element.interfaces.GridElement;
+import com.google.common.base.Charsets;
 import com.google.common.io.Files;
 
 /**
@@ -66,6 +78,99 @@ public class MainBatchmodeTest {
 		assertFilesEqual(outWithoutCreated, output);
 	}
 
+	@Test
+	public void batchConvertDirectory_onlyDiagramFilesAreConverted() throws Exception {
+		File dir = tmpDir.newFolder("diagrams");
+		copyToDir("in_newCustomElement.uxf", dir, "a.uxf");
+		copyToDir("in_newCustomElement.uxf", dir, "b.uxf");
+		Files.write("no diagram", new File(dir, "notes.txt"), Charsets.UTF_8);
+		MainStandalone.main(new String[] { "-action=convert", "-format=svg", "-filename=" + dir.getAbsolutePath() });
+		assertTrue(new File(dir, "a.uxf.svg").isFile());
+		assertTrue(new File(dir, "b.uxf.svg").isFile());
+		assertFalse(new File(dir, "notes.txt.svg").exists());
+	}
+
+	@Test
+	public void batchConvertDirectory_multipleThreads_summaryContainsFailedFile() throws Exception {
+		File dir = tmpDir.newFolder("diagrams");
+		copyToDir("in_newCustomElement.uxf", dir, "a.uxf");
+		copyToDir("in_newCustomElement.uxf", dir, "b.uxf");
+		File failing = copyToDir("in_newCustomElement.uxf", dir, "c.uxf");
+		assertTrue(new File(dir, "c.uxf.svg").mkdir()); // a directory with the name of the output file makes the conversion fail
+		File summary = new File(tmpDir.getRoot(), "summary.txt");
+		MainStandalone.main(new String[] { "-action=convert", "-format=svg", "-filename=" + dir.getAbsolutePath(), "-threads=2", "-summary=" + summary.getAbsolutePath() });
+
+		assertTrue(new File(dir, "a.uxf.svg").isFile());
+		assertTrue(new File(dir, "b.uxf.svg").isFile());
+		List<String> lines = Files.readLines(summary, Charsets.UTF_8);
+		assertEquals(4, lines.size());
+		int failedLines = 0;
+		for (String line : lines.subList(0, 3)) {
+			String[] columns = line.split("\t");
+			assertEquals(4, columns.length);
+			if (columns[2].equals(failing.getAbsolutePath())) {
+				assertEquals("FAILED", columns[0]);
+				failedLines++;
+			}
+			else {
+				assertEquals("OK", columns[0]);
+			}
+		}
+		assertEquals(1, failedLines);
+		assertTrue(lines.get(3), lines.get(3).startsWith("TOTAL\t"));
+		assertTrue(lines.get(3), lines.get(3).endsWith("3 files, 1 failed, 2 threads"));
+	}
+
+	@Test
+	public void batchConvertDirectory_multipleThreadsAndSingleOutputFile_filesAreConvertedSequentially() throws Exception {
+		File dir = tmpDir.newFolder("diagrams");
+		copyToDir("in_newAllInOne.uxf", dir, "a.uxf");
+		copyToDir("in_newAllInOne.uxf", dir, "b.uxf");
+		copyToDir("in_newAllInOne.uxf", dir, "c.uxf");
+		File output = new File(tmpDir.getRoot(), "all.svg");
+		File summary = new File(tmpDir.getRoot(), "summary.txt");
+		MainStandalone.main(new String[] { "-action=convert", "-format=svg", "-filename=" + dir.getAbsolutePath(), "-output=" + output.getAbsolutePath(), "-threads=3", "-summary=" + summary.getAbsolutePath() });
+
+		List<String> lines = Files.readLines(summary, Charsets.UTF_8);
+		assertTrue(lines.get(3), lines.get(3).endsWith("3 files, 0 failed, 1 threads"));
+		assertFilesEqual(createOutputfile("svg", "in_newAllInOne.uxf"), output); // the output is written completely by one conversion
+	}
+
+	@Test
+	public void batchConvertToPng_scaleOrDpiNotGreaterThanZero_nothingIsExported() throws Exception {
+		File input = copyInputToTmp("in_newCustomElement.uxf");
+		for (String invalidParam : new String[] { "-scale=0", "-scale=-2", "-scale=NaN", "-dpi=0", "-dpi=-300" }) {
+			MainStandalone.main(new String[] { "-action=convert", "-format=png", "-filename=" + input.getAbsolutePath(), invalidParam });
+			assertFalse(invalidParam, new File(input + ".png").exists());
+		}
+	}
+
+	@Test
+	public void exportOfZoomedDiagram_elementsAreUnchangedAndOutputEqualsDefaultZoom() throws Exception {
+		for (String format : new String[] { "svg", "png" }) {
+			File defaultZoomExport = createOutputfile(format, "in_newAllInOne.uxf"); // the batch export also initializes the program
+			DiagramHandler handler = new DiagramHandler(copyInputToTmp("in_newAllInOne.uxf"));
+			List<Rectangle> defaultZoomRectangles = getRectangles(handler);
+			handler.setGridAndZoom(5, false);
+			List<Rectangle> zoomedRectangles = getRectangles(handler);
+			assertNotEquals(defaultZoomRectangles, zoomedRectangles);
+
+			ByteArrayOutputStream zoomedExport = new ByteArrayOutputStream();
+			OutputHandler.createToStream(format, zoomedExport, handler);
+
+			assertEquals(zoomedRectangles, getRectangles(handler));
+			assertArrayEquals(format, Files.toByteArray(defaultZoomExport), zoomedExport.toByteArray());
+		}
+	}
+
+	private List<Rectangle> getRectangles(DiagramHandler handler) {
+		List<Rectangle> rectangles = new ArrayList<Rectangle>();
+		for (GridElement e : handler.getDrawPanel().getGridElements()) {
+			rectangles.add(e.getRectangle().copy());
+		}
+		return rectangles;
+	}
+
 	private void assertFilesEqual(File expected, File actual) throws IOException {
 		assertTrue("The content of both files must match. Expected" + expected + ", Actual: " + actual, Files.equal(expected, actual));
 	}
@@ -78,7 +183,7 @@ public class MainBatchmodeTest {
 		try {
 			br = new BufferedReader(fr);
 			while ((s = br.readLine()) != null) {
-				if (excludedPrefix != null && !s.startsWith(excludedPrefix)) {
+				if (excludedPrefix == null || !s.startsWith(excludedPrefix)) {
 					totalStr += s + System.getProperty("line.separator");
 				}
 			}
@@ -113,6 +218,12 @@ public class MainBatchmodeTest {
 		return newFile;
 	}
 
+	private File copyToDir(String file, File dir, String newName) throws IOException {
+		File newFile = new File(dir, newName);
+		Files.copy(new File(TEST_FILE_LOCATION + file), newFile);
+		return newFile;
+	}
+
 	private String tmpDirString() {
 		return tmpDir.getRoot().toURI().getSchemeSpecificPart();
 	}
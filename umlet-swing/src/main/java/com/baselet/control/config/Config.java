@@ -14,6 +14,7 @@ import com.baselet.control.constants.SystemInfo;
 import com.baselet.control.enums.Os;
 import com.baselet.control.enums.Program;
 import com.baselet.control.enums.RuntimeType;
+import com.baselet.diagram.FontHandler;
 
 public class Config {
 
@@ -39,6 +40,12 @@ public class Config {
 	private String pdfExportFontBoldItalic = "";
 	private boolean checkForUpdates = true;
 	private int printPadding = 20;
+	private int undoHistorySize = 5000;
+	private int undoHistoryMemoryMb = 64;
+	private int elementImageCacheMb = 64;
+	private int textMetricsCacheSize = FontHandler.DEFAULT_TEXT_METRICS_CACHE_SIZE;
+	private double imageExportScale = 1;
+	private int imageExportDpi = 0; // 0 means that no resolution is stored in exported images
 	private Point program_location = new Point(5, 5);
 	private Dimension program_size = new Dimension(960, 750);
 	private int mail_split_position = 250;
@@ -171,6 +178,54 @@ public class Config {
 		this.printPadding = printPadding;
 	}
 
+	public int getUndoHistorySize() {
+		return undoHistorySize;
+	}
+
+	public void setUndoHistorySize(int undoHistorySize) {
+		this.undoHistorySize = undoHistorySize;
+	}
+
+	public int getUndoHistoryMemoryMb() {
+		return undoHistoryMemoryMb;
+	}
+
+	public void setUndoHistoryMemoryMb(int undoHistoryMemoryMb) {
+		this.undoHistoryMemoryMb = undoHistoryMemoryMb;
+	}
+
+	public int getElementImageCacheMb() {
+		return elementImageCacheMb;
+	}
+
+	public void setElementImageCacheMb(int elementImageCacheMb) {
+		this.elementImageCacheMb = elementImageCacheMb;
+	}
+
+	public int getTextMetricsCacheSize() {
+		return textMetricsCacheSize;
+	}
+
+	public void setTextMetricsCacheSize(int textMetricsCacheSize) {
+		this.textMetricsCacheSize = textMetricsCacheSize;
+	}
+
+	public double getImageExportScale() {
+		return imageExportScale;
+	}
+
+	public void setImageExportScale(double imageExportScale) {
+		this.imageExportScale = imageExportScale;
+	}
+
+	public int getImageExportDpi() {
+		return imageExportDpi;
+	}
+
+	public void setImageExportDpi(int imageExportDpi) {
+		this.imageExportDpi = imageExportDpi;
+	}
+
 	public Point getProgram_location() {
 		return program_location;
 	}
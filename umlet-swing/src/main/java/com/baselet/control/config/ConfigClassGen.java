@@ -19,6 +19,8 @@ public class ConfigClassGen {
 	private MethodOptions generateClassMethods = MethodOptions.ALL;
 	private SignatureOptions generateClassSignatures = SignatureOptions.ALL;
 	private SortOptions generateClassSortings = SortOptions.HEIGHT;
+	private String generateClassPackageIncludes = "";
+	private String generateClassPackageExcludes = "";
 
 	public boolean isGenerateClassPackage() {
 		return generateClassPackage;
@@ -60,4 +62,26 @@ public class ConfigClassGen {
 		this.generateClassSortings = generateClassSortings;
 	}
 
+	/**
+	 * @return the packages (separated by commas) which are imported from jar files and directories; empty to import all packages
+	 */
+	public String getGenerateClassPackageIncludes() {
+		return generateClassPackageIncludes;
+	}
+
+	public void setGenerateClassPackageIncludes(String generateClassPackageIncludes) {
+		this.generateClassPackageIncludes = generateClassPackageIncludes;
+	}
+
+	/**
+	 * @return the packages (separated by commas) which are never imported
+	 */
+	public String getGenerateClassPackageExcludes() {
+		return generateClassPackageExcludes;
+	}
+
+	public void setGenerateClassPackageExcludes(String generateClassPackageExcludes) {
+		this.generateClassPackageExcludes = generateClassPackageExcludes;
+	}
+
 }
@@ -21,6 +21,7 @@ import com.baselet.control.enums.generator.SignatureOptions;
 import com.baselet.control.enums.generator.SortOptions;
 import com.baselet.control.util.Path;
 import com.baselet.control.util.RecentlyUsedFilesList;
+import com.baselet.diagram.FontHandler;
 import com.baselet.gui.BaseGUI;
 
 public class ConfigHandler {
@@ -34,6 +35,12 @@ public class ConfigHandler {
 	private static final String ENABLE_CUSTOM_ELEMENTS = "enable_custom_elements";
 	private static final String UI_MANAGER = "ui_manager";
 	private static final String PRINT_PADDING = "print_padding";
+	private static final String UNDO_HISTORY_SIZE = "undo_history_size";
+	private static final String UNDO_HISTORY_MEMORY_MB = "undo_history_memory_mb";
+	private static final String ELEMENT_IMAGE_CACHE_MB = "element_image_cache_mb";
+	private static final String TEXT_METRICS_CACHE_SIZE = "text_metrics_cache_size";
+	private static final String IMAGE_EXPORT_SCALE = "image_export_scale";
+	private static final String IMAGE_EXPORT_DPI = "image_export_dpi";
 	private static final String PDF_EXPORT_FONT = "pdf_export_font";
 	private static final String PDF_EXPORT_FONT_BOLD = "pdf_export_font_bold";
 	private static final String PDF_EXPORT_FONT_ITALIC = "pdf_export_font_italic";
@@ -69,6 +76,8 @@ public class ConfigHandler {
 	private static final String GENERATE_CLASS_METHODS = "generate_class_methods";
 	private static final String GENERATE_CLASS_SIGNATURES = "generate_class_signatures";
 	private static final String GENERATE_CLASS_SORTINGS = "generate_class_sortings";
+	private static final String GENERATE_CLASS_PACKAGE_INCLUDES = "generate_class_package_includes";
+	private static final String GENERATE_CLASS_PACKAGE_EXCLUDES = "generate_class_package_excludes";
 
 	public static void loadConfig() {
 
@@ -88,6 +97,19 @@ public class ConfigHandler {
 		cfg.setEnable_custom_elements(getBoolProperty(props, ENABLE_CUSTOM_ELEMENTS, cfg.isEnable_custom_elements()));
 		cfg.setUiManager(getStringProperty(props, UI_MANAGER, cfg.getUiManager()));
 		cfg.setPrintPadding(getIntProperty(props, PRINT_PADDING, cfg.getPrintPadding()));
+		cfg.setUndoHistorySize(getIntProperty(props, UNDO_HISTORY_SIZE, cfg.getUndoHistorySize()));
+		cfg.setUndoHistoryMemoryMb(getIntProperty(props, UNDO_HISTORY_MEMORY_MB, cfg.getUndoHistoryMemoryMb()));
+		cfg.setElementImageCacheMb(getIntProperty(props, ELEMENT_IMAGE_CACHE_MB, cfg.getElementImageCacheMb()));
+		cfg.setTextMetricsCacheSize(getIntProperty(props, TEXT_METRICS_CACHE_SIZE, cfg.getTextMetricsCacheSize()));
+		FontHandler.setTextMetricsCacheSize(cfg.getTextMetricsCacheSize());
+		double imageExportScale = getDoubleProperty(props, IMAGE_EXPORT_SCALE, cfg.getImageExportScale());
+		if (imageExportScale > 0) { // also rejects NaN, invalid values keep the default
+			cfg.setImageExportScale(imageExportScale);
+		}
+		int imageExportDpi = getIntProperty(props, IMAGE_EXPORT_DPI, cfg.getImageExportDpi());
+		if (imageExportDpi > 0) { // the default 0 stores no resolution in exported images
+			cfg.setImageExportDpi(imageExportDpi);
+		}
 		cfg.setPdfExportFont(getStringProperty(props, PDF_EXPORT_FONT, cfg.getPdfExportFont()));
 		cfg.setPdfExportFontBold(getStringProperty(props, PDF_EXPORT_FONT_BOLD, cfg.getPdfExportFontBold()));
 		cfg.setPdfExportFontItalic(getStringProperty(props, PDF_EXPORT_FONT_ITALIC, cfg.getPdfExportFontItalic()));
@@ -135,6 +157,8 @@ public class ConfigHandler {
 		genCfg.setGenerateClassMethods(MethodOptions.getEnum(getStringProperty(props, GENERATE_CLASS_METHODS, genCfg.getGenerateClassMethods().toString())));
 		genCfg.setGenerateClassSignatures(SignatureOptions.getEnum(getStringProperty(props, GENERATE_CLASS_SIGNATURES, genCfg.getGenerateClassSignatures().toString())));
 		genCfg.setGenerateClassSortings(SortOptions.getEnum(getStringProperty(props, GENERATE_CLASS_SORTINGS, genCfg.getGenerateClassSortings().toString())));
+		genCfg.setGenerateClassPackageIncludes(getStringProperty(props, GENERATE_CLASS_PACKAGE_INCLUDES, genCfg.getGenerateClassPackageIncludes()));
+		genCfg.setGenerateClassPackageExcludes(getStringProperty(props, GENERATE_CLASS_PACKAGE_EXCLUDES, genCfg.getGenerateClassPackageExcludes()));
 
 	}
 
@@ -157,6 +181,12 @@ public class ConfigHandler {
 			props.setProperty(ENABLE_CUSTOM_ELEMENTS, Boolean.toString(cfg.isEnable_custom_elements()));
 			props.setProperty(UI_MANAGER, cfg.getUiManager());
 			props.setProperty(PRINT_PADDING, Integer.toString(cfg.getPrintPadding()));
+			props.setProperty(UNDO_HISTORY_SIZE, Integer.toString(cfg.getUndoHistorySize()));
+			props.setProperty(UNDO_HISTORY_MEMORY_MB, Integer.toString(cfg.getUndoHistoryMemoryMb()));
+			props.setProperty(ELEMENT_IMAGE_CACHE_MB, Integer.toString(cfg.getElementImageCacheMb()));
+			props.setProperty(TEXT_METRICS_CACHE_SIZE, Integer.toString(cfg.getTextMetricsCacheSize()));
+			props.setProperty(IMAGE_EXPORT_SCALE, Double.toString(cfg.getImageExportScale()));
+			props.setProperty(IMAGE_EXPORT_DPI, Integer.toString(cfg.getImageExportDpi()));
 			props.setProperty(PDF_EXPORT_FONT, cfg.getPdfExportFont());
 			props.setProperty(PDF_EXPORT_FONT_BOLD, cfg.getPdfExportFontBold());
 			props.setProperty(PDF_EXPORT_FONT_ITALIC, cfg.getPdfExportFontItalic());
@@ -227,6 +257,8 @@ public class ConfigHandler {
 			props.setProperty(GENERATE_CLASS_METHODS, genCfg.getGenerateClassMethods().toString());
 			props.setProperty(GENERATE_CLASS_SIGNATURES, genCfg.getGenerateClassSignatures().toString());
 			props.setProperty(GENERATE_CLASS_SORTINGS, genCfg.getGenerateClassSortings().toString());
+			props.setProperty(GENERATE_CLASS_PACKAGE_INCLUDES, genCfg.getGenerateClassPackageIncludes());
+			props.setProperty(GENERATE_CLASS_PACKAGE_EXCLUDES, genCfg.getGenerateClassPackageExcludes());
 
 			FileOutputStream outStream = new FileOutputStream(configfile);
 			try {
@@ -281,6 +313,18 @@ public class ConfigHandler {
 		return defaultValue;
 	}
 
+	private static double getDoubleProperty(Properties props, String key, double defaultValue) {
+		String result = props.getProperty(key);
+		if (result != null) {
+			try {
+				return Double.parseDouble(result);
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+			}
+		}
+		return defaultValue;
+	}
+
 	private static boolean getBoolProperty(Properties props, String key, boolean defaultValue) {
 		String result = props.getProperty(key);
 		if (result != null) {
@@ -17,8 +17,7 @@ public class CustomPreviewHandler extends DiagramHandler {
 	}
 
 	public void closePreview() {
-		getDrawPanel().getGridElements().clear();
-		getDrawPanel().removeAll();
+		getDrawPanel().removeAllElements();
 	}
 
 	@Override
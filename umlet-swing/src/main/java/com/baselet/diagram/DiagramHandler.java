@@ -20,6 +20,7 @@ import com.baselet.control.Main;
 import com.baselet.control.SharedUtils;
 import com.baselet.control.basics.Converter;
 import com.baselet.control.basics.geom.Point;
+import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.Program;
 import com.baselet.diagram.io.DiagramFileHandler;
@@ -55,7 +56,7 @@ public class DiagramHandler {
 	public static DiagramHandler forExport(FontHandler fontHandler) {
 		DiagramHandler returnHandler = new DiagramHandler(null, false);
 		if (fontHandler != null) {
-			returnHandler.fontHandler = fontHandler;
+			returnHandler.fontHandler = new FontHandler(returnHandler, fontHandler); // the fonts must use the zoom level of the export, not of the original diagram
 		}
 		return returnHandler;
 	}
@@ -318,25 +319,28 @@ public class DiagramHandler {
 	}
 
 	public static void zoomEntities(int fromFactor, int toFactor, List<GridElement> selectedEntities) {
+		zoomEntities(fromFactor, toFactor, selectedEntities, 0, 0);
+	}
+
+	/**
+	 * @param diffx, diffy are added to the zoomed location of every entity (it's cheaper to move the entities while they are zoomed than in a second pass)
+	 */
+	private static void zoomEntities(int fromFactor, int toFactor, List<GridElement> selectedEntities, int diffx, int diffy) {
 
 		/**
 		 * The entities must be resized to the new factor
 		 */
 
 		for (GridElement entity : selectedEntities) {
-			int newX = entity.getRectangle().x * toFactor / fromFactor;
-			int newY = entity.getRectangle().y * toFactor / fromFactor;
-			int newW = entity.getRectangle().width * toFactor / fromFactor;
-			int newH = entity.getRectangle().height * toFactor / fromFactor;
-			entity.setLocation(realignTo(newX, toFactor), realignTo(newY, toFactor));
-			// Normally there should be no realign here but relations and custom elements sometimes must be realigned therefore we don't log it as an error
-			entity.setSize(realignTo(newW, toFactor), realignTo(newH, toFactor));
+			Rectangle zoomed = zoomRectangle(entity.getRectangle(), fromFactor, toFactor);
+			entity.setLocation(zoomed.x + diffx, zoomed.y + diffy);
+			entity.setSize(zoomed.width, zoomed.height);
 
 			// Resize the coordinates of the points of the relations
 			if (entity instanceof Relation) {
 				for (Point point : ((Relation) entity).getLinePoints()) {
-					newX = point.getX() * toFactor / fromFactor;
-					newY = point.getY() * toFactor / fromFactor;
+					int newX = point.getX() * toFactor / fromFactor;
+					int newY = point.getY() * toFactor / fromFactor;
 					point.setX(realignTo(newX, toFactor));
 					point.setY(realignTo(newY, toFactor));
 				}
@@ -344,6 +348,18 @@ public class DiagramHandler {
 		}
 	}
 
+	/**
+	 * @return the rectangle of an entity which is zoomed from one grid size to another (without changing the entity)
+	 */
+	public static Rectangle zoomRectangle(Rectangle rect, int fromFactor, int toFactor) {
+		int newX = rect.x * toFactor / fromFactor;
+		int newY = rect.y * toFactor / fromFactor;
+		int newW = rect.width * toFactor / fromFactor;
+		int newH = rect.height * toFactor / fromFactor;
+		// Normally there should be no realign here but relations and custom elements sometimes must be realigned therefore we don't log it as an error
+		return new Rectangle(realignTo(newX, toFactor), realignTo(newY, toFactor), realignTo(newW, toFactor), realignTo(newH, toFactor));
+	}
+
 	public void setGridAndZoom(int factor) {
 		setGridAndZoom(factor, true);
 	}
@@ -365,21 +381,14 @@ public class DiagramHandler {
 
 		setGridSize(factor);
 
-		/**
-		 * Zoom entities to the new gridsize
-		 */
-
-		zoomEntities(oldGridSize, gridSize, getDrawPanel().getGridElements());
-
-		// AB: Zoom origin
-		getDrawPanel().zoomOrigin(oldGridSize, gridSize);
-
 		/**
 		 * The zoomed diagram will shrink to the upper left corner and grow to the lower right
 		 * corner but we want to have the zoom center in the middle of the actual visible drawpanel
-		 * so we have to change the coordinates of the entities again
+		 * so the entities must be moved additionally (which is done while they are zoomed)
 		 */
 
+		float diffx = 0;
+		float diffy = 0;
 		if (manualZoom) {
 			// calculate mouse position relative to UMLet scrollpane
 			Point mouseLocation = Converter.convert(MouseInfo.getPointerInfo().getLocation());
@@ -392,19 +401,25 @@ public class DiagramHandler {
 			y += getDrawPanel().getScrollPane().getViewport().getViewPosition().getY();
 
 			// The result is the point where we want to center the zoom of the diagram
-			float diffx, diffy;
 			diffx = x - x * gridSize / oldGridSize;
 			diffy = y - y * gridSize / oldGridSize;
+		}
+
+		/**
+		 * Zoom entities to the new gridsize; the elements draw in unzoomed coordinates, therefore they are only moved and resized but not parsed again
+		 */
+
+		zoomEntities(oldGridSize, gridSize, getDrawPanel().getGridElements(), realignToGrid(false, diffx), realignToGrid(false, diffy));
 
+		// AB: Zoom origin
+		getDrawPanel().zoomOrigin(oldGridSize, gridSize);
+
+		if (manualZoom) {
 			// AB: Move origin in opposite direction
 			log.debug("diffX/diffY: " + diffx + "/" + diffy);
 			log.debug("Manual Zoom Delta: " + realignToGrid(false, diffx) + "/" + realignToGrid(false, diffy));
 			getDrawPanel().moveOrigin(realignToGrid(false, -diffx), realignToGrid(false, -diffy));
 
-			for (GridElement e : getDrawPanel().getGridElements()) {
-				e.setLocationDifference(realignToGrid(false, diffx), realignToGrid(false, diffy));
-			}
-
 			/**
 			 * Now we have to do some additional "clean up" stuff which is related to the zoom
 			 */
@@ -12,9 +12,12 @@ import java.awt.print.Printable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.regex.Pattern;
 
 import javax.swing.JComponent;
 import javax.swing.JLayeredPane;
@@ -25,6 +28,7 @@ import javax.swing.ScrollPaneConstants;
 
 import org.slf4j.Logger;import org.slf4j.LoggerFactory;
 
+import com.baselet.control.basics.Converter;
 import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.config.Config;
 import com.baselet.control.config.SharedConfig;
@@ -32,11 +36,14 @@ import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.Program;
 import com.baselet.control.enums.RuntimeType;
 import com.baselet.control.util.Utils;
+import com.baselet.element.NewGridElement;
 import com.baselet.element.interfaces.GridElement;
 import com.baselet.element.old.element.Relation;
 import com.baselet.gui.filedrop.FileDrop;
 import com.baselet.gui.filedrop.FileDropListener;
 import com.baselet.gui.listener.ScrollbarListener;
+import com.baselet.util.SpatialIndex;
+import com.baselet.util.TextIndex;
 
 @SuppressWarnings("serial")
 public class DrawPanel extends JLayeredPane implements Printable {
@@ -49,6 +56,14 @@ public class DrawPanel extends JLayeredPane implements Printable {
 	private final DiagramHandler handler;
 
 	private final List<GridElement> gridElements = new ArrayList<GridElement>();
+	// both are kept in sync with gridElements by addElement, removeElement and updateElementBounds
+	private final SpatialIndex<GridElement> gridElementIndex = new SpatialIndex<GridElement>();
+	private final Map<Component, GridElement> componentToElement = new HashMap<Component, GridElement>();
+	// the text index is refreshed lazily before each search: every change of the panel attributes replaces the attribute list of the element, therefore a changed list identifies a changed text
+	private final TextIndex<GridElement> textIndex = new TextIndex<GridElement>();
+	private final Map<GridElement, List<String>> indexedPanelAttributes = new HashMap<GridElement, List<String>>();
+
+	private boolean printing = false;
 
 	public DrawPanel(DiagramHandler handler, boolean initStartupTextAndFiledrop) {
 		this.handler = handler;
@@ -159,6 +174,13 @@ public class DrawPanel extends JLayeredPane implements Printable {
 		return new Rectangle(minx, miny, maxx - minx, maxy - miny);
 	}
 
+	/**
+	 * @return true while the DrawPanel is painted for a printer (elements must not paint cached images in that case)
+	 */
+	public boolean isPrinting() {
+		return printing;
+	}
+
 	@Override
 	public int print(Graphics g, PageFormat pageFormat, int pageIndex) {
 		if (pageIndex > 0) {
@@ -178,7 +200,12 @@ public class DrawPanel extends JLayeredPane implements Printable {
 				g2d.setTransform(t);
 			}
 			g2d.translate(-bounds.x, -bounds.y);
-			paint(g2d);
+			printing = true;
+			try {
+				paint(g2d);
+			} finally {
+				printing = false;
+			}
 			currentManager = RepaintManager.currentManager(this);
 			currentManager.setDoubleBufferingEnabled(true);
 			return PAGE_EXISTS;
@@ -186,7 +213,21 @@ public class DrawPanel extends JLayeredPane implements Printable {
 	}
 
 	public List<GridElement> getGridElements() {
-		return gridElements;
+		return Collections.unmodifiableList(gridElements);
+	}
+
+	/**
+	 * @return the grid elements whose rectangle intersects the area (in the same order as {@link #getGridElements()})
+	 */
+	public List<GridElement> getGridElementsIn(Rectangle area) {
+		return gridElementIndex.query(area);
+	}
+
+	/**
+	 * @return the grid elements whose rectangle contains the point (in the same order as {@link #getGridElements()})
+	 */
+	public List<GridElement> getGridElementsAt(com.baselet.control.basics.geom.Point point) {
+		return gridElementIndex.query(point);
 	}
 
 	public List<Relation> getOldRelations() {
@@ -202,6 +243,37 @@ public class DrawPanel extends JLayeredPane implements Printable {
 		return returnList;
 	}
 
+	/**
+	 * Same as {@link #getStickables(Collection)} but only returns the relations located near the sticking polygon of the element, because other relations cannot stick to it
+	 */
+	public List<com.baselet.element.relation.Relation> getStickablesNear(GridElement element, Collection<GridElement> excludeList) {
+		if (!(element instanceof NewGridElement)) {
+			return getStickables(excludeList); // old elements generate their sticking polygon at the current zoom level, therefore they are not prefiltered
+		}
+		if (!SharedConfig.getInstance().isStickingEnabled() || handler instanceof PaletteHandler) {
+			return Collections.<com.baselet.element.relation.Relation> emptyList();
+		}
+		Rectangle polygonBounds = element.generateStickingBorder().getBounds();
+		if (polygonBounds == null) {
+			return Collections.<com.baselet.element.relation.Relation> emptyList();
+		}
+		// the sticking polygon is always generated at 100% zoom, therefore it must be zoomed to the coordinates of the grid elements
+		int gridSize = handler.getGridSize();
+		int margin = 2 * gridSize; // covers the sticking tolerance and rounding errors of zoomed coordinates
+		Rectangle area = new Rectangle(
+				polygonBounds.x * gridSize / Constants.DEFAULTGRIDSIZE - margin,
+				polygonBounds.y * gridSize / Constants.DEFAULTGRIDSIZE - margin,
+				polygonBounds.width * gridSize / Constants.DEFAULTGRIDSIZE + 2 * margin,
+				polygonBounds.height * gridSize / Constants.DEFAULTGRIDSIZE + 2 * margin);
+		List<com.baselet.element.relation.Relation> returnList = new ArrayList<com.baselet.element.relation.Relation>();
+		for (GridElement e : getGridElementsIn(area)) {
+			if (e.getClass().equals(com.baselet.element.relation.Relation.class) && !excludeList.contains(e)) {
+				returnList.add((com.baselet.element.relation.Relation) e);
+			}
+		}
+		return returnList;
+	}
+
 	@SuppressWarnings("unchecked")
 	private <T extends GridElement> List<T> getHelper(Class<T> filtered) {
 		List<T> gridElementsToReturn = new ArrayList<T>();
@@ -470,8 +542,10 @@ public class DrawPanel extends JLayeredPane implements Printable {
 
 	@Override
 	protected void paintChildren(Graphics g) {
-		// check if layers have changed and update them
-		for (GridElement ge : gridElements) {
+		// check if layers have changed and update them (only elements within the clip can have changed their layer since the last paint, because a change repaints the element)
+		java.awt.Rectangle clip = g.getClipBounds();
+		List<GridElement> elementsToCheck = clip == null ? gridElements : getGridElementsIn(Converter.convert(clip));
+		for (GridElement ge : elementsToCheck) {
 			if (!ge.getLayer().equals(getLayer((JComponent) ge.getComponent()))) {
 				setLayer((JComponent) ge.getComponent(), ge.getLayer());
 			}
@@ -541,27 +615,79 @@ public class DrawPanel extends JLayeredPane implements Printable {
 
 	public void removeElement(GridElement gridElement) {
 		gridElements.remove(gridElement);
+		gridElementIndex.remove(gridElement);
+		componentToElement.remove(gridElement.getComponent());
+		textIndex.remove(gridElement);
+		indexedPanelAttributes.remove(gridElement);
 		remove((Component) gridElement.getComponent());
 	}
 
 	public void addElement(GridElement gridElement) {
 		gridElements.add(gridElement);
+		gridElementIndex.add(gridElement, gridElement.getRectangle());
+		componentToElement.put((Component) gridElement.getComponent(), gridElement);
 		add((Component) gridElement.getComponent(), gridElement.getLayer());
 	}
 
-	public void updateElements() {
+	public void removeAllElements() {
+		gridElements.clear();
+		gridElementIndex.clear();
+		componentToElement.clear();
+		textIndex.clear();
+		indexedPanelAttributes.clear();
+		removeAll();
+	}
+
+	/**
+	 * Must be called after the rectangle of a grid element has changed to keep the spatial index up to date.
+	 * The components of the grid elements call it from setBounds, therefore it's not necessary to call it explicitly.
+	 */
+	public void updateElementBounds(GridElement gridElement) {
+		if (gridElementIndex.contains(gridElement)) {
+			gridElementIndex.update(gridElement, gridElement.getRectangle());
+		}
+	}
+
+	/**
+	 * @return all elements whose panel attributes contain every whitespace separated token of the query (case insensitive)
+	 */
+	public List<GridElement> findGridElements(String query) {
+		refreshTextIndex();
+		return textIndex.query(query);
+	}
+
+	/**
+	 * @return all elements whose lowercased panel attributes contain a match of the pattern
+	 */
+	public List<GridElement> findGridElements(Pattern pattern) {
+		refreshTextIndex();
+		List<GridElement> found = new ArrayList<GridElement>();
 		for (GridElement e : gridElements) {
-			e.updateModelFromText();
+			if (pattern.matcher(textIndex.getIndexedText(e)).find()) {
+				found.add(e);
+			}
 		}
+		return found;
 	}
 
-	public GridElement getElementToComponent(Component component) {
+	private void refreshTextIndex() {
 		for (GridElement e : gridElements) {
-			if (e.getComponent().equals(component)) {
-				return e;
+			List<String> panelAttributes = e.getPanelAttributesAsList();
+			if (indexedPanelAttributes.get(e) != panelAttributes) {
+				textIndex.update(e, e.getPanelAttributes());
+				indexedPanelAttributes.put(e, panelAttributes);
 			}
 		}
-		return null;
+	}
+
+	public void updateElements() {
+		for (GridElement e : gridElements) {
+			e.updateModelFromText();
+		}
+	}
+
+	public GridElement getElementToComponent(Component component) {
+		return componentToElement.get(component);
 	}
 
 	public void scroll(int amount) {
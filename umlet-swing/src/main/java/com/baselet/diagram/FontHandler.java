@@ -4,16 +4,46 @@ import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.font.FontRenderContext;
 import java.awt.font.TextLayout;
+import java.util.Set;
 
 import com.baselet.control.StringStyle;
 import com.baselet.control.basics.geom.DimensionDouble;
 import com.baselet.control.config.Config;
 import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.AlignHorizontal;
+import com.baselet.control.enums.FormatLabels;
+import com.baselet.diagram.draw.helper.ColorOwn;
+import com.baselet.diagram.io.SvgWriter;
+import com.baselet.util.ShardedLRUCache;
 
 public class FontHandler {
 
+	public static final int DEFAULT_TEXT_METRICS_CACHE_SIZE = 10000;
+
+	// measuring a text requires a new TextLayout which is expensive, therefore the results are cached (shared by all diagrams and threads, e.g. during batch exports)
+	// font family + font size + FormatLabels + text + FontRenderContext -> text size
+	private static final ShardedLRUCache<TextMetricsKey, DimensionDouble> textMetricsCache = new ShardedLRUCache<TextMetricsKey, DimensionDouble>(DEFAULT_TEXT_METRICS_CACHE_SIZE);
+
+	/**
+	 * Changes the size limit of the text metrics cache (all currently cached values are dropped); called after the config has been loaded
+	 */
+	public static void setTextMetricsCacheSize(int cacheSize) {
+		textMetricsCache.setMaxSize(Math.max(1, cacheSize));
+	}
+
+	public static void clearTextMetricsCache() {
+		textMetricsCache.clear();
+	}
+
+	/**
+	 * @return size, hit, miss and eviction counters of the text metrics cache
+	 */
+	public static String getTextMetricsCacheStatistics() {
+		return "textMetricsCache=" + textMetricsCache;
+	}
+
 	private final DiagramHandler handler;
+	private Font lastFont; // fonts are immutable, therefore the last one can be reused as long as family and size don't change
 	private Double fontSize;
 	private Double diagramDefaultSize = null; // if "fontsize=..." is uncommented this variable is set
 
@@ -24,6 +54,15 @@ public class FontHandler {
 		this.handler = handler;
 	}
 
+	/**
+	 * creates a FontHandler for another handler (which can have a different zoom level) with the diagram specific fontsize and family of an existing one
+	 */
+	public FontHandler(DiagramHandler handler, FontHandler diagramFonts) {
+		this.handler = handler;
+		diagramDefaultSize = diagramFonts.diagramDefaultSize;
+		diagramDefaultFontFamily = diagramFonts.diagramDefaultFontFamily;
+	}
+
 	public void setFontSize(Double fontsize) {
 		fontSize = fontsize;
 	}
@@ -38,7 +77,7 @@ public class FontHandler {
 		diagramDefaultFontFamily = null;
 	}
 
-	private String getDiagramDefaultFontFamily() {
+	public String getDiagramDefaultFontFamily() {
 		String returnFontFamily;
 		if (diagramDefaultFontFamily != null) {
 			returnFontFamily = diagramDefaultFontFamily;
@@ -91,7 +130,14 @@ public class FontHandler {
 	}
 
 	public Font getFont(boolean applyZoom) {
-		return new Font(getDiagramDefaultFontFamily(), Font.PLAIN, (int) getFontSize(applyZoom));
+		String family = getDiagramDefaultFontFamily();
+		int size = (int) getFontSize(applyZoom);
+		Font font = lastFont;
+		if (font == null || font.getSize() != size || !font.getName().equals(family)) {
+			font = new Font(family, Font.PLAIN, size);
+			lastFont = font;
+		}
+		return font;
 	}
 
 	public double getDistanceBetweenTexts() {
@@ -110,14 +156,23 @@ public class FontHandler {
 		if (stringWithFormatLabels.isEmpty()) {
 			return new DimensionDouble(0, 0);
 		}
-		return FontHandler.getTextSizeStatic(new FormattedFont(stringWithFormatLabels, getFontSize(applyZoom), getFont(applyZoom), fontrenderContext));
+		return getTextSize(StringStyle.analyzeFormatLabels(stringWithFormatLabels), applyZoom);
 	}
 
 	public DimensionDouble getTextSize(StringStyle singleLine, boolean applyZoom) {
 		if (singleLine.getStringWithoutMarkup().isEmpty()) {
 			return new DimensionDouble(0, 0);
 		}
-		return FontHandler.getTextSizeStatic(new FormattedFont(singleLine, getFontSize(applyZoom), getFont(applyZoom), fontrenderContext));
+		double fontSize = getFontSize(applyZoom);
+		Font font = getFont(applyZoom);
+		FontRenderContext frc = fontrenderContext;
+		TextMetricsKey key = new TextMetricsKey(font.getName(), fontSize, singleLine.getFormat(), singleLine.getStringWithoutMarkup(), frc);
+		DimensionDouble size = textMetricsCache.get(key);
+		if (size == null) {
+			size = FontHandler.getTextSizeStatic(new FormattedFont(singleLine, fontSize, font, frc));
+			textMetricsCache.put(key, size);
+		}
+		return size;
 	}
 
 	public double getTextWidth(String s) {
@@ -161,14 +216,34 @@ public class FontHandler {
 		FormattedFont formattedFont = new FormattedFont(singleLine, fontSize, getFont(applyZoom), g2.getFontRenderContext());
 		fontrenderContext = g2.getFontRenderContext(); // TODO workaround to make sure getTextSize works without a graphics object
 
+		g2.drawString(formattedFont.getAttributedCharacterIterator(), (float) alignX(formattedFont, x, align), (float) y);
+	}
+
+	/**
+	 * writes the lines like {@link #writeText(Graphics2D, StringStyle[], double, double, AlignHorizontal)} as svg text elements
+	 */
+	public void writeText(SvgWriter svg, StringStyle[] lines, double x, double y, AlignHorizontal align, ColorOwn color) {
+		Font font = getFont();
+		double fontSize = getFontSize(true);
+		fontrenderContext = svg.getFontRenderContext(); // like write(), following text sizes are measured like the written texts
+		int lineHeight = svg.getFontMetrics(font).getHeight(); // like g2.getFontMetrics().getHeight() of the Graphics2D path
+		for (StringStyle line : lines) {
+			if (line != null && !line.getStringWithoutMarkup().isEmpty()) {
+				FormattedFont formattedFont = new FormattedFont(line, fontSize, font, svg.getFontRenderContext());
+				svg.drawText(line.getStringWithoutMarkup(), alignX(formattedFont, x, align), y, font.getFamily(), fontSize, line.getFormat(), color);
+			}
+			y += lineHeight;
+		}
+	}
+
+	private static double alignX(FormattedFont formattedFont, double x, AlignHorizontal align) {
 		if (align == AlignHorizontal.CENTER) {
-			x = (int) (x - formattedFont.getWidth() / 2);
+			return (int) (x - formattedFont.getWidth() / 2);
 		}
 		else if (align == AlignHorizontal.RIGHT) {
-			x = (int) (x - formattedFont.getWidth());
+			return (int) (x - formattedFont.getWidth());
 		}
-
-		g2.drawString(formattedFont.getAttributedCharacterIterator(), (float) x, (float) y);
+		return x;
 	}
 
 	public static DimensionDouble getTextSizeStatic(FormattedFont formattedFont) {
@@ -178,4 +253,49 @@ public class FontHandler {
 		return new DimensionDouble(tl.getBounds().getWidth(), tl.getBounds().getHeight());
 	}
 
+	private static class TextMetricsKey {
+		private final String fontFamily;
+		private final double fontSize;
+		private final Set<FormatLabels> format;
+		private final String text;
+		private final FontRenderContext fontRenderContext;
+
+		public TextMetricsKey(String fontFamily, double fontSize, Set<FormatLabels> format, String text, FontRenderContext fontRenderContext) {
+			this.fontFamily = fontFamily;
+			this.fontSize = fontSize;
+			this.format = format;
+			this.text = text;
+			this.fontRenderContext = fontRenderContext;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + fontFamily.hashCode();
+			long temp = Double.doubleToLongBits(fontSize);
+			result = prime * result + (int) (temp ^ temp >>> 32);
+			result = prime * result + format.hashCode();
+			result = prime * result + text.hashCode();
+			result = prime * result + fontRenderContext.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			TextMetricsKey other = (TextMetricsKey) obj;
+			return Double.doubleToLongBits(fontSize) == Double.doubleToLongBits(other.fontSize)
+					&& fontFamily.equals(other.fontFamily)
+					&& format.equals(other.format)
+					&& text.equals(other.text)
+					&& fontRenderContext.equals(other.fontRenderContext);
+		}
+	}
+
 }
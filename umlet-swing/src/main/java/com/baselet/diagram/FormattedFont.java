@@ -21,7 +21,7 @@ public class FormattedFont {
 
 	private final FontRenderContext fontRenderContext;
 
-	private final TextLayout textLayout;
+	private TextLayout textLayout; // only created if needed, because measurements create their own TextLayout
 
 	public FormattedFont(String stringWithFormatLabels, double fontSize, Font font, FontRenderContext fontRenderContext) {
 		this(StringStyle.analyzeFormatLabels(stringWithFormatLabels), fontSize, font, fontRenderContext);
@@ -39,8 +39,13 @@ public class FormattedFont {
 		atrString.addAttribute(TextAttribute.WEIGHT, bold);
 		atrString.addAttribute(TextAttribute.POSTURE, italic);
 		atrString.addAttribute(TextAttribute.UNDERLINE, underline, 0, string.length());
+	}
 
-		textLayout = new TextLayout(getAttributedCharacterIterator(), fontRenderContext);
+	private TextLayout getTextLayout() {
+		if (textLayout == null) {
+			textLayout = new TextLayout(getAttributedCharacterIterator(), fontRenderContext);
+		}
+		return textLayout;
 	}
 
 	public String getString() {
@@ -88,10 +93,10 @@ public class FormattedFont {
 	}
 
 	public double getWidth() {
-		return textLayout.getVisibleAdvance();
+		return getTextLayout().getVisibleAdvance();
 	}
 
 	public double getHeight() {
-		return textLayout.getBounds().getHeight();
+		return getTextLayout().getBounds().getHeight();
 	}
 }
@@ -11,16 +11,19 @@ import java.awt.geom.RoundRectangle2D;
 
 import com.baselet.control.StringStyle;
 import com.baselet.control.basics.Converter;
+import com.baselet.control.basics.geom.Dimension;
 import com.baselet.control.basics.geom.DimensionDouble;
 import com.baselet.control.basics.geom.PointDouble;
 import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.AlignHorizontal;
 import com.baselet.control.util.Utils;
 import com.baselet.diagram.DiagramHandler;
+import com.baselet.diagram.FontHandler;
 import com.baselet.diagram.draw.DrawFunction;
 import com.baselet.diagram.draw.DrawHandler;
 import com.baselet.diagram.draw.helper.ColorOwn;
 import com.baselet.diagram.draw.helper.Style;
+import com.baselet.diagram.io.SvgWriter;
 import com.baselet.element.interfaces.GridElement;
 
 public class DrawHandlerSwing extends DrawHandler {
@@ -33,6 +36,10 @@ public class DrawHandlerSwing extends DrawHandler {
 
 	private final GridElement gridElement;
 
+	private DiagramHandler paintHandler; // if not null, its zoom level and fonts are used instead of the ones of the handler while drawing
+	private Dimension paintSize; // if not null, it replaces the size of the element while drawing
+	private SvgWriter svg; // if not null, the element is written as svg instead of being drawn on the graphics object
+
 	public DrawHandlerSwing(GridElement gridElement) {
 		super();
 		this.gridElement = gridElement;
@@ -45,14 +52,22 @@ public class DrawHandlerSwing extends DrawHandler {
 	 * x is also important for width drawings which don't start at 0 (e.g. Deployment "3-dimensional" Rectangle)
 	 */
 	private double inBorderHorizontal(double width, double x) {
-		return Math.min(gridElement.getRectangle().getWidth() - x - 1, width);
+		return Math.min(getPaintSize().getWidth() - x - 1, width);
 	}
 
 	/**
 	 * same as above but for vertical points
 	 */
 	private double inBorderVertical(double height, double y) {
-		return Math.min(gridElement.getRectangle().getHeight() - y - 1, height);
+		return Math.min(getPaintSize().getHeight() - y - 1, height);
+	}
+
+	private Dimension getPaintSize() {
+		return paintSize != null ? paintSize : gridElement.getRectangle().getSize();
+	}
+
+	private DiagramHandler getPaintHandler() {
+		return paintHandler != null ? paintHandler : handler;
 	}
 
 	public void setHandler(DiagramHandler handler) {
@@ -66,7 +81,35 @@ public class DrawHandlerSwing extends DrawHandler {
 	}
 
 	private double getZoom() {
-		return handler.getZoomFactor();
+		return getPaintHandler().getZoomFactor();
+	}
+
+	/**
+	 * draws the unselected element with the zoom level and fonts of another handler and with the given size, without changing the element or its handler
+	 * (e.g. exports draw the elements of a zoomed diagram at the default zoom level)
+	 */
+	public void drawAll(Graphics g, DiagramHandler paintHandler, Dimension paintSize) {
+		setGraphics(g);
+		this.paintHandler = paintHandler;
+		this.paintSize = paintSize;
+		try {
+			drawAll(false);
+		} finally {
+			this.paintHandler = null;
+			this.paintSize = null;
+		}
+	}
+
+	/**
+	 * same as {@link #drawAll(Graphics, DiagramHandler, Dimension)}, but the element is written into an svg document
+	 */
+	public void drawAll(SvgWriter svg, DiagramHandler paintHandler, Dimension paintSize) {
+		this.svg = svg;
+		try {
+			drawAll((Graphics) null, paintHandler, paintSize);
+		} finally {
+			this.svg = null;
+		}
 	}
 
 	@Override
@@ -87,13 +130,27 @@ public class DrawHandlerSwing extends DrawHandler {
 		return handler.getFontHandler().getFontSize(false);
 	}
 
+	@Override
+	public String getTextMetricsNamespace() {
+		return super.getTextMetricsNamespace() + ":" + handler.getFontHandler().getDiagramDefaultFontFamily();
+	}
+
 	/* DRAW METHODS */
+	/*
+	 * The draw methods only store the unzoomed coordinates, the zoomed shapes are created when the element is painted.
+	 * Therefore the draw functions of an element don't depend on the zoom level and a zoom doesn't require to parse the properties of every element again.
+	 */
 	@Override
-	public void drawArc(double x, double y, double width, double height, double start, double extent, boolean open) {
-		double xZoomed = x * getZoom() + HALF_PX;
-		double yZoomed = y * getZoom() + HALF_PX;
-		int arcType = open ? Arc2D.OPEN : Arc2D.PIE;
-		addShape(new Arc2D.Double(xZoomed, yZoomed, inBorderHorizontal(width * getZoom(), xZoomed), inBorderVertical(height * getZoom(), yZoomed), start, extent, arcType));
+	public void drawArc(final double x, final double y, final double width, final double height, final double start, final double extent, final boolean open) {
+		addShape(new ZoomedShape() {
+			@Override
+			public Shape create(double zoom) {
+				double xZoomed = x * zoom + HALF_PX;
+				double yZoomed = y * zoom + HALF_PX;
+				int arcType = open ? Arc2D.OPEN : Arc2D.PIE;
+				return new Arc2D.Double(xZoomed, yZoomed, inBorderHorizontal(width * zoom, xZoomed), inBorderVertical(height * zoom, yZoomed), start, extent, arcType);
+			}
+		});
 	}
 
 	@Override
@@ -103,75 +160,97 @@ public class DrawHandlerSwing extends DrawHandler {
 	}
 
 	@Override
-	public void drawEllipse(double x, double y, double width, double height) {
-		double xZoomed = x * getZoom() + HALF_PX;
-		double yZoomed = y * getZoom() + HALF_PX;
-		addShape(new Ellipse2D.Double(xZoomed, yZoomed, inBorderHorizontal(width * getZoom(), xZoomed), inBorderVertical(height * getZoom(), yZoomed)));
+	public void drawEllipse(final double x, final double y, final double width, final double height) {
+		addShape(new ZoomedShape() {
+			@Override
+			public Shape create(double zoom) {
+				double xZoomed = x * zoom + HALF_PX;
+				double yZoomed = y * zoom + HALF_PX;
+				return new Ellipse2D.Double(xZoomed, yZoomed, inBorderHorizontal(width * zoom, xZoomed), inBorderVertical(height * zoom, yZoomed));
+			}
+		});
 	}
 
 	@Override
-	public void drawLines(PointDouble... points) {
+	public void drawLines(final PointDouble... points) {
 		if (points.length > 0) {
-			Path2D.Double path = new Path2D.Double();
-			boolean first = true;
-			boolean fillShape = false;
-			int lastIdx = points.length - 1;
-			for (int i = 0; i < points.length; i++) {
-				PointDouble p = points[i];
-				Double x = inBorderHorizontal(Double.valueOf(p.getX() * getZoom() + HALF_PX), 0);
-				Double y = inBorderVertical(Double.valueOf(p.getY() * getZoom() + HALF_PX), 0);
-				if (first) {
-					path.moveTo(x, y);
-					first = false;
+			// if the first and last points are equal, close the path and fill the shape
+			final boolean fillShape = points.length > 1 && points[0].equals(points[points.length - 1]);
+			addShape(new ZoomedShape() {
+				@Override
+				public Shape create(double zoom) {
+					Path2D.Double path = new Path2D.Double();
+					int lastIdx = points.length - 1;
+					for (int i = 0; i < points.length; i++) {
+						PointDouble p = points[i];
+						Double x = inBorderHorizontal(Double.valueOf(p.getX() * zoom + HALF_PX), 0);
+						Double y = inBorderVertical(Double.valueOf(p.getY() * zoom + HALF_PX), 0);
+						if (i == 0) {
+							path.moveTo(x, y);
+						}
+						else if (i == lastIdx && fillShape) {
+							path.closePath();
+						}
+						else {
+							path.lineTo(x, y);
+						}
+					}
+					return path;
 				}
-				// if this is the last point AND the first and last points are equal, close the path and fill the shape
-				else if (i == lastIdx && points[0].equals(points[lastIdx])) {
-					path.closePath();
-					fillShape = true;
-				}
-				else {
-					path.lineTo(x, y);
-				}
-			}
-			addShape(path, fillShape);
+			}, fillShape);
 		}
 	}
 
 	@Override
-	public void drawRectangle(double x, double y, double width, double height) {
-		double xZoomed = x * getZoom() + HALF_PX;
-		double yZoomed = y * getZoom() + HALF_PX;
-		addShape(new Rectangle.Double(xZoomed, yZoomed, inBorderHorizontal(width * getZoom(), xZoomed), inBorderVertical(height * getZoom(), yZoomed)));
+	public void drawRectangle(final double x, final double y, final double width, final double height) {
+		addShape(new ZoomedShape() {
+			@Override
+			public Shape create(double zoom) {
+				double xZoomed = x * zoom + HALF_PX;
+				double yZoomed = y * zoom + HALF_PX;
+				return new Rectangle.Double(xZoomed, yZoomed, inBorderHorizontal(width * zoom, xZoomed), inBorderVertical(height * zoom, yZoomed));
+			}
+		});
 	}
 
 	@Override
-	public void drawRectangleRound(double x, double y, double width, double height, double radius) {
-		double rad = radius * 2 * getZoom();
-		double xZoomed = x * getZoom() + HALF_PX;
-		double yZoomed = y * getZoom() + HALF_PX;
-		addShape(new RoundRectangle2D.Double(xZoomed, yZoomed, inBorderHorizontal(width * getZoom(), xZoomed), inBorderVertical(height * getZoom(), yZoomed), rad, rad));
+	public void drawRectangleRound(final double x, final double y, final double width, final double height, final double radius) {
+		addShape(new ZoomedShape() {
+			@Override
+			public Shape create(double zoom) {
+				double rad = radius * 2 * zoom;
+				double xZoomed = x * zoom + HALF_PX;
+				double yZoomed = y * zoom + HALF_PX;
+				return new RoundRectangle2D.Double(xZoomed, yZoomed, inBorderHorizontal(width * zoom, xZoomed), inBorderVertical(height * zoom, yZoomed), rad, rad);
+			}
+		});
 	}
 
 	@Override
 	public void printHelper(StringStyle[] text, PointDouble point, AlignHorizontal align) {
-		addText(new Text(text, point.x * getZoom(), point.y * getZoom(), align));
+		addText(new Text(text, point.x, point.y, align));
 	}
 
-	protected void addShape(final Shape s) {
+	protected void addShape(final ZoomedShape s) {
 		addShape(s, true);
 	}
 
-	protected void addShape(final Shape s, final boolean fillShape) {
+	protected void addShape(final ZoomedShape s, final boolean fillShape) {
 		final Style styleAtDrawingCall = style.cloneFromMe();
 		addDrawable(new DrawFunction() {
 			@Override
 			public void run() {
-				drawShape(styleAtDrawingCall, s, fillShape);
+				drawShape(styleAtDrawingCall, s.create(getZoom()), fillShape);
 			}
 		});
 	}
 
 	private void drawShape(Style style, Shape s, boolean fillShape) {
+		if (svg != null) {
+			ColorOwn foreground = style.getLineWidth() > 0 ? getForegroundColor(style) : null;
+			svg.drawShape(s, fillShape ? style.getBackgroundColor() : null, foreground, Utils.getStroke(style.getLineType(), (float) style.getLineWidth()));
+			return;
+		}
 		if (fillShape) {
 			// Shapes Background
 			g2.setColor(Converter.convert(style.getBackgroundColor()));
@@ -184,8 +263,7 @@ public class DrawHandlerSwing extends DrawHandler {
 		}
 		if (style.getLineWidth() > 0) {
 			// Shapes Foreground
-			ColorOwn colOwn = getOverlay().getForegroundColor() != null ? getOverlay().getForegroundColor() : style.getForegroundColor();
-			g2.setColor(Converter.convert(colOwn));
+			g2.setColor(Converter.convert(getForegroundColor(style)));
 			g2.setStroke(Utils.getStroke(style.getLineType(), (float) style.getLineWidth()));
 			g2.draw(s);
 		}
@@ -201,16 +279,33 @@ public class DrawHandlerSwing extends DrawHandler {
 		});
 	}
 
+	private ColorOwn getForegroundColor(Style style) {
+		return getOverlay().getForegroundColor() != null ? getOverlay().getForegroundColor() : style.getForegroundColor();
+	}
+
 	private void drawText(Style style, Text t) {
-		ColorOwn col = getOverlay().getForegroundColor() != null ? getOverlay().getForegroundColor() : style.getForegroundColor();
-		g2.setColor(Converter.convert(col));
-		handler.getFontHandler().setFontSize(style.getFontSize());
-		g2.setFont(handler.getFontHandler().getFont());
-		handler.getFontHandler().writeText(g2, t.getText(), t.getX(), t.getY(), t.getHorizontalAlignment());
-		handler.getFontHandler().resetFontSize();
+		ColorOwn col = getForegroundColor(style);
+		FontHandler fontHandler = getPaintHandler().getFontHandler();
+		fontHandler.setFontSize(style.getFontSize());
+		if (svg != null) {
+			fontHandler.writeText(svg, t.getText(), t.getX() * getZoom(), t.getY() * getZoom(), t.getHorizontalAlignment(), col);
+		}
+		else {
+			g2.setColor(Converter.convert(col));
+			g2.setFont(fontHandler.getFont());
+			fontHandler.writeText(g2, t.getText(), t.getX() * getZoom(), t.getY() * getZoom(), t.getHorizontalAlignment());
+		}
+		fontHandler.resetFontSize();
 	}
 
 	public void setTranslate(boolean translate) {
 		this.translate = translate;
 	}
+
+	/**
+	 * creates the shape of a draw call for the zoom level at the time the element is painted
+	 */
+	protected interface ZoomedShape {
+		Shape create(double zoom);
+	}
 }
@@ -1,37 +1,26 @@
 package com.baselet.diagram.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileFilter;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.slf4j.Logger;import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
+import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.config.Config;
 import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.Program;
@@ -128,128 +117,64 @@ public class DiagramFileHandler {
 		CurrentGui.getInstance().getGui().updateDiagramName(handler, handler.getName());
 	}
 
-	private void createXMLOutputDoc(Document doc, Collection<GridElement> elements, Element current) {
-		for (GridElement e : elements) {
-			appendRecursively(doc, current, e);
-		}
-	}
-
-	private void appendRecursively(Document doc, Element parentXmlElement, GridElement e) {
-		parentXmlElement.appendChild(createXmlElementForGridElement(doc, e));
-	}
-
-	private Element createXmlElementForGridElement(Document doc, GridElement e) {
-		// insert normal entity element
-		java.lang.Class<? extends GridElement> c = e.getClass();
-		String sElType = c.getName();
-		String sElPanelAttributes = e.getPanelAttributes();
-		String sElAdditionalAttributes = e.getAdditionalAttributes();
-
-		Element el = doc.createElement("element");
-
+	private void writeGridElement(DiagramXmlWriter xml, GridElement e) throws IOException {
+		xml.startElement("element");
 		if (e instanceof NewGridElement) {
-			Element elType = doc.createElement("id");
-			elType.appendChild(doc.createTextNode(((NewGridElement) e).getId().toString()));
-			el.appendChild(elType);
+			xml.textElement("id", ((NewGridElement) e).getId().toString());
 		}
 		else { // OldGridElement
-			Element elType = doc.createElement("type");
-			elType.appendChild(doc.createTextNode(sElType));
-			el.appendChild(elType);
+			xml.textElement("type", e.getClass().getName());
 		}
 
-		Element elCoor = doc.createElement("coordinates");
-		el.appendChild(elCoor);
-
-		Element elX = doc.createElement("x");
-		elX.appendChild(doc.createTextNode("" + e.getRectangle().x));
-		elCoor.appendChild(elX);
-
-		Element elY = doc.createElement("y");
-		elY.appendChild(doc.createTextNode("" + e.getRectangle().y));
-		elCoor.appendChild(elY);
-
-		Element elW = doc.createElement("w");
-		elW.appendChild(doc.createTextNode("" + e.getRectangle().width));
-		elCoor.appendChild(elW);
-
-		Element elH = doc.createElement("h");
-		elH.appendChild(doc.createTextNode("" + e.getRectangle().height));
-		elCoor.appendChild(elH);
-
-		Element elPA = doc.createElement("panel_attributes");
-		elPA.appendChild(doc.createTextNode(sElPanelAttributes));
-		el.appendChild(elPA);
+		Rectangle rect = e.getRectangle();
+		xml.startElement("coordinates");
+		xml.textElement("x", String.valueOf(rect.x));
+		xml.textElement("y", String.valueOf(rect.y));
+		xml.textElement("w", String.valueOf(rect.width));
+		xml.textElement("h", String.valueOf(rect.height));
+		xml.endElement("coordinates");
 
-		Element elAA = doc.createElement("additional_attributes");
-		elAA.appendChild(doc.createTextNode(sElAdditionalAttributes));
-		el.appendChild(elAA);
+		xml.textElement("panel_attributes", e.getPanelAttributes());
+		xml.textElement("additional_attributes", e.getAdditionalAttributes());
 
 		if (e instanceof CustomElement) {
-			Element elCO = doc.createElement("custom_code");
-			elCO.appendChild(doc.createTextNode(((CustomElement) e).getCode()));
-			el.appendChild(elCO);
+			xml.textElement("custom_code", ((CustomElement) e).getCode());
 		}
-		return el;
+		xml.endElement("element");
 	}
 
-	protected String createStringToBeSaved() {
-		DocumentBuilder db = null;
-		String returnString = null;
-
-		try {
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			db = dbf.newDocumentBuilder();
-			Document doc = db.newDocument();
-
-			Element root = doc.createElement("diagram");
-			root.setAttribute("program", Program.getInstance().getProgramName().toLowerCase());
-			root.setAttribute("version", String.valueOf(Program.getInstance().getVersion()));
-			doc.appendChild(root);
-
-			// save helptext
-			String helptext = handler.getHelpText();
-			if (!helptext.equals(Constants.getDefaultHelptext())) {
-				Element help = doc.createElement("help_text");
-				help.appendChild(doc.createTextNode(helptext));
-				root.appendChild(help);
-			}
-
-			// save zoom
-			Element zoom = doc.createElement("zoom_level");
-			zoom.appendChild(doc.createTextNode(String.valueOf(handler.getGridSize())));
-			root.appendChild(zoom);
-
-			createXMLOutputDoc(doc, handler.getDrawPanel().getGridElements(), root);
-
-			// output the stuff...
-			DOMSource source = new DOMSource(doc);
-			StringWriter stringWriter = new StringWriter();
-			StreamResult result = new StreamResult(stringWriter);
-
-			TransformerFactory transFactory = TransformerFactory.newInstance();
-			Transformer transformer = transFactory.newTransformer();
-			transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-			transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-
-			transformer.transform(source, result);
+	/**
+	 * writes the diagram as xml; the elements are streamed one by one, so no second in-memory copy of the diagram is created
+	 */
+	protected void writeDiagram(Writer out) throws IOException {
+		DiagramXmlWriter xml = new DiagramXmlWriter(out);
+		xml.writeDeclaration();
+		xml.startElement("diagram", "program", Program.getInstance().getProgramName().toLowerCase(), "version", String.valueOf(Program.getInstance().getVersion()));
 
-			returnString = stringWriter.toString();
-		} catch (Exception e) {
-			log.error("Error saving XML.", e);
+		// save helptext
+		String helptext = handler.getHelpText();
+		if (!helptext.equals(Constants.getDefaultHelptext())) {
+			xml.textElement("help_text", helptext);
 		}
 
-		return returnString;
+		// save zoom
+		xml.textElement("zoom_level", String.valueOf(handler.getGridSize()));
 
+		for (GridElement e : handler.getDrawPanel().getGridElements()) {
+			writeGridElement(xml, e);
+		}
+		xml.endElement("diagram");
+		xml.flush();
 	}
 
 	public void doOpen() {
 		try {
-			SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
-			FileInputStream input = new FileInputStream(file);
-			InputHandler xmlhandler = new InputHandler(handler);
-			parser.parse(input, xmlhandler);
-			input.close();
+			InputStream input = new BufferedInputStream(new FileInputStream(file));
+			try {
+				new InputHandler(handler).read(input);
+			} finally {
+				input.close();
+			}
 		} catch (Exception e) {
 			log.error("Cannot open the file: " + file.getAbsolutePath(), e);
 
@@ -314,15 +239,12 @@ public class DiagramFileHandler {
 		// CustomElementSecurityManager.remThreadPrivileges(Thread.currentThread());
 	}
 
-	private void save() throws UnsupportedEncodingException, FileNotFoundException {
+	private void save() throws IOException {
 		save(file, false); // If save is called without a parameter it uses the class variable "file"
 	}
 
-	private void save(File saveToFile, boolean tempFile) throws UnsupportedEncodingException, FileNotFoundException {
-		String tmp = createStringToBeSaved();
-		PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(saveToFile), "UTF-8"));
-		out.print(tmp);
-		out.close();
+	private void save(File saveToFile, boolean tempFile) throws IOException {
+		writeAtomically(saveToFile.getCanonicalFile()); // canonical file to replace the target of a symbolic link instead of the link itself
 		if (!tempFile) {
 			handler.setChanged(false);
 			RecentlyUsedFilesList.getInstance().add(saveToFile.getAbsolutePath());
@@ -330,6 +252,65 @@ public class DiagramFileHandler {
 		Notifier.getInstance().showInfo(saveToFile.getAbsolutePath() + " saved");
 	}
 
+	/**
+	 * The diagram is written to a temporary file in the same directory which replaces the target file after it has been written completely.
+	 * Therefore an error during saving never leaves a partially written diagram file.
+	 */
+	private void writeAtomically(File target) throws IOException {
+		File tempFile = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+		boolean success = false;
+		try {
+			Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8"));
+			try {
+				writeDiagram(out);
+			} finally {
+				out.close();
+			}
+			copyPermissions(target, tempFile);
+			replace(target, tempFile);
+			success = true;
+		} finally {
+			if (!success && !tempFile.delete()) {
+				log.warn("Cannot delete temporary file " + tempFile.getAbsolutePath());
+			}
+		}
+	}
+
+	/**
+	 * File.renameTo cannot replace an existing file on every platform. If the first attempt fails, the target is moved to a backup file
+	 * which is moved back if the temporary file can't be renamed either, therefore the target file is never lost.
+	 */
+	private void replace(File target, File tempFile) throws IOException {
+		if (tempFile.renameTo(target)) {
+			return;
+		}
+		File backup = File.createTempFile(target.getName(), ".bak", target.getParentFile());
+		if (!backup.delete() || !target.renameTo(backup)) {
+			backup.delete();
+			throw new IOException("Cannot replace " + target.getAbsolutePath() + " with " + tempFile.getAbsolutePath());
+		}
+		if (!tempFile.renameTo(target)) {
+			if (!backup.renameTo(target)) {
+				throw new IOException("Cannot replace " + target.getAbsolutePath() + " with " + tempFile.getAbsolutePath() + ", the previous file was moved to " + backup.getAbsolutePath());
+			}
+			throw new IOException("Cannot replace " + target.getAbsolutePath() + " with " + tempFile.getAbsolutePath());
+		}
+		if (!backup.delete()) {
+			log.warn("Cannot delete backup file " + backup.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * the replaced file keeps the permissions of the existing file (as far as they are accessible without java.nio.file)
+	 */
+	private void copyPermissions(File from, File to) {
+		if (from.exists()) {
+			to.setReadable(from.canRead());
+			to.setWritable(from.canWrite());
+			to.setExecutable(from.canExecute());
+		}
+	}
+
 	private String chooseFileName(boolean ownXmlFormat, FileFilter filefilter, JFileChooser fileChooser) {
 		String fileName = null;
 
@@ -0,0 +1,146 @@
+package com.baselet.diagram.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams the xml of a diagram file directly to a Writer, so no DOM copy of the whole diagram must be built before saving.
+ * The output is the same as the output of the previously used DOM Transformer (indent of 2 spaces, same escaping of special characters),
+ * therefore saving an unchanged diagram doesn't create any differences in the file.
+ */
+public class DiagramXmlWriter {
+
+	private static final String INDENT = "  ";
+
+	private final Writer out;
+	private final String lineSeparator = System.getProperty("line.separator"); // the Transformer also used the system line separator
+	private int depth = 0;
+	private boolean startTagOpen = false;
+
+	public DiagramXmlWriter(Writer out) {
+		this.out = out;
+	}
+
+	public void writeDeclaration() throws IOException {
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+		out.write(lineSeparator);
+	}
+
+	/**
+	 * @param attributes alternating attribute names and values
+	 */
+	public void startElement(String name, String... attributes) throws IOException {
+		closeStartTag();
+		indent();
+		out.write('<');
+		out.write(name);
+		for (int i = 0; i + 1 < attributes.length; i += 2) {
+			out.write(' ');
+			out.write(attributes[i]);
+			out.write("=\"");
+			writeEscaped(attributes[i + 1], true);
+			out.write('"');
+		}
+		startTagOpen = true;
+		depth++;
+	}
+
+	public void endElement(String name) throws IOException {
+		depth--;
+		if (startTagOpen) { // element without children
+			out.write("/>");
+			startTagOpen = false;
+		}
+		else {
+			indent();
+			out.write("</");
+			out.write(name);
+			out.write('>');
+		}
+		out.write(lineSeparator);
+	}
+
+	/**
+	 * writes an element which only contains the text (or an empty element tag if the text is empty)
+	 */
+	public void textElement(String name, String text) throws IOException {
+		closeStartTag();
+		indent();
+		out.write('<');
+		out.write(name);
+		if (text.isEmpty()) {
+			out.write("/>");
+		}
+		else {
+			out.write('>');
+			writeEscaped(text, false);
+			out.write("</");
+			out.write(name);
+			out.write('>');
+		}
+		out.write(lineSeparator);
+	}
+
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	private void closeStartTag() throws IOException {
+		if (startTagOpen) {
+			out.write('>');
+			out.write(lineSeparator);
+			startTagOpen = false;
+		}
+	}
+
+	private void indent() throws IOException {
+		for (int i = 0; i < depth; i++) {
+			out.write(INDENT);
+		}
+	}
+
+	private void writeEscaped(String text, boolean attribute) throws IOException {
+		int len = text.length();
+		int unescapedStart = 0;
+		for (int i = 0; i < len; i++) {
+			char c = text.charAt(i);
+			int consumedChars = 1;
+			String replacement;
+			if (c == '<') {
+				replacement = "&lt;";
+			}
+			else if (c == '>') {
+				replacement = "&gt;";
+			}
+			else if (c == '&') {
+				replacement = "&amp;";
+			}
+			else if (c == '"' && attribute) {
+				replacement = "&quot;";
+			}
+			else if (c == '\n') {
+				replacement = lineSeparator;
+			}
+			else if (isControlCharacter(c) || c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				int codePoint = c;
+				if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(text.charAt(i + 1))) { // characters outside of the BMP are written as one character reference
+					codePoint = Character.toCodePoint(c, text.charAt(i + 1));
+					consumedChars = 2;
+				}
+				replacement = "&#" + codePoint + ";";
+			}
+			else {
+				continue;
+			}
+			out.write(text, unescapedStart, i - unescapedStart);
+			out.write(replacement);
+			i += consumedChars - 1;
+			unescapedStart = i + 1;
+		}
+		out.write(text, unescapedStart, len - unescapedStart);
+	}
+
+	private static boolean isControlCharacter(char c) {
+		return c < 0x20 && c != '\t' || c >= 0x7F && c <= 0x9F;
+	}
+}
@@ -1,11 +1,17 @@
 package com.baselet.diagram.io;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.slf4j.Logger;import org.slf4j.LoggerFactory;
-import org.xml.sax.Attributes;
-import org.xml.sax.helpers.DefaultHandler;
 
 import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.enums.ElementId;
@@ -24,16 +30,22 @@ import com.baselet.gui.command.HelpPanelChanged;
 /**
  * Describes what should happen with parsed elements from the input file
  * eg: set DiagramHandler variables, create GridElements etc.
+ *
+ * The file is read with a StAX stream reader. The text of the current xml element is collected in a single reused StringBuilder,
+ * therefore large panel attributes don't create a new String for every chunk of characters the parser delivers.
  */
-public class InputHandler extends DefaultHandler {
+public class InputHandler {
 
 	private static final String[] oldGridElementPackages = new String[] { "com.baselet.element.old.element", "com.baselet.element.old.allinone", "com.baselet.element.old.custom" };
 
+	// the lookup of an old element class tries every package; the result is cached because diagrams typically contain many elements of the same type
+	private static final Map<String, Class<?>> oldGridElementClassCache = new ConcurrentHashMap<String, Class<?>>();
+
 	private static final Logger log = LoggerFactory.getLogger(InputHandler.class);
 
 	private DrawPanel _p = null;
 	private GridElement e = null;
-	private String elementtext;
+	private final StringBuilder elementtext = new StringBuilder();
 
 	private int x;
 	private int y;
@@ -60,35 +72,61 @@ public class InputHandler extends DefaultHandler {
 		currentGroup = null;
 	}
 
-	@Override
-	public void startElement(String uri, String localName, String qName, Attributes attributes) {
-		elementtext = "";
-		if (qName.equals("element")) {
+	/**
+	 * reads the diagram from the stream and adds its elements to the DrawPanel of the handler (the stream is not closed)
+	 */
+	public void read(InputStream input) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(input);
+		try {
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						startElement(reader.getLocalName());
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+						elementtext.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						endElement(reader.getLocalName());
+						break;
+					default:
+						break;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void startElement(String elementname) {
+		elementtext.setLength(0);
+		if (elementname.equals("element")) {
 			panel_attributes = "";
 			additional_attributes = "";
 			code = null;
 		}
-		if (qName.equals("group")) { // TODO remove group-handling in InputHandler. Until UMLet v13, groups used own element-tags in XML. This has changed to the property group=x, so this handling is only for backwards compatibility
+		if (elementname.equals("group")) { // TODO remove group-handling in InputHandler. Until UMLet v13, groups used own element-tags in XML. This has changed to the property group=x, so this handling is only for backwards compatibility
 			currentGroup = handler.getDrawPanel().getSelector().getUnusedGroup();
 		}
 	}
 
-	@Override
-	public void endElement(String uri, String localName, String qName) {
-		String elementname = qName; // [UB]: we are not name-space aware, so use the qualified name
-
+	private void endElement(String elementname) {
 		if (elementname.equals("help_text")) {
-			handler.setHelpText(elementtext);
-			handler.getFontHandler().setDiagramDefaultFontSize(HelpPanelChanged.getFontsize(elementtext));
-			handler.getFontHandler().setDiagramDefaultFontFamily(HelpPanelChanged.getFontfamily(elementtext));
+			String helptext = elementtext.toString();
+			handler.setHelpText(helptext);
+			handler.getFontHandler().setDiagramDefaultFontSize(HelpPanelChanged.getFontsize(helptext));
+			handler.getFontHandler().setDiagramDefaultFontFamily(HelpPanelChanged.getFontfamily(helptext));
 			BaseGUI gui = CurrentGui.getInstance().getGui();
 			if (gui != null && gui.getPropertyPane() != null) { // issue 244: in batchmode, a file can have a help_text but gui will be null
-				gui.getPropertyPane().switchToNonElement(elementtext);
+				gui.getPropertyPane().switchToNonElement(helptext);
 			}
 		}
 		else if (elementname.equals("zoom_level")) {
 			if (handler != null) {
-				handler.setGridSize(Integer.parseInt(elementtext));
+				handler.setGridSize(Integer.parseInt(elementtext.toString()));
 			}
 		}
 		else if (elementname.equals("group")) {
@@ -134,60 +172,52 @@ public class InputHandler extends DefaultHandler {
 			}
 		}
 		else if (elementname.equals("type")) {
-			entityname = elementtext;
+			entityname = elementtext.toString();
 		}
 		else if (elementname.equals("id")) { // new elements have an id
-			id = elementtext;
+			id = elementtext.toString();
 		}
 		else if (elementname.equals("x")) {
-			Integer i = Integer.valueOf(elementtext);
-			x = i.intValue();
+			x = Integer.parseInt(elementtext.toString());
 		}
 		else if (elementname.equals("y")) {
-			Integer i = Integer.valueOf(elementtext);
-			y = i.intValue();
+			y = Integer.parseInt(elementtext.toString());
 		}
 		else if (elementname.equals("w")) {
-			Integer i = Integer.valueOf(elementtext);
-			w = i.intValue();
+			w = Integer.parseInt(elementtext.toString());
 		}
 		else if (elementname.equals("h")) {
-			Integer i = Integer.valueOf(elementtext);
-			h = i.intValue();
+			h = Integer.parseInt(elementtext.toString());
 		}
 		else if (elementname.equals("panel_attributes")) {
-			panel_attributes = elementtext;
+			panel_attributes = elementtext.toString();
 		}
 		else if (elementname.equals("additional_attributes")) {
-			additional_attributes = elementtext;
+			additional_attributes = elementtext.toString();
 		}
 		else if (elementname.equals("custom_code")) {
-			code = elementtext;
+			code = elementtext.toString();
 		}
 	}
 
-	@Override
-	public void characters(char[] ch, int start, int length) {
-		elementtext += new String(ch).substring(start, start + length);
-	}
-
 	private static GridElement getOldGridElementFromPath(String path) throws InstantiationException, IllegalAccessException, ClassNotFoundException {
-		Class<?> foundClass = null;
-		String className = path.substring(path.lastIndexOf("."));
-		for (String possPackage : oldGridElementPackages) {
-			try {
-				foundClass = Thread.currentThread().getContextClassLoader().loadClass(possPackage + className);
-				break;
-			} catch (ClassNotFoundException e1) {/* do nothing; try next package */}
-		}
+		Class<?> foundClass = oldGridElementClassCache.get(path);
 		if (foundClass == null) {
-			ClassNotFoundException ex = new ClassNotFoundException("class " + path + " not found");
-			log.error(null, ex);
-			throw ex;
-		}
-		else {
-			return (GridElement) foundClass.newInstance();
+			String className = path.substring(path.lastIndexOf("."));
+			for (String possPackage : oldGridElementPackages) {
+				try {
+					foundClass = Thread.currentThread().getContextClassLoader().loadClass(possPackage + className);
+					break;
+				} catch (ClassNotFoundException e1) {/* do nothing; try next package */}
+			}
+			if (foundClass == null) {
+				ClassNotFoundException ex = new ClassNotFoundException("class " + path + " not found");
+				log.error(null, ex);
+				throw ex;
+			}
+			oldGridElementClassCache.put(path, foundClass);
 		}
+		return (GridElement) foundClass.newInstance();
 	}
 
 }
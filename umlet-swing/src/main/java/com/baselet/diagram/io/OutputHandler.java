@@ -4,23 +4,37 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.swing.JLayeredPane;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
 
 import org.apache.batik.dom.GenericDOMImplementation;
 import org.apache.batik.svggen.SVGGraphics2D;
 import org.sourceforge.jlibeps.epsgraphics.EpsGraphics2D;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
+import com.baselet.control.HandlerElementMap;
 import com.baselet.control.basics.Converter;
 import com.baselet.control.basics.geom.Dimension;
 import com.baselet.control.basics.geom.Rectangle;
@@ -29,9 +43,10 @@ import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.Program;
 import com.baselet.control.util.Utils;
 import com.baselet.diagram.DiagramHandler;
-import com.baselet.diagram.DrawPanel;
 import com.baselet.diagram.FontHandler;
+import com.baselet.diagram.draw.swing.DrawHandlerSwing;
 import com.baselet.element.ElementFactorySwing;
+import com.baselet.element.NewGridElement;
 import com.baselet.element.interfaces.GridElement;
 import com.itextpdf.awt.FontMapper;
 import com.itextpdf.awt.PdfGraphics2D;
@@ -39,6 +54,10 @@ import com.itextpdf.text.pdf.PdfWriter;
 
 public class OutputHandler {
 
+	private static final long MAX_IMAGE_STRIP_BYTES = 16 * 1024 * 1024;
+	private static final String PNG_METADATA_FORMAT = "javax_imageio_png_1.0";
+	private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+
 	private OutputHandler() {} // private constructor to avoid instantiation
 
 	public static void createAndOutputToFile(String extension, File file, DiagramHandler handler) throws Exception {
@@ -47,11 +66,10 @@ public class OutputHandler {
 		ostream.close();
 	}
 
+	/**
+	 * exports the diagram at the default grid size; the diagram itself isn't changed (the elements are only drawn zoomed to the default grid size)
+	 */
 	public static void createToStream(String extension, OutputStream ostream, DiagramHandler handler) throws Exception {
-
-		int oldZoom = handler.getGridSize();
-		handler.setGridAndZoom(Constants.DEFAULTGRIDSIZE, false); // Zoom to the defaultGridsize before execution
-
 		// if some GridElements are selected, only export them
 		Collection<GridElement> elementsToDraw = handler.getDrawPanel().getSelector().getSelectedElements();
 		// if nothing is selected, draw everything
@@ -60,8 +78,6 @@ public class OutputHandler {
 		}
 
 		OutputHandler.exportToOutputStream(extension, ostream, elementsToDraw, handler.getFontHandler());
-
-		handler.setGridAndZoom(oldZoom, false); // Zoom back to the oldGridsize after execution
 	}
 
 	private static void exportToOutputStream(String extension, OutputStream ostream, Collection<GridElement> entities, FontHandler diagramFont) throws IOException {
@@ -86,7 +102,7 @@ public class OutputHandler {
 	}
 
 	private static void exportEps(OutputStream ostream, Collection<GridElement> entities, FontHandler diagramFont) throws IOException {
-		Rectangle bounds = DrawPanel.getContentBounds(Config.getInstance().getPrintPadding(), entities);
+		Rectangle bounds = getContentBounds(entities);
 		EpsGraphics2D graphics2d = new EpsGraphics2D(Program.getInstance().getProgramName() + " Diagram", ostream, 0, 0, bounds.width, bounds.height);
 		setGraphicsBorders(bounds, graphics2d);
 		paintEntitiesIntoGraphics2D(graphics2d, entities, diagramFont);
@@ -98,7 +114,7 @@ public class OutputHandler {
 		try {
 			FontMapper mapper = new PdfFontMapper();
 
-			Rectangle bounds = DrawPanel.getContentBounds(Config.getInstance().getPrintPadding(), entities);
+			Rectangle bounds = getContentBounds(entities);
 			com.itextpdf.text.Document document = new com.itextpdf.text.Document(new com.itextpdf.text.Rectangle(bounds.getWidth(), bounds.getHeight()));
 			PdfWriter writer = PdfWriter.getInstance(document, ostream);
 			document.open();
@@ -118,7 +134,37 @@ public class OutputHandler {
 	}
 
 	private static void exportSvg(OutputStream ostream, Collection<GridElement> entities, FontHandler diagramFont) throws IOException {
-		Rectangle bounds = DrawPanel.getContentBounds(Config.getInstance().getPrintPadding(), entities);
+		if (containsDeprecatedElements(entities)) {
+			exportSvgWithBatik(ostream, entities, diagramFont);
+			return;
+		}
+		Rectangle bounds = getContentBounds(entities);
+		SvgWriter svg = new SvgWriter(new BufferedWriter(new OutputStreamWriter(ostream, "UTF-8")));
+		svg.startDocument(bounds.x, bounds.y, bounds.width, bounds.height);
+		DiagramHandler handler = DiagramHandler.forExport(diagramFont);
+		for (GridElement entity : sortByPaintOrder(entities)) {
+			Rectangle rect = getExportRectangle(entity);
+			svg.startGroup(rect.x, rect.y, rect.width, rect.height);
+			((DrawHandlerSwing) entity.getComponent().getDrawHandler()).drawAll(svg, handler, rect.getSize());
+			svg.endGroup();
+		}
+		svg.endDocument();
+	}
+
+	/**
+	 * deprecated old elements can only paint themselves on a graphics object, therefore diagrams which contain them are exported by the Batik SVGGraphics2D
+	 */
+	private static boolean containsDeprecatedElements(Collection<GridElement> entities) {
+		for (GridElement entity : entities) {
+			if (!(entity instanceof NewGridElement)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void exportSvgWithBatik(OutputStream ostream, Collection<GridElement> entities, FontHandler diagramFont) throws IOException {
+		Rectangle bounds = getContentBounds(entities);
 		DOMImplementation domImpl = GenericDOMImplementation.getDOMImplementation();
 		org.w3c.dom.Document document = domImpl.createDocument(null, "svg", null);
 
@@ -134,25 +180,101 @@ public class OutputHandler {
 	}
 
 	private static void exportImg(String imgType, OutputStream ostream, Collection<GridElement> entities, FontHandler diagramFont) throws IOException {
-		ImageIO.write(createImageForGridElements(entities, diagramFont), imgType, ostream);
+		Config cfg = Config.getInstance();
+		writeImage(createStripImageForGridElements(entities, diagramFont, cfg.getImageExportScale()), imgType, cfg.getImageExportDpi(), ostream);
 		ostream.flush();
 		ostream.close();
 	}
 
 	public static BufferedImage createImageForGridElements(Collection<GridElement> entities, FontHandler diagramFont) {
 
-		Rectangle bounds = DrawPanel.getContentBounds(Config.getInstance().getPrintPadding(), entities);
+		Rectangle bounds = getContentBounds(entities);
 		BufferedImage im = new BufferedImage(bounds.width == 0 ? 1 : bounds.width, bounds.height == 0 ? 1 : bounds.height, BufferedImage.TYPE_INT_RGB);
 		Graphics2D graphics2d = im.createGraphics();
-		graphics2d.setRenderingHints(Utils.getUxRenderingQualityHigh(true));
-
-		setGraphicsBorders(bounds, graphics2d);
-		paintEntitiesIntoGraphics2D(graphics2d, entities, diagramFont);
+		paintImage(graphics2d, bounds, 1, entities, diagramFont);
 		graphics2d.dispose();
 
 		return im;
 	}
 
+	/**
+	 * @return an image of the entities which is painted in horizontal strips while it is written, therefore large diagrams don't need the memory of the whole image
+	 */
+	public static StripImage createStripImageForGridElements(final Collection<GridElement> entities, final FontHandler diagramFont, final double scale) {
+		final Rectangle bounds = getContentBounds(entities);
+		return new StripImage((int) Math.ceil(bounds.width * scale), (int) Math.ceil(bounds.height * scale), MAX_IMAGE_STRIP_BYTES) {
+			@Override
+			protected void paint(Graphics2D g) {
+				paintImage(g, bounds, scale, entities, diagramFont);
+			}
+		};
+	}
+
+	private static void paintImage(Graphics2D g, Rectangle bounds, double scale, Collection<GridElement> entities, FontHandler diagramFont) {
+		g.setRenderingHints(Utils.getUxRenderingQualityHigh(true));
+		if (scale != 1) {
+			g.scale(scale, scale);
+		}
+		setGraphicsBorders(bounds, g);
+		paintEntitiesIntoGraphics2D(g, entities, diagramFont);
+	}
+
+	/**
+	 * writes the image like ImageIO.write() and stores the resolution if a dpi value greater than 0 is given (only supported for png and jpg)
+	 */
+	private static void writeImage(RenderedImage image, String imgType, int dpi, OutputStream ostream) throws IOException {
+		ImageTypeSpecifier type = ImageTypeSpecifier.createFromRenderedImage(image);
+		Iterator<ImageWriter> writers = ImageIO.getImageWriters(type, imgType);
+		if (!writers.hasNext()) {
+			throw new IOException("No image writer for " + imgType + " available");
+		}
+		ImageWriter writer = writers.next();
+		ImageOutputStream imageStream = ImageIO.createImageOutputStream(ostream);
+		try {
+			writer.setOutput(imageStream);
+			writer.write(null, new IIOImage(image, null, createResolutionMetadata(writer, type, dpi)), null);
+		} finally {
+			imageStream.close();
+			writer.dispose();
+		}
+	}
+
+	/**
+	 * The resolution is set in the native metadata formats, because the image writers of the JDK don't convert the pixel size of the standard metadata format correctly
+	 */
+	private static IIOMetadata createResolutionMetadata(ImageWriter writer, ImageTypeSpecifier type, int dpi) throws IOException {
+		if (dpi <= 0) {
+			return null;
+		}
+		IIOMetadata metadata = writer.getDefaultImageMetadata(type, null);
+		if (metadata == null || metadata.isReadOnly()) {
+			return null;
+		}
+		String format = metadata.getNativeMetadataFormatName();
+		if (PNG_METADATA_FORMAT.equals(format)) {
+			IIOMetadataNode phys = new IIOMetadataNode("pHYs");
+			String pixelsPerMeter = Long.toString(Math.round(dpi / 0.0254));
+			phys.setAttribute("pixelsPerUnitXAxis", pixelsPerMeter);
+			phys.setAttribute("pixelsPerUnitYAxis", pixelsPerMeter);
+			phys.setAttribute("unitSpecifier", "meter");
+			IIOMetadataNode root = new IIOMetadataNode(PNG_METADATA_FORMAT);
+			root.appendChild(phys);
+			metadata.mergeTree(PNG_METADATA_FORMAT, root);
+		}
+		else if (JPEG_METADATA_FORMAT.equals(format)) {
+			IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(JPEG_METADATA_FORMAT);
+			NodeList jfif = root.getElementsByTagName("app0JFIF");
+			if (jfif.getLength() > 0) {
+				IIOMetadataNode app0 = (IIOMetadataNode) jfif.item(0);
+				app0.setAttribute("resUnits", "1"); // dots per inch
+				app0.setAttribute("Xdensity", Integer.toString(dpi));
+				app0.setAttribute("Ydensity", Integer.toString(dpi));
+				metadata.setFromTree(JPEG_METADATA_FORMAT, root);
+			}
+		}
+		return metadata;
+	}
+
 	private static void setGraphicsBorders(Rectangle bounds, Graphics2D graphics2d) {
 		graphics2d.translate(-bounds.x, -bounds.y);
 		graphics2d.clipRect(bounds.x, bounds.y, bounds.width, bounds.height);
@@ -164,20 +286,85 @@ public class OutputHandler {
 		return ImageIO.getImageWritersBySuffix(ext).hasNext();
 	}
 
+	/**
+	 * @return the bounds of the entities (zoomed to the default grid size) with the print padding around them
+	 */
+	private static Rectangle getContentBounds(Collection<GridElement> entities) {
+		int padding = Config.getInstance().getPrintPadding();
+		if (entities.isEmpty()) {
+			return new Rectangle(0, 0, 0, 0);
+		}
+		int minx = Integer.MAX_VALUE;
+		int miny = Integer.MAX_VALUE;
+		int maxx = 0;
+		int maxy = 0;
+		for (GridElement e : entities) {
+			Rectangle r = getExportRectangle(e);
+			minx = Math.min(minx, r.x - padding);
+			miny = Math.min(miny, r.y - padding);
+			maxx = Math.max(maxx, r.x + r.width + padding);
+			maxy = Math.max(maxy, r.y + r.height + padding);
+		}
+		return new Rectangle(minx, miny, maxx - minx, maxy - miny);
+	}
+
+	/**
+	 * @return the rectangle of the entity zoomed to the default grid size (the same rectangle the entity would have after zooming its diagram to 100%)
+	 */
+	private static Rectangle getExportRectangle(GridElement entity) {
+		return DiagramHandler.zoomRectangle(entity.getRectangle(), getGridSize(entity), Constants.DEFAULTGRIDSIZE);
+	}
+
+	private static int getGridSize(GridElement entity) {
+		DiagramHandler handler = HandlerElementMap.getHandlerForElement(entity);
+		return handler == null ? Constants.DEFAULTGRIDSIZE : handler.getGridSize();
+	}
+
+	/**
+	 * Paints the entities at the default grid size without changing them.
+	 * New elements are drawn directly from their draw functions (which don't depend on the zoom level), only deprecated old elements must be copied and zoomed because they paint themselves as Swing components.
+	 */
 	public static void paintEntitiesIntoGraphics2D(Graphics2D g2d, Collection<GridElement> entities, FontHandler diagramFont) {
 		DiagramHandler handler = DiagramHandler.forExport(diagramFont); // #290: pass fontHandler from original diagramHandler to let the export use diagram specific fontsize+family
-		JLayeredPane tempPanel = new JLayeredPane();
-		for (GridElement entity : entities) {
-			GridElement clone = ElementFactorySwing.createCopy(entity, handler);
-			com.baselet.element.interfaces.Component component = clone.getComponent();
-			// Issue 138: when PDF and Swing Export draw on (0,0) a part of the drawn image is cut, therefore it's displaced by 0.5px in that case.
-			// also Issue 270: makes arrow ending placement better
-			component.translateForExport();
-			tempPanel.add((Component) component, clone.getLayer());
-		}
-		tempPanel.validate();
-		tempPanel.setBackground(Color.WHITE);
-		tempPanel.setSize(Integer.MAX_VALUE, Integer.MAX_VALUE);
-		tempPanel.update(g2d);
+		g2d.setColor(Color.BLACK); // like the default foreground color of the Swing components which painted the elements before
+		java.awt.Rectangle clip = g2d.getClipBounds();
+		for (GridElement entity : sortByPaintOrder(entities)) {
+			Rectangle rect = getExportRectangle(entity);
+			if (clip != null && !clip.intersects(rect.x, rect.y, rect.width, rect.height)) {
+				continue; // the element would be clipped completely (eg if only a strip of an image is painted)
+			}
+			Graphics2D g = (Graphics2D) g2d.create(rect.x, rect.y, rect.width, rect.height);
+			g.setColor(Color.BLACK);
+			try {
+				if (entity instanceof NewGridElement) {
+					((DrawHandlerSwing) entity.getComponent().getDrawHandler()).drawAll(g, handler, rect.getSize());
+				}
+				else {
+					GridElement clone = ElementFactorySwing.createCopy(entity, handler);
+					DiagramHandler.zoomEntity(getGridSize(entity), Constants.DEFAULTGRIDSIZE, clone);
+					// Issue 138: when PDF and Swing Export draw on (0,0) a part of the drawn image is cut, therefore it's displaced by 0.5px in that case.
+					// also Issue 270: makes arrow ending placement better
+					clone.getComponent().translateForExport();
+					((Component) clone.getComponent()).paint(g);
+				}
+			} finally {
+				g.dispose();
+			}
+		}
+	}
+
+	/**
+	 * @return the entities in the order a JLayeredPane would paint them (lower layers first; within a layer the first entity is painted last and is therefore on top)
+	 */
+	private static List<GridElement> sortByPaintOrder(Collection<GridElement> entities) {
+		List<GridElement> sorted = new ArrayList<GridElement>(entities);
+		Collections.reverse(sorted);
+		Collections.sort(sorted, new Comparator<GridElement>() { // the sort is stable, therefore the order within a layer is kept
+			@Override
+			public int compare(GridElement e1, GridElement e2) {
+				return e1.getLayer().compareTo(e2.getLayer());
+			}
+		});
+		return sorted;
 	}
 }
@@ -0,0 +1,201 @@
+package com.baselet.diagram.io;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+
+/**
+ * RGB image which is painted lazily in horizontal strips (the tiles of the image) and only keeps the last painted strip in memory.
+ * Image writers which request the image row by row (like the PNG writer of ImageIO) can therefore encode very large images with the memory of a single strip.
+ * Writers which request the whole image at once still work but need the memory of the full image.
+ */
+public abstract class StripImage implements RenderedImage {
+
+	private final int width;
+	private final int height;
+	private final int stripHeight;
+	private final ColorModel colorModel;
+	private final SampleModel sampleModel;
+
+	private int currentStrip = -1;
+	private BufferedImage currentStripImage;
+	private int paintedStrips = 0;
+
+	/**
+	 * @param maxStripBytes the maximum memory of a strip (4 bytes per pixel); a strip has at least one row
+	 */
+	public StripImage(int width, int height, long maxStripBytes) {
+		this.width = Math.max(1, width);
+		this.height = Math.max(1, height);
+		stripHeight = (int) Math.max(1, Math.min(this.height, maxStripBytes / (4L * this.width)));
+		colorModel = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getColorModel();
+		sampleModel = colorModel.createCompatibleSampleModel(this.width, stripHeight);
+	}
+
+	/**
+	 * paints the image into the graphics object of a strip; the graphics object is translated, so the strip can be painted like the whole image (it is clipped to the strip, therefore everything outside of g.getClipBounds() can be skipped)
+	 */
+	protected abstract void paint(Graphics2D g);
+
+	public int getStripHeight() {
+		return stripHeight;
+	}
+
+	/**
+	 * @return how often a strip has been painted (equals the number of strips if the image has been read from top to bottom)
+	 */
+	public int getPaintedStrips() {
+		return paintedStrips;
+	}
+
+	private BufferedImage getStripImage(int strip) {
+		if (strip != currentStrip) {
+			int y = strip * stripHeight;
+			BufferedImage image = new BufferedImage(width, Math.min(stripHeight, height - y), BufferedImage.TYPE_INT_RGB); // a new image instead of reusing the old one because rasters of the last strip may still be referenced
+			Graphics2D g = image.createGraphics();
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, image.getWidth(), image.getHeight());
+			g.setClip(0, 0, image.getWidth(), image.getHeight()); // the graphics of a new image has no clip, but paint() needs it to skip everything outside of the strip
+			g.translate(0, -y);
+			paint(g);
+			g.dispose();
+			currentStripImage = image;
+			currentStrip = strip;
+			paintedStrips++;
+		}
+		return currentStripImage;
+	}
+
+	@Override
+	public Raster getTile(int tileX, int tileY) {
+		return getStripImage(tileY).getRaster().createTranslatedChild(0, tileY * stripHeight);
+	}
+
+	@Override
+	public Raster getData() {
+		return getData(new Rectangle(0, 0, width, height));
+	}
+
+	@Override
+	public Raster getData(Rectangle rect) {
+		Rectangle r = rect.intersection(new Rectangle(0, 0, width, height));
+		int firstStrip = r.y / stripHeight;
+		int lastStrip = (r.y + r.height - 1) / stripHeight;
+		if (firstStrip == lastStrip) { // the usual case for row by row writers: no copy is necessary
+			return getTile(0, firstStrip).createChild(r.x, r.y, r.width, r.height, r.x, r.y, null);
+		}
+		WritableRaster raster = Raster.createWritableRaster(sampleModel.createCompatibleSampleModel(r.width, r.height), new Point(r.x, r.y));
+		return copyData(raster);
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster raster) {
+		if (raster == null) {
+			raster = colorModel.createCompatibleWritableRaster(width, height);
+		}
+		Rectangle r = raster.getBounds().intersection(new Rectangle(0, 0, width, height));
+		if (r.isEmpty()) {
+			return raster;
+		}
+		for (int strip = r.y / stripHeight; strip <= (r.y + r.height - 1) / stripHeight; strip++) {
+			Raster tile = getTile(0, strip);
+			Rectangle part = r.intersection(tile.getBounds());
+			raster.setRect(tile.createChild(part.x, part.y, part.width, part.height, part.x, part.y, null));
+		}
+		return raster;
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources() {
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String name) {
+		return Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel() {
+		return colorModel;
+	}
+
+	@Override
+	public SampleModel getSampleModel() {
+		return sampleModel;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMinX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinY() {
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles() {
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles() {
+		return (height + stripHeight - 1) / stripHeight;
+	}
+
+	@Override
+	public int getMinTileX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY() {
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth() {
+		return width;
+	}
+
+	@Override
+	public int getTileHeight() {
+		return stripHeight;
+	}
+
+	@Override
+	public int getTileGridXOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset() {
+		return 0;
+	}
+}
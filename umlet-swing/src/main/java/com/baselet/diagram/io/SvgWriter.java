@@ -0,0 +1,320 @@
+package com.baselet.diagram.io;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RectangularShape;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.baselet.control.enums.FormatLabels;
+import com.baselet.diagram.draw.helper.ColorOwn;
+
+/**
+ * Streams SVG elements directly to a Writer while the elements of a diagram are drawn, so no DOM of the whole document must be built before the export (unlike the Batik SVGGraphics2D).
+ * Equal styles of shapes and texts are written only once as a CSS class which is shared by all SVG elements using it.
+ *
+ * The draw methods are called by draw functions which can't throw checked exceptions, therefore the first IOException is stored and thrown by {@link #endDocument()}.
+ */
+public class SvgWriter {
+
+	private static final String CLASS_PREFIX = "s";
+	private static final String CLIP_PREFIX = "c";
+
+	// texts are measured like by the Batik SVGGraphics2D of the former export: layouts with antialiasing and fractional metrics, font metrics (eg the line height) of a graphics object without rendering hints
+	private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(new AffineTransform(), true, true);
+
+	private final Writer out;
+	private final Map<String, String> styleClasses = new HashMap<String, String>(); // css declarations -> class name
+	private final Graphics2D metricsGraphics;
+	private int clipCount = 0;
+	private IOException error;
+
+	public SvgWriter(Writer out) {
+		this.out = out;
+		metricsGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+	}
+
+	public FontRenderContext getFontRenderContext() {
+		return FONT_RENDER_CONTEXT;
+	}
+
+	public FontMetrics getFontMetrics(Font font) {
+		return metricsGraphics.getFontMetrics(font);
+	}
+
+	public void startDocument(int x, int y, int width, int height) {
+		write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height + "\" viewBox=\"" + x + " " + y + " " + width + " " + height + "\" xml:space=\"preserve\">\n");
+	}
+
+	/**
+	 * @throws IOException the first exception which occurred while the document has been written
+	 */
+	public void endDocument() throws IOException {
+		write("</svg>\n");
+		try {
+			out.flush();
+		} catch (IOException e) {
+			setError(e);
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * starts a group for a grid element: everything until {@link #endGroup()} is drawn relative to (x,y) and clipped to the size of the element
+	 */
+	public void startGroup(double x, double y, double width, double height) {
+		String clipId = CLIP_PREFIX + ++clipCount;
+		write("<clipPath id=\"" + clipId + "\"><rect width=\"" + format(width) + "\" height=\"" + format(height) + "\"/></clipPath>\n");
+		write("<g transform=\"translate(" + format(x) + "," + format(y) + ")\" clip-path=\"url(#" + clipId + ")\">\n");
+	}
+
+	public void endGroup() {
+		write("</g>\n");
+	}
+
+	/**
+	 * draws the shape like Graphics2D.fill() with the background color followed by Graphics2D.draw() with the foreground color and stroke
+	 * @param background the fill color or null if the shape isn't filled
+	 * @param foreground the line color or null if no outline is drawn
+	 */
+	public void drawShape(Shape shape, ColorOwn background, ColorOwn foreground, Stroke stroke) {
+		boolean fill = isVisible(background);
+		boolean draw = isVisible(foreground);
+		if (draw && !(stroke instanceof BasicStroke)) { // special strokes (eg a DoubleStroke) can't be expressed by svg stroke attributes, therefore their outline is filled
+			if (fill) {
+				writeShape(shape, fillDeclarations(background, shape) + "stroke:none");
+			}
+			Shape outline = stroke.createStrokedShape(shape);
+			writeShape(outline, fillDeclarations(foreground, outline) + "stroke:none");
+		}
+		else if (fill || draw) {
+			writeShape(shape, (fill ? fillDeclarations(background, shape) : "fill:none;") + (draw ? strokeDeclarations(foreground, (BasicStroke) stroke) : "stroke:none"));
+		}
+	}
+
+	/**
+	 * draws a single line of text with its baseline at y
+	 */
+	public void drawText(String text, double x, double y, String fontFamily, double fontSize, Set<FormatLabels> format, ColorOwn color) {
+		if (!isVisible(color)) {
+			return;
+		}
+		StringBuilder declarations = new StringBuilder();
+		declarations.append("fill:").append(color(color)).append(';');
+		appendOpacity(declarations, "fill-opacity", color);
+		declarations.append("font-family:").append(fontFamily(fontFamily)).append(";font-size:").append(format(fontSize)).append("px");
+		if (format.contains(FormatLabels.BOLD)) {
+			declarations.append(";font-weight:bold");
+		}
+		if (format.contains(FormatLabels.ITALIC)) {
+			declarations.append(";font-style:italic");
+		}
+		if (format.contains(FormatLabels.UNDERLINE)) {
+			declarations.append(";text-decoration:underline");
+		}
+		write("<text x=\"" + format(x) + "\" y=\"" + format(y) + "\" class=\"" + styleClass(declarations.toString()) + "\">");
+		writeEscaped(text);
+		write("</text>\n");
+	}
+
+	private void writeShape(Shape shape, String declarations) {
+		if (shape instanceof RectangularShape && (((RectangularShape) shape).getWidth() < 0 || ((RectangularShape) shape).getHeight() < 0)) {
+			return; // like Graphics2D which doesn't draw rectangles and ellipses with a negative size (they are invalid in svg)
+		}
+		String styleClass = styleClass(declarations);
+		if (shape instanceof Rectangle2D) {
+			Rectangle2D r = (Rectangle2D) shape;
+			write("<rect x=\"" + format(r.getX()) + "\" y=\"" + format(r.getY()) + "\" width=\"" + format(r.getWidth()) + "\" height=\"" + format(r.getHeight()) + "\" class=\"" + styleClass + "\"/>\n");
+		}
+		else if (shape instanceof RoundRectangle2D) {
+			RoundRectangle2D r = (RoundRectangle2D) shape;
+			write("<rect x=\"" + format(r.getX()) + "\" y=\"" + format(r.getY()) + "\" width=\"" + format(r.getWidth()) + "\" height=\"" + format(r.getHeight()) + "\" rx=\"" + format(r.getArcWidth() / 2) + "\" ry=\"" + format(r.getArcHeight() / 2) + "\" class=\"" + styleClass + "\"/>\n");
+		}
+		else if (shape instanceof Ellipse2D) {
+			Ellipse2D e = (Ellipse2D) shape;
+			write("<ellipse cx=\"" + format(e.getCenterX()) + "\" cy=\"" + format(e.getCenterY()) + "\" rx=\"" + format(e.getWidth() / 2) + "\" ry=\"" + format(e.getHeight() / 2) + "\" class=\"" + styleClass + "\"/>\n");
+		}
+		else {
+			write("<path d=\"" + pathData(shape) + "\" class=\"" + styleClass + "\"/>\n");
+		}
+	}
+
+	/**
+	 * @return the class name of the css declarations; the class is written before its first usage
+	 */
+	private String styleClass(String declarations) {
+		String name = styleClasses.get(declarations);
+		if (name == null) {
+			name = CLASS_PREFIX + (styleClasses.size() + 1);
+			styleClasses.put(declarations, name);
+			write("<style type=\"text/css\">." + name + "{" + declarations + "}</style>\n");
+		}
+		return name;
+	}
+
+	private static String fillDeclarations(ColorOwn color, Shape shape) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("fill:").append(color(color)).append(';');
+		appendOpacity(sb, "fill-opacity", color);
+		if (shape.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD) {
+			sb.append("fill-rule:evenodd;");
+		}
+		return sb.toString();
+	}
+
+	private static String strokeDeclarations(ColorOwn color, BasicStroke stroke) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("stroke:").append(color(color)).append(';');
+		appendOpacity(sb, "stroke-opacity", color);
+		sb.append("stroke-width:").append(format(stroke.getLineWidth()));
+		sb.append(";stroke-linecap:").append(stroke.getEndCap() == BasicStroke.CAP_BUTT ? "butt" : stroke.getEndCap() == BasicStroke.CAP_ROUND ? "round" : "square");
+		sb.append(";stroke-linejoin:").append(stroke.getLineJoin() == BasicStroke.JOIN_BEVEL ? "bevel" : stroke.getLineJoin() == BasicStroke.JOIN_ROUND ? "round" : "miter");
+		sb.append(";stroke-miterlimit:").append(format(stroke.getMiterLimit()));
+		float[] dash = stroke.getDashArray();
+		if (dash != null) {
+			sb.append(";stroke-dasharray:");
+			for (int i = 0; i < dash.length; i++) {
+				sb.append(i == 0 ? "" : ",").append(format(dash[i]));
+			}
+			if (stroke.getDashPhase() != 0) {
+				sb.append(";stroke-dashoffset:").append(format(stroke.getDashPhase()));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void appendOpacity(StringBuilder sb, String property, ColorOwn color) {
+		if (color.getAlpha() < 255) {
+			sb.append(property).append(':').append(format(color.getAlpha() / 255.0)).append(';');
+		}
+	}
+
+	private static boolean isVisible(ColorOwn color) {
+		return color != null && color.getAlpha() > 0;
+	}
+
+	private static String color(ColorOwn color) {
+		return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
+	}
+
+	/**
+	 * @return the generic css font family for the logical java fonts (which are the only fonts of a diagram)
+	 */
+	private static String fontFamily(String family) {
+		if (Font.SANS_SERIF.equals(family) || Font.DIALOG.equals(family)) {
+			return "sans-serif";
+		}
+		else if (Font.SERIF.equals(family)) {
+			return "serif";
+		}
+		else if (Font.MONOSPACED.equals(family) || Font.DIALOG_INPUT.equals(family)) {
+			return "monospace";
+		}
+		return "'" + family + "'";
+	}
+
+	private static String pathData(Shape shape) {
+		StringBuilder sb = new StringBuilder();
+		double[] c = new double[6];
+		for (PathIterator it = shape.getPathIterator(null); !it.isDone(); it.next()) {
+			int type = it.currentSegment(c);
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			if (type == PathIterator.SEG_MOVETO) {
+				sb.append('M').append(format(c[0])).append(' ').append(format(c[1]));
+			}
+			else if (type == PathIterator.SEG_LINETO) {
+				sb.append('L').append(format(c[0])).append(' ').append(format(c[1]));
+			}
+			else if (type == PathIterator.SEG_QUADTO) {
+				sb.append('Q').append(format(c[0])).append(' ').append(format(c[1])).append(' ').append(format(c[2])).append(' ').append(format(c[3]));
+			}
+			else if (type == PathIterator.SEG_CUBICTO) {
+				sb.append('C').append(format(c[0])).append(' ').append(format(c[1])).append(' ').append(format(c[2])).append(' ').append(format(c[3])).append(' ').append(format(c[4])).append(' ').append(format(c[5]));
+			}
+			else {
+				sb.append('Z');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the number with at most 3 decimal places and without trailing zeros (independent of the default locale)
+	 */
+	static String format(double value) {
+		long thousandths = Math.round(value * 1000);
+		StringBuilder sb = new StringBuilder();
+		if (thousandths < 0) {
+			sb.append('-');
+			thousandths = -thousandths;
+		}
+		sb.append(thousandths / 1000);
+		int fraction = (int) (thousandths % 1000);
+		if (fraction != 0) {
+			sb.append('.');
+			String digits = Integer.toString(fraction + 1000).substring(1); // with leading zeros
+			int end = digits.length();
+			while (digits.charAt(end - 1) == '0') {
+				end--;
+			}
+			sb.append(digits, 0, end);
+		}
+		return sb.toString();
+	}
+
+	private void writeEscaped(String text) {
+		StringBuilder sb = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '<') {
+				sb.append("&lt;");
+			}
+			else if (c == '>') {
+				sb.append("&gt;");
+			}
+			else if (c == '&') {
+				sb.append("&amp;");
+			}
+			else if (c >= 0x20 || c == '\t') { // other control characters are not allowed in xml 1.0
+				sb.append(c);
+			}
+		}
+		write(sb.toString());
+	}
+
+	private void write(String s) {
+		if (error != null) {
+			return;
+		}
+		try {
+			out.write(s);
+		} catch (IOException e) {
+			setError(e);
+		}
+	}
+
+	private void setError(IOException e) {
+		if (error == null) {
+			error = e;
+		}
+	}
+}
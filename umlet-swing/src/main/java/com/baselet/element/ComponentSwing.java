@@ -1,6 +1,10 @@
 package com.baselet.element;
 
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 
 import javax.swing.JComponent;
 
@@ -9,6 +13,7 @@ import com.baselet.control.basics.Converter;
 import com.baselet.control.basics.geom.Point;
 import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.diagram.DiagramHandler;
+import com.baselet.diagram.DrawPanel;
 import com.baselet.diagram.draw.DrawHandler;
 import com.baselet.diagram.draw.swing.DrawHandlerSwing;
 import com.baselet.element.interfaces.Component;
@@ -28,15 +33,52 @@ public class ComponentSwing extends JComponent implements Component {
 
 	@Override
 	public void paint(Graphics g) {
+		DiagramHandler handler = HandlerElementMap.getHandlerForElement(gridElement);
+		boolean selected = handler.getDrawPanel().getSelector().isSelected(gridElement);
+		if (isImageCacheUsable(g)) {
+			ElementImageCache cache = ElementImageCache.getInstance();
+			ElementImageCache.State state = new ElementImageCache.State(getWidth(), getHeight(), handler.getZoomFactor(), selected, drawer.getModificationCount(), metaDrawer.getModificationCount());
+			BufferedImage image = cache.get(this, state);
+			if (image == null) {
+				image = ((Graphics2D) g).getDeviceConfiguration().createCompatibleImage(getWidth(), getHeight(), Transparency.TRANSLUCENT);
+				Graphics2D imageGraphics = image.createGraphics();
+				imageGraphics.setRenderingHints(((Graphics2D) g).getRenderingHints());
+				imageGraphics.setFont(g.getFont());
+				drawAll(imageGraphics, selected);
+				imageGraphics.dispose();
+				cache.put(this, state, image);
+			}
+			g.drawImage(image, 0, 0, null);
+		}
+		else {
+			drawAll(g, selected);
+		}
+	}
+
+	private void drawAll(Graphics g, boolean selected) {
 		drawer.setGraphics(g);
 		metaDrawer.setGraphics(g);
-		boolean selected = HandlerElementMap.getHandlerForElement(gridElement).getDrawPanel().getSelector().isSelected(gridElement);
 		drawer.drawAll(selected);
 		if (selected) {
 			metaDrawer.drawAll();
 		}
 	}
 
+	/**
+	 * Images are only cached if the element is painted by its DrawPanel on the screen without scaling (exports paint copies of the elements and must stay vector graphics like prints, HiDPI screens would show blurry images)
+	 */
+	private boolean isImageCacheUsable(Graphics g) {
+		ElementImageCache cache = ElementImageCache.getInstance();
+		if (!cache.isEnabled() || !cache.isCacheable(getWidth(), getHeight()) || !(g instanceof Graphics2D)) {
+			return false;
+		}
+		if (!(getParent() instanceof DrawPanel) || ((DrawPanel) getParent()).isPrinting()) {
+			return false;
+		}
+		AffineTransform transform = ((Graphics2D) g).getTransform();
+		return (transform.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0 && transform.getTranslateX() == Math.rint(transform.getTranslateX()) && transform.getTranslateY() == Math.rint(transform.getTranslateY());
+	}
+
 	@Override
 	public void translateForExport() { // translation breaks export of some elements, therefore its disabled - see issue 353
 		// drawer.setTranslate(true);
@@ -93,6 +135,26 @@ public class ComponentSwing extends JComponent implements Component {
 		this.setBounds(rect.x, rect.y, rect.width, rect.height);
 	}
 
+	/**
+	 * setLocation and setSize also end up here, therefore every move and resize is propagated to the spatial index of the DrawPanel
+	 */
+	@Override
+	public void setBounds(int x, int y, int width, int height) {
+		super.setBounds(x, y, width, height);
+		if (getParent() instanceof DrawPanel) {
+			((DrawPanel) getParent()).updateElementBounds(gridElement);
+		}
+	}
+
+	/**
+	 * the cached image is released as soon as the element is removed from its DrawPanel
+	 */
+	@Override
+	public void removeNotify() {
+		super.removeNotify();
+		ElementImageCache.getInstance().remove(this);
+	}
+
 	@Override
 	public void afterModelUpdate() {
 		repaint(); // necessary e.g. for NewGridElement Relation to make sure it gets redrawn correctly when a sticking element is moved around
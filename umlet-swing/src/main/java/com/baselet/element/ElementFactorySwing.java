@@ -46,7 +46,7 @@ public class ElementFactorySwing extends ElementFactory {
 			@Override
 			public StickableMap getStickableMap() {
 				DiagramHandler h = HandlerElementMap.getHandlerForElement(returnObj);
-				List<Relation> stickables = h.getDrawPanel().getStickables(Collections.<GridElement> emptyList());
+				List<Relation> stickables = h.getDrawPanel().getStickablesNear(returnObj, Collections.<GridElement> emptyList());
 				return Stickables.getStickingPointsWhichAreConnectedToStickingPolygon(returnObj.generateStickingBorder(), stickables);
 			}
 		};
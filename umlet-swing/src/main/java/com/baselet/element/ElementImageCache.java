@@ -0,0 +1,186 @@
+package com.baselet.element;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.baselet.control.config.Config;
+
+/**
+ * LRU cache for the rendered images of {@link ComponentSwing} elements. If an element hasn't changed since its last paint, a repaint (eg while scrolling) only copies its image to the screen instead of running all draw functions again.
+ * The cache is limited by the memory of its images (4 bytes per pixel), the least recently painted images are evicted first.
+ * Every image is stored together with the {@link State} it has been rendered with, so a changed model, zoom level or selection never returns an outdated image.
+ */
+public class ElementImageCache {
+
+	private static ElementImageCache instance;
+
+	public static synchronized ElementImageCache getInstance() {
+		if (instance == null) {
+			instance = new ElementImageCache(Config.getInstance().getElementImageCacheMb() * 1024L * 1024L);
+		}
+		return instance;
+	}
+
+	private final LinkedHashMap<ComponentSwing, CachedImage> images = new LinkedHashMap<ComponentSwing, CachedImage>(16, 0.75f, true);
+	private long maxBytes;
+	private long bytes = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	ElementImageCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return false if images should not be cached at all (a budget of 0 disables the cache)
+	 */
+	public synchronized boolean isEnabled() {
+		return maxBytes > 0;
+	}
+
+	/**
+	 * @return true if an image of the given size is small enough to be cached (very large elements would evict most other images)
+	 */
+	public synchronized boolean isCacheable(int width, int height) {
+		return width > 0 && height > 0 && estimateBytes(width, height) <= maxBytes / 4;
+	}
+
+	/**
+	 * @return the cached image of the component or null if there is none or if it has been rendered in a different state
+	 */
+	public synchronized BufferedImage get(ComponentSwing component, State state) {
+		CachedImage cached = images.get(component);
+		if (cached != null && cached.state.equals(state)) {
+			hits++;
+			return cached.image;
+		}
+		misses++;
+		return null;
+	}
+
+	public synchronized void put(ComponentSwing component, State state, BufferedImage image) {
+		remove(component);
+		images.put(component, new CachedImage(state, image));
+		bytes += estimateBytes(image.getWidth(), image.getHeight());
+		evictToMaxBytes();
+	}
+
+	public synchronized void remove(ComponentSwing component) {
+		CachedImage removed = images.remove(component);
+		if (removed != null) {
+			bytes -= estimateBytes(removed.image.getWidth(), removed.image.getHeight());
+		}
+	}
+
+	public synchronized void clear() {
+		images.clear();
+		bytes = 0;
+	}
+
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evictToMaxBytes();
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized int size() {
+		return images.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ElementImageCache [size=" + images.size() + ", bytes=" + bytes + ", maxBytes=" + maxBytes + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	private void evictToMaxBytes() {
+		for (Iterator<Map.Entry<ComponentSwing, CachedImage>> iter = images.entrySet().iterator(); bytes > maxBytes && iter.hasNext();) {
+			CachedImage evicted = iter.next().getValue();
+			iter.remove();
+			bytes -= estimateBytes(evicted.image.getWidth(), evicted.image.getHeight());
+			evictions++;
+		}
+	}
+
+	private static long estimateBytes(int width, int height) {
+		return 4L * width * height;
+	}
+
+	private static class CachedImage {
+		private final State state;
+		private final BufferedImage image;
+
+		private CachedImage(State state, BufferedImage image) {
+			this.state = state;
+			this.image = image;
+		}
+	}
+
+	/**
+	 * Everything which influences the rendering of an element; an image can only be reused if the element is still in the same state
+	 */
+	public static class State {
+		private final int width;
+		private final int height;
+		private final double zoom;
+		private final boolean selected;
+		private final int drawerModificationCount;
+		private final int metaDrawerModificationCount;
+
+		public State(int width, int height, double zoom, boolean selected, int drawerModificationCount, int metaDrawerModificationCount) {
+			this.width = width;
+			this.height = height;
+			this.zoom = zoom;
+			this.selected = selected;
+			this.drawerModificationCount = drawerModificationCount;
+			this.metaDrawerModificationCount = metaDrawerModificationCount;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + width;
+			result = prime * result + height;
+			long temp = Double.doubleToLongBits(zoom);
+			result = prime * result + (int) (temp ^ temp >>> 32);
+			result = prime * result + (selected ? 1231 : 1237);
+			result = prime * result + drawerModificationCount;
+			result = prime * result + metaDrawerModificationCount;
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			State other = (State) obj;
+			return width == other.width && height == other.height && Double.doubleToLongBits(zoom) == Double.doubleToLongBits(other.zoom) && selected == other.selected && drawerModificationCount == other.drawerModificationCount && metaDrawerModificationCount == other.metaDrawerModificationCount;
+		}
+	}
+}
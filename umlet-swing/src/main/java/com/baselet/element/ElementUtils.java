@@ -30,7 +30,7 @@ public class ElementUtils {
 		}
 
 		DrawPanel drawPanel = HandlerElementMap.getHandlerForElement(gridElement).getDrawPanel();
-		List<GridElement> elements = drawPanel.getGridElements();
+		List<GridElement> elements = drawPanel.getGridElementsAt(absolute); // other elements are not selectable on the point
 		Selector selector = drawPanel.getSelector();
 		for (GridElement other : elements) {
 			if (other == gridElement || other.getLayer() < gridElement.getLayer() || !other.isSelectableOn(absolute)) {
@@ -36,6 +36,7 @@ import com.baselet.control.enums.ElementId;
 import com.baselet.control.enums.LineType;
 import com.baselet.control.util.Utils;
 import com.baselet.diagram.DiagramHandler;
+import com.baselet.diagram.DrawPanel;
 import com.baselet.diagram.draw.DrawHandler;
 import com.baselet.diagram.draw.helper.ColorOwn;
 import com.baselet.diagram.draw.helper.ColorOwn.Transparency;
@@ -460,6 +461,17 @@ public abstract class OldGridElement extends JComponent implements GridElement,
 		setBounds(Converter.convert(rect));
 	}
 
+	/**
+	 * setLocation and setSize also end up here, therefore every move and resize is propagated to the spatial index of the DrawPanel
+	 */
+	@Override
+	public void setBounds(int x, int y, int width, int height) {
+		super.setBounds(x, y, width, height);
+		if (getParent() instanceof DrawPanel) {
+			((DrawPanel) getParent()).updateElementBounds(this);
+		}
+	}
+
 	@Override
 	public Rectangle getBoundsRect() {
 		return Converter.convert(getBounds());
@@ -1,8 +1,15 @@
 package com.baselet.generator;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.baselet.control.basics.geom.Rectangle;
 import com.baselet.control.config.ConfigClassGen;
@@ -21,18 +28,17 @@ import com.baselet.generator.java.Field;
 import com.baselet.generator.java.JavaClass;
 import com.baselet.generator.java.JavaClass.ClassRole;
 import com.baselet.generator.java.Method;
-import com.baselet.generator.java.bcel.BcelJavaClass;
-import com.baselet.generator.java.jp.ClassParserException;
-import com.baselet.generator.java.jp.JpJavaClass;
 import com.baselet.generator.sorting.AlphabetLayout;
 import com.baselet.generator.sorting.HeightLayout;
 import com.baselet.generator.sorting.PackageLayout;
 import com.baselet.generator.sorting.RelationLayout;
 import com.baselet.generator.sorting.SortableElement;
 import com.baselet.gui.command.AddElement;
+import com.baselet.gui.command.Command;
+import com.baselet.gui.command.Macro;
 
 /**
- * Creates a class element from a filename pointing to a .class or .java file according to UML standards,
+ * Creates a class element from a filename pointing to a .class or .java file (or from every class of a .jar file or directory) according to UML standards,
  * adds the class to the current diagram and resizes this class element to minimum size where all text is visible.
  *
  * @author Lisi Bluemelhuber
@@ -57,18 +63,26 @@ public class ClassDiagramConverter {
 		return sb.toString();
 	}
 
+	/**
+	 * @param filesToOpen .java and .class files, directories (which are searched recursively) and .jar files; only classes of packages accepted by the package filter of the generator options are added
+	 */
 	public void createClassDiagrams(List<String> filesToOpen) {
 		List<Exception> failures = new ArrayList<Exception>();
-		List<SortableElement> elements = new ArrayList<SortableElement>();
-		for (String filename : filesToOpen) {
-			try {
-				SortableElement element = createElement(filename);
-				if (element != null) {
-					elements.add(element);
+		ConfigClassGen genCfg = ConfigClassGen.getInstance();
+		PackageFilter filter = new PackageFilter(genCfg.getGenerateClassPackageIncludes(), genCfg.getGenerateClassPackageExcludes());
+		ClassSource.Collector collector = new ClassSource.Collector(filter);
+		List<ParsedFile> parsedFiles;
+		try {
+			for (String filename : filesToOpen) {
+				try {
+					collector.add(new File(filename));
+				} catch (IOException e) {
+					failures.add(new IOException("Cannot read " + filename + ": " + e.getMessage()));
 				}
-			} catch (Exception e) {
-				failures.add(e);
 			}
+			parsedFiles = parse(collector.getSources(), filter, Runtime.getRuntime().availableProcessors(), failures);
+		} finally {
+			collector.close();
 		}
 
 		if (!failures.isEmpty()) {
@@ -76,7 +90,13 @@ public class ClassDiagramConverter {
 			return; // if errors are in any of the files don't add any of them
 		}
 
-		switch (ConfigClassGen.getInstance().getGenerateClassSortings()) {
+		// the elements are created by the calling thread, because the size calculation uses the font handler of the diagram
+		List<SortableElement> elements = new ArrayList<SortableElement>();
+		for (ParsedFile parsedFile : parsedFiles) {
+			elements.add(createElement(parsedFile));
+		}
+
+		switch (genCfg.getGenerateClassSortings()) {
 			case PACKAGE:
 				new PackageLayout().layout(elements);
 				break;
@@ -93,27 +113,79 @@ public class ClassDiagramConverter {
 		addElementsToDiagram(elements);
 	}
 
-	private SortableElement createElement(String filename) throws Exception {
-		JavaClass parsedClass = parseFile(filename);
-		if (parsedClass == null) {
-			return null;
+	/**
+	 * parses .java and .class files without a package filter
+	 */
+	static List<ParsedFile> parseFiles(List<String> filenames, int threads, List<Exception> failures) {
+		return parse(ClassSource.ofFiles(filenames), PackageFilter.ALL, threads, failures);
+	}
+
+	/**
+	 * Parses the sources and generates the properties text of their class elements on a thread pool (the sources are independent of each other).
+	 * @param filter classes of packages which are not accepted by the filter are skipped
+	 * @param failures is filled with the exceptions of sources which cannot be parsed (in the order of the sources)
+	 * @return the parsed files in the order of the sources
+	 */
+	static List<ParsedFile> parse(List<ClassSource> sources, final PackageFilter filter, int threads, List<Exception> failures) {
+		List<ParsedFile> parsedFiles = new ArrayList<ParsedFile>();
+		if (sources.isEmpty()) {
+			return parsedFiles;
 		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, sources.size())));
+		try {
+			List<Future<ParsedFile>> futures = new ArrayList<Future<ParsedFile>>();
+			for (final ClassSource source : sources) {
+				futures.add(executor.submit(new Callable<ParsedFile>() {
+					@Override
+					public ParsedFile call() throws Exception {
+						JavaClass parsedClass = source.parse();
+						if (!filter.accepts(parsedClass.getPackage())) {
+							return null; // the package of .java files and of classes in directories is only known after parsing
+						}
+						return new ParsedFile(parsedClass, getElementProperties(parsedClass));
+					}
+				}));
+			}
+			for (Future<ParsedFile> future : futures) {
+				try {
+					ParsedFile parsedFile = future.get();
+					if (parsedFile != null) {
+						parsedFiles.add(parsedFile);
+					}
+				} catch (ExecutionException e) {
+					failures.add(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					failures.add(e);
+					break;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return parsedFiles;
+	}
 
-		String propertiesText = getElementProperties(parsedClass);
-		List<String> propList = Arrays.asList(propertiesText.split("\n"));
+	private SortableElement createElement(ParsedFile parsedFile) {
+		List<String> propList = Arrays.asList(parsedFile.propertiesText.split("\n"));
 		Rectangle initialSize = adjustSize(propList);
-		GridElement clazz = ElementFactorySwing.create(ElementId.UMLClass, initialSize, propertiesText, null, CurrentDiagram.getInstance().getDiagramHandler());
-		return new SortableElement(clazz, parsedClass);
+		GridElement clazz = ElementFactorySwing.create(ElementId.UMLClass, initialSize, parsedFile.propertiesText, null, CurrentDiagram.getInstance().getDiagramHandler());
+		return new SortableElement(clazz, parsedFile.parsedClass);
 	}
 
+	/**
+	 * adds all elements with one command, therefore a single undo removes the whole generated diagram
+	 */
 	private void addElementsToDiagram(List<SortableElement> elements) {
 		DiagramHandler handler = CurrentDiagram.getInstance().getDiagramHandler();
 
+		List<Command> commands = new ArrayList<Command>();
 		for (SortableElement e : elements) {
-			new AddElement(e.getElement(),
+			commands.add(new AddElement(e.getElement(),
 					handler.realignToGrid(e.getElement().getRectangle().x),
-					handler.realignToGrid(e.getElement().getRectangle().y), false).execute(handler);
+					handler.realignToGrid(e.getElement().getRectangle().y), false));
 		}
+		handler.getController().executeCommand(new Macro(commands));
 		handler.setChanged(true);
 	}
 
@@ -150,7 +222,7 @@ public class ClassDiagramConverter {
 		return n - n % GRIDSIZE + GRIDSIZE;
 	}
 
-	private String getElementProperties(JavaClass parsedClass) {
+	private static String getElementProperties(JavaClass parsedClass) {
 		StringBuilder sb = new StringBuilder("");
 
 		createTopSection(parsedClass, sb);
@@ -165,7 +237,7 @@ public class ClassDiagramConverter {
 		return sb.toString();
 	}
 
-	private void createMethodSection(JavaClass parsedClass, StringBuilder sb) {
+	private static void createMethodSection(JavaClass parsedClass, StringBuilder sb) {
 		for (Method method : parsedClass.getMethods()) {
 			if (ConfigClassGen.getInstance().getGenerateClassMethods() == MethodOptions.PUBLIC && method.getAccess() == AccessFlag.PUBLIC) {
 				sb.append(getMethodString(method));
@@ -176,7 +248,7 @@ public class ClassDiagramConverter {
 		}
 	}
 
-	private String getMethodString(Method method) {
+	private static String getMethodString(Method method) {
 		if (ConfigClassGen.getInstance().getGenerateClassSignatures() == SignatureOptions.PARAMS_ONLY) {
 			return method.getAccess() + method.getName() + "(" + method.getSignature() + ")\n";
 		}
@@ -188,7 +260,7 @@ public class ClassDiagramConverter {
 		}
 	}
 
-	private void createFieldSection(JavaClass parsedClass, StringBuilder sb) {
+	private static void createFieldSection(JavaClass parsedClass, StringBuilder sb) {
 		for (Field field : parsedClass.getFields()) {
 			if (ConfigClassGen.getInstance().getGenerateClassFields() == FieldOptions.PUBLIC && field.getAccess() == AccessFlag.PUBLIC) {
 				sb.append(field.getAccess()).append(field.getName()).append(": ").append(field.getType()).append("\n");
@@ -199,7 +271,7 @@ public class ClassDiagramConverter {
 		}
 	}
 
-	private void createTopSection(JavaClass parsedClass, StringBuilder sb) {
+	private static void createTopSection(JavaClass parsedClass, StringBuilder sb) {
 		ClassRole role = parsedClass.getRole();
 		if (role == ClassRole.INTERFACE) {
 			sb.append("<<").append(role).append(">>\n").append(AlphabetLayout.getClassName(parsedClass));
@@ -213,21 +285,21 @@ public class ClassDiagramConverter {
 		sb.append("\n");
 	}
 
-	private JavaClass parseFile(String filename) throws Exception {
-		String extension = getExtension(filename);
-		if (extension.equals("java")) {
-			return new JpJavaClass(filename);
-		}
-		else if (extension.equals("class")) {
-			return new BcelJavaClass(filename);
+	static class ParsedFile {
+		private final JavaClass parsedClass;
+		private final String propertiesText;
+
+		ParsedFile(JavaClass parsedClass, String propertiesText) {
+			this.parsedClass = parsedClass;
+			this.propertiesText = propertiesText;
 		}
-		else {
-			throw new ClassParserException("Unknown extension " + extension + " of file " + filename);
+
+		JavaClass getParsedClass() {
+			return parsedClass;
 		}
-	}
 
-	private String getExtension(String filename) {
-		int dotPosition = filename.lastIndexOf(".");
-		return filename.substring(dotPosition + 1, filename.length());
+		String getPropertiesText() {
+			return propertiesText;
+		}
 	}
 }
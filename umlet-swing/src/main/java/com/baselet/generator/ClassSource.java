@@ -0,0 +1,199 @@
+package com.baselet.generator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baselet.generator.java.JavaClass;
+import com.baselet.generator.java.bcel.BcelJavaClass;
+import com.baselet.generator.java.jp.ClassParserException;
+import com.baselet.generator.java.jp.JpJavaClass;
+
+/**
+ * A class which is imported by the class diagram generator: a .java or .class file or a class file inside of a .jar file.
+ * Jar files and directories are expanded to the classes they contain; the classes of a jar file are read directly from the archive without extracting them.
+ */
+abstract class ClassSource {
+
+	private static final Logger log = LoggerFactory.getLogger(ClassSource.class);
+
+	private static final String JAVA = ".java";
+	private static final String CLASS = ".class";
+	private static final String JAR = ".jar";
+	private static final Pattern ANONYMOUS_CLASS = Pattern.compile("\\$\\d"); // binary names like Outer$1 or Outer$1Local
+
+	/**
+	 * @return the name which is used in error messages
+	 */
+	abstract String getName();
+
+	/**
+	 * parses the class; it must be possible to call this method concurrently for different sources
+	 */
+	abstract JavaClass parse() throws Exception;
+
+	static List<ClassSource> ofFiles(List<String> filenames) {
+		List<ClassSource> sources = new ArrayList<ClassSource>();
+		for (String filename : filenames) {
+			sources.add(new FileSource(filename));
+		}
+		return sources;
+	}
+
+	private static class FileSource extends ClassSource {
+		private final String filename;
+
+		private FileSource(String filename) {
+			this.filename = filename;
+		}
+
+		@Override
+		String getName() {
+			return filename;
+		}
+
+		@Override
+		JavaClass parse() throws Exception {
+			if (filename.endsWith(JAVA)) {
+				return new JpJavaClass(filename);
+			}
+			else if (filename.endsWith(CLASS)) {
+				return new BcelJavaClass(filename);
+			}
+			else {
+				int dotPosition = filename.lastIndexOf(".");
+				throw new ClassParserException("Unknown extension " + filename.substring(dotPosition + 1) + " of file " + filename);
+			}
+		}
+	}
+
+	private static class JarEntrySource extends ClassSource {
+		private final ZipFile jar;
+		private final ZipEntry entry;
+
+		private JarEntrySource(ZipFile jar, ZipEntry entry) {
+			this.jar = jar;
+			this.entry = entry;
+		}
+
+		@Override
+		String getName() {
+			return jar.getName() + "!/" + entry.getName();
+		}
+
+		@Override
+		JavaClass parse() throws IOException {
+			InputStream in = jar.getInputStream(entry); // ZipFile supports reading several entries concurrently
+			try {
+				return new BcelJavaClass(in, entry.getName());
+			} finally {
+				in.close();
+			}
+		}
+	}
+
+	/**
+	 * Collects the sources of files, directories and jar files. The jar files stay open until {@link #close()} is called, because their classes are read while parsing.
+	 */
+	static class Collector implements Closeable {
+		private final PackageFilter filter;
+		private final List<ClassSource> sources = new ArrayList<ClassSource>();
+		private final List<ZipFile> jars = new ArrayList<ZipFile>();
+
+		Collector(PackageFilter filter) {
+			this.filter = filter;
+		}
+
+		/**
+		 * adds an explicitly selected file: a .java or .class file, all supported files of a directory (recursively) or all classes of a jar file
+		 * files with other extensions are added too, because parsing them reports the unknown extension
+		 */
+		void add(File file) throws IOException {
+			if (file.isDirectory()) {
+				addDirectory(file);
+			}
+			else if (file.getName().endsWith(JAR)) {
+				addJar(file);
+			}
+			else {
+				sources.add(new FileSource(file.getPath()));
+			}
+		}
+
+		/**
+		 * unlike explicitly selected files, unsupported files and anonymous classes of a directory are skipped
+		 */
+		private void addDirectory(File directory) throws IOException {
+			File[] children = directory.listFiles();
+			if (children == null) {
+				return;
+			}
+			for (File child : children) {
+				String name = child.getName();
+				if (child.isDirectory()) {
+					addDirectory(child);
+				}
+				else if (name.endsWith(JAR)) {
+					addJar(child);
+				}
+				else if (name.endsWith(JAVA) || name.endsWith(CLASS) && !isAnonymousClass(name)) {
+					sources.add(new FileSource(child.getPath()));
+				}
+			}
+		}
+
+		private void addJar(File file) throws IOException {
+			ZipFile jar = new ZipFile(file);
+			jars.add(jar);
+			Enumeration<? extends ZipEntry> entries = jar.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				String entryName = entry.getName();
+				// the package of a class file in a jar always matches its path, therefore classes of filtered packages are not even read
+				if (!entry.isDirectory() && entryName.endsWith(CLASS) && !isMetaClass(entryName) && !isAnonymousClass(entryName) && filter.acceptsPath(entryName)) {
+					sources.add(new JarEntrySource(jar, entry));
+				}
+			}
+		}
+
+		/**
+		 * @return true for package-info and module-info files and for classes of other java versions in multi-release jars
+		 */
+		private static boolean isMetaClass(String entryName) {
+			return entryName.startsWith("META-INF/") || entryName.endsWith("-info" + CLASS);
+		}
+
+		/**
+		 * @return true for anonymous classes and local classes (the compiler numbers them), which would only clutter the diagram
+		 */
+		private static boolean isAnonymousClass(String fileName) {
+			return ANONYMOUS_CLASS.matcher(fileName).find();
+		}
+
+		List<ClassSource> getSources() {
+			return sources;
+		}
+
+		@Override
+		public void close() {
+			for (ZipFile jar : jars) {
+				try {
+					jar.close();
+				} catch (IOException e) {
+					log.warn("Cannot close " + jar.getName(), e);
+				}
+			}
+			jars.clear();
+		}
+	}
+}
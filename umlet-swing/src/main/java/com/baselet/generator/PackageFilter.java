@@ -0,0 +1,69 @@
+package com.baselet.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides which packages are imported by the class diagram generator.
+ * A filter entry matches the package itself and all of its subpackages (eg "com.baselet" matches "com.baselet.generator" but not "com.baseletx").
+ * If there are no includes, every package which is not excluded is accepted; excludes always win over includes.
+ */
+public class PackageFilter {
+
+	public static final PackageFilter ALL = new PackageFilter("", "");
+
+	private final List<String> includes;
+	private final List<String> excludes;
+
+	/**
+	 * @param includes the packages to import, separated by commas or whitespace
+	 * @param excludes the packages to ignore, separated by commas or whitespace
+	 */
+	public PackageFilter(String includes, String excludes) {
+		this.includes = split(includes);
+		this.excludes = split(excludes);
+	}
+
+	public boolean accepts(String packageName) {
+		for (String exclude : excludes) {
+			if (matches(exclude, packageName)) {
+				return false;
+			}
+		}
+		if (includes.isEmpty()) {
+			return true;
+		}
+		for (String include : includes) {
+			if (matches(include, packageName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param path the path of a class file relative to the root of the class path (eg "com/baselet/Main.class")
+	 */
+	public boolean acceptsPath(String path) {
+		int lastSlash = path.lastIndexOf('/');
+		return accepts(lastSlash == -1 ? "" : path.substring(0, lastSlash).replace('/', '.'));
+	}
+
+	public boolean isAcceptingAll() {
+		return includes.isEmpty() && excludes.isEmpty();
+	}
+
+	private static boolean matches(String filter, String packageName) {
+		return packageName.startsWith(filter) && (packageName.length() == filter.length() || packageName.charAt(filter.length()) == '.');
+	}
+
+	private static List<String> split(String packages) {
+		List<String> result = new ArrayList<String>();
+		for (String p : packages.split("[,\\s]+")) {
+			if (!p.isEmpty()) {
+				result.add(p.endsWith(".*") ? p.substring(0, p.length() - 2) : p);
+			}
+		}
+		return result;
+	}
+}
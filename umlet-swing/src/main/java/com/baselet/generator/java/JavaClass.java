@@ -20,4 +20,9 @@ public interface JavaClass {
 	}
 
 	public String getPackage();
+
+	/**
+	 * @return the names (without package) of the extended classes and implemented interfaces; java.lang.Object is not included
+	 */
+	public String[] getSuperTypes();
 }
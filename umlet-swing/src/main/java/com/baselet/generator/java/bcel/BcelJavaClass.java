@@ -1,6 +1,9 @@
 package com.baselet.generator.java.bcel;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.bcel.classfile.ClassParser;
 import org.apache.bcel.classfile.Field;
@@ -20,6 +23,14 @@ public class BcelJavaClass implements com.baselet.generator.java.JavaClass {
 		clazz = parser.parse();
 	}
 
+	/**
+	 * parses the class from a stream (eg an entry of a jar file); the stream is not closed
+	 */
+	public BcelJavaClass(InputStream in, String filename) throws IOException {
+		ClassParser parser = new ClassParser(in, filename);
+		clazz = parser.parse();
+	}
+
 	@Override
 	public String getName() {
 		String nameWithPackage = clazz.getClassName();
@@ -64,4 +75,21 @@ public class BcelJavaClass implements com.baselet.generator.java.JavaClass {
 	public String getPackage() {
 		return clazz.getPackageName();
 	}
+
+	@Override
+	public String[] getSuperTypes() {
+		String[] interfaces = clazz.getInterfaceNames();
+		List<String> superTypes = new ArrayList<String>(interfaces.length + 1);
+		if (!clazz.isInterface() && !"java.lang.Object".equals(clazz.getSuperclassName())) {
+			superTypes.add(withoutPackage(clazz.getSuperclassName()));
+		}
+		for (String name : interfaces) {
+			superTypes.add(withoutPackage(name));
+		}
+		return superTypes.toArray(new String[superTypes.size()]);
+	}
+
+	private static String withoutPackage(String name) {
+		return name.substring(name.lastIndexOf(".") + 1, name.length());
+	}
 }
@@ -20,6 +20,7 @@ import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.ModifierSet;
 import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
 
 public class JpJavaClass implements JavaClass {
 
@@ -128,4 +129,20 @@ public class JpJavaClass implements JavaClass {
 		String packageWithExtra = packageDecl.toString().replace("package ", "");
 		return packageWithExtra.substring(0, packageWithExtra.lastIndexOf(";"));
 	}
+
+	@Override
+	public String[] getSuperTypes() {
+		List<String> superTypes = new ArrayList<String>();
+		if (clazz.getExtends() != null) {
+			for (ClassOrInterfaceType type : clazz.getExtends()) {
+				superTypes.add(type.getName());
+			}
+		}
+		if (clazz.getImplements() != null) {
+			for (ClassOrInterfaceType type : clazz.getImplements()) {
+				superTypes.add(type.getName());
+			}
+		}
+		return superTypes.toArray(new String[superTypes.size()]);
+	}
 }
@@ -14,7 +14,11 @@ public abstract class Layout {
 	protected Dimension bounds;
 
 	public Layout() {
-		GRIDSIZE = CurrentDiagram.getInstance().getDiagramHandler().getGridSize();
+		this(CurrentDiagram.getInstance().getDiagramHandler().getGridSize());
+	}
+
+	protected Layout(int gridSize) {
+		GRIDSIZE = gridSize;
 	}
 
 	public abstract void layout(List<SortableElement> elements);
@@ -1,10 +1,373 @@
 package com.baselet.generator.sorting;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.baselet.control.basics.geom.Dimension;
+import com.baselet.control.basics.geom.Point;
+import com.baselet.control.basics.geom.Rectangle;
+import com.baselet.generator.java.Field;
+import com.baselet.generator.java.JavaClass;
+import com.baselet.util.IntPairKey;
+
+/**
+ * Places related classes (inheritance and associations by field types) near each other using a force-directed layout:
+ * related classes attract each other, all classes repel each other and a weak gravity keeps unrelated classes near the center.
+ * The repulsion is only calculated between classes in neighbouring cells of a uniform grid (the classic grid variant of Fruchterman-Reingold),
+ * therefore every iteration needs nearly linear time, even for packages with thousands of classes.
+ * Afterwards the classes are placed in rows on the grid, as near as possible to their calculated position without overlapping each other.
+ */
 public class RelationLayout extends Layout {
 
+	private static final int ITERATIONS = 100;
+	private static final double COOLING = 0.95; // the max displacement of each iteration is multiplied by this factor
+	private static final double GRAVITY = 0.05;
+	private static final double INHERITANCE_WEIGHT = 2;
+	private static final double ASSOCIATION_WEIGHT = 1;
+
+	public RelationLayout() {}
+
+	RelationLayout(int gridSize) {
+		super(gridSize);
+	}
+
 	@Override
-	public void layout(List<SortableElement> elements) {}
+	public void layout(List<SortableElement> elements) {
+		if (elements.isEmpty()) {
+			bounds = new Dimension(GRIDSIZE, GRIDSIZE);
+			return;
+		}
+		// the initial placement is ordered by package and name, therefore classes of the same package start near each other
+		List<SortableElement> sorted = new ArrayList<SortableElement>(elements);
+		Collections.sort(sorted, new PackageAndNameSorter());
+		Dimension[] sizes = new Dimension[sorted.size()];
+		for (int i = 0; i < sizes.length; i++) {
+			Rectangle r = sorted.get(i).getElement().getRectangle();
+			sizes[i] = new Dimension(r.width, r.height);
+		}
+		Point[] locations = arrange(sizes, collectRelations(sorted));
+		for (int i = 0; i < locations.length; i++) {
+			sorted.get(i).getElement().setLocation(locations[i].x, locations[i].y);
+		}
+	}
+
+	/**
+	 * @param sizes the size of every element
+	 * @param relations pairs of element indices (the weight of a relation is stored at the same index)
+	 * @return the top left corner of every element, all of them are multiples of the grid size and no elements overlap
+	 */
+	Point[] arrange(Dimension[] sizes, Relations relations) {
+		int n = sizes.length;
+		double sizeSum = 0;
+		for (Dimension size : sizes) {
+			sizeSum += (size.width + size.height) / 2.0;
+		}
+		double k = sizeSum / n + GRIDSIZE * 2; // the ideal distance between the centers of related elements
+
+		double[] x = new double[n];
+		double[] y = new double[n];
+		int columns = (int) Math.ceil(Math.sqrt(n));
+		for (int i = 0; i < n; i++) {
+			x[i] = i % columns * k;
+			y[i] = i / columns * k;
+		}
+		simulate(x, y, k, relations);
+		Point[] locations = place(sizes, x, y);
+
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		for (Point p : locations) {
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+		}
+		int maxX = 0;
+		int maxY = 0;
+		for (int i = 0; i < n; i++) {
+			locations[i].move(GRIDSIZE - minX, GRIDSIZE - minY);
+			maxX = Math.max(maxX, locations[i].x + sizes[i].width);
+			maxY = Math.max(maxY, locations[i].y + sizes[i].height);
+		}
+		bounds = new Dimension(maxX + GRIDSIZE, maxY + GRIDSIZE);
+		return locations;
+	}
+
+	private void simulate(double[] x, double[] y, double k, Relations relations) {
+		int n = x.length;
+		double[] dx = new double[n];
+		double[] dy = new double[n];
+		double temperature = k * Math.sqrt(n) / 2;
+		double cellSize = k * 2; // repulsion is ignored for elements which are further away
+		for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+			Arrays.fill(dx, 0);
+			Arrays.fill(dy, 0);
+
+			// repulsion between all elements in the same or a neighbouring cell
+			Map<Long, List<Integer>> cells = new HashMap<Long, List<Integer>>();
+			for (int i = 0; i < n; i++) {
+				Long cell = IntPairKey.of((int) Math.floor(x[i] / cellSize), (int) Math.floor(y[i] / cellSize));
+				List<Integer> members = cells.get(cell);
+				if (members == null) {
+					members = new ArrayList<Integer>();
+					cells.put(cell, members);
+				}
+				members.add(i);
+			}
+			for (int i = 0; i < n; i++) {
+				int cx = (int) Math.floor(x[i] / cellSize);
+				int cy = (int) Math.floor(y[i] / cellSize);
+				for (int nx = cx - 1; nx <= cx + 1; nx++) {
+					for (int ny = cy - 1; ny <= cy + 1; ny++) {
+						List<Integer> members = cells.get(IntPairKey.of(nx, ny));
+						if (members == null) {
+							continue;
+						}
+						for (int j : members) {
+							if (i == j) {
+								continue;
+							}
+							double distX = x[i] - x[j];
+							double distY = y[i] - y[j];
+							double dist = Math.sqrt(distX * distX + distY * distY);
+							if (dist < 0.01) { // elements at the same position are pushed apart in a direction which depends on their index
+								distX = (i - j) * 0.01;
+								distY = (j - i) * 0.005;
+								dist = Math.sqrt(distX * distX + distY * distY);
+							}
+							if (dist < cellSize) {
+								double force = k * k / dist;
+								dx[i] += distX / dist * force;
+								dy[i] += distY / dist * force;
+							}
+						}
+					}
+				}
+			}
+
+			// attraction between related elements
+			for (int r = 0; r < relations.size(); r++) {
+				int i = relations.from(r);
+				int j = relations.to(r);
+				double distX = x[i] - x[j];
+				double distY = y[i] - y[j];
+				double dist = Math.sqrt(distX * distX + distY * distY);
+				if (dist > 0) {
+					double force = dist * dist / k * relations.weight(r);
+					dx[i] -= distX / dist * force;
+					dy[i] -= distY / dist * force;
+					dx[j] += distX / dist * force;
+					dy[j] += distY / dist * force;
+				}
+			}
+
+			// gravity to the center keeps unrelated elements and separate groups together
+			double centerX = 0;
+			double centerY = 0;
+			for (int i = 0; i < n; i++) {
+				centerX += x[i] / n;
+				centerY += y[i] / n;
+			}
+			for (int i = 0; i < n; i++) {
+				dx[i] += (centerX - x[i]) * GRAVITY;
+				dy[i] += (centerY - y[i]) * GRAVITY;
+			}
+
+			// move every element, but not further than the current temperature
+			for (int i = 0; i < n; i++) {
+				double length = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+				if (length > 0) {
+					double limited = Math.min(length, temperature);
+					x[i] += dx[i] / length * limited;
+					y[i] += dy[i] / length * limited;
+				}
+			}
+			temperature *= COOLING;
+		}
+	}
+
+	/**
+	 * Places the elements in rows without overlapping: the elements are sorted by their calculated y position and split into rows
+	 * of roughly the same width, then each row is filled from left to right, every element as near as possible to its calculated x position.
+	 */
+	private Point[] place(final Dimension[] sizes, final double[] x, final double[] y) {
+		int n = sizes.length;
+		double minX = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double requiredArea = 0;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			maxX = Math.max(maxX, x[i]);
+			requiredArea += (double) (sizes[i].width + GRIDSIZE) * (sizes[i].height + GRIDSIZE);
+		}
+		double rowWidth = Math.sqrt(requiredArea); // results in a roughly square diagram
+		double scaleX = maxX > minX ? rowWidth / (maxX - minX) : 0;
+
+		List<Integer> byY = sortedIndices(y);
+		Point[] locations = new Point[n];
+		int rowY = 0;
+		int rowStart = 0;
+		while (rowStart < n) {
+			int rowEnd = rowStart;
+			double widthSum = 0;
+			while (rowEnd < n && (rowEnd == rowStart || widthSum < rowWidth)) {
+				widthSum += sizes[byY.get(rowEnd)].width + GRIDSIZE;
+				rowEnd++;
+			}
+			final List<Integer> row = byY.subList(rowStart, rowEnd);
+			double[] rowX = new double[row.size()];
+			for (int r = 0; r < rowX.length; r++) {
+				rowX[r] = x[row.get(r)];
+			}
+			int cursor = 0;
+			int rowHeight = 0;
+			for (int r : sortedIndices(rowX)) {
+				int i = row.get(r);
+				int desiredX = align((int) Math.round((x[i] - minX) * scaleX - sizes[i].width / 2.0));
+				int elementX = Math.max(desiredX, cursor);
+				locations[i] = new Point(elementX, rowY);
+				cursor = elementX + sizes[i].width + GRIDSIZE;
+				rowHeight = Math.max(rowHeight, sizes[i].height);
+			}
+			rowY += align(rowHeight + GRIDSIZE * 2 - 1);
+			rowStart = rowEnd;
+		}
+		return locations;
+	}
+
+	/**
+	 * @return the indices of the values in ascending order of the values
+	 */
+	private static List<Integer> sortedIndices(final double[] values) {
+		List<Integer> indices = new ArrayList<Integer>(values.length);
+		for (int i = 0; i < values.length; i++) {
+			indices.add(i);
+		}
+		Collections.sort(indices, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Double.compare(values[o1], values[o2]);
+			}
+		});
+		return indices;
+	}
+
+	private int align(int n) {
+		return (int) Math.floor((double) n / GRIDSIZE) * GRIDSIZE;
+	}
+
+	/**
+	 * finds the relations between the parsed classes; types are matched by their name without package, if the name is ambiguous a class of the same package is preferred
+	 */
+	static Relations collectRelations(List<SortableElement> elements) {
+		Map<String, List<Integer>> classesByName = new HashMap<String, List<Integer>>();
+		for (int i = 0; i < elements.size(); i++) {
+			JavaClass parsedClass = elements.get(i).getParsedClass();
+			if (parsedClass != null) {
+				List<Integer> classes = classesByName.get(parsedClass.getName());
+				if (classes == null) {
+					classes = new ArrayList<Integer>();
+					classesByName.put(parsedClass.getName(), classes);
+				}
+				classes.add(i);
+			}
+		}
+
+		Relations relations = new Relations();
+		for (int i = 0; i < elements.size(); i++) {
+			JavaClass parsedClass = elements.get(i).getParsedClass();
+			if (parsedClass == null) {
+				continue;
+			}
+			for (String superType : parsedClass.getSuperTypes()) {
+				relations.add(i, find(elements, classesByName, superType, parsedClass.getPackage()), INHERITANCE_WEIGHT);
+			}
+			for (Field field : parsedClass.getFields()) {
+				for (String typeName : field.getType().split("[^\\w$.]+")) { // generics and arrays, e.g. java.util.Map<String, Foo[]>
+					String simpleName = typeName.substring(typeName.lastIndexOf('.') + 1);
+					relations.add(i, find(elements, classesByName, simpleName, parsedClass.getPackage()), ASSOCIATION_WEIGHT);
+				}
+			}
+		}
+		return relations;
+	}
+
+	private static int find(List<SortableElement> elements, Map<String, List<Integer>> classesByName, String name, String preferredPackage) {
+		List<Integer> classes = classesByName.get(name);
+		if (classes == null) {
+			return -1;
+		}
+		for (int i : classes) {
+			if (elements.get(i).getParsedClass().getPackage().equals(preferredPackage)) {
+				return i;
+			}
+		}
+		return classes.get(0);
+	}
+
+	/**
+	 * Undirected and weighted relations between elements (given by their index); multiple relations between the same elements are merged and keep the highest weight
+	 */
+	static class Relations {
+		private final Map<Long, Integer> indexOfPair = new HashMap<Long, Integer>();
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private double[] weight = new double[16];
+		private int size = 0;
+
+		void add(int a, int b, double relationWeight) {
+			if (a < 0 || b < 0 || a == b) {
+				return;
+			}
+			Long key = IntPairKey.of(Math.min(a, b), Math.max(a, b));
+			Integer index = indexOfPair.get(key);
+			if (index != null) {
+				weight[index] = Math.max(weight[index], relationWeight);
+				return;
+			}
+			if (size == from.length) {
+				from = Arrays.copyOf(from, size * 2);
+				to = Arrays.copyOf(to, size * 2);
+				weight = Arrays.copyOf(weight, size * 2);
+			}
+			from[size] = a;
+			to[size] = b;
+			weight[size] = relationWeight;
+			indexOfPair.put(key, size);
+			size++;
+		}
+
+		int size() {
+			return size;
+		}
+
+		int from(int index) {
+			return from[index];
+		}
+
+		int to(int index) {
+			return to[index];
+		}
+
+		double weight(int index) {
+			return weight[index];
+		}
+	}
+
+	private static class PackageAndNameSorter implements Comparator<SortableElement>, Serializable {
+		private static final long serialVersionUID = 1L;
 
+		@Override
+		public int compare(SortableElement e1, SortableElement e2) {
+			int result = e1.getName().compareTo(e2.getName());
+			if (result == 0 && e1.getParsedClass() != null && e2.getParsedClass() != null) {
+				result = e1.getParsedClass().getName().compareTo(e2.getParsedClass().getName());
+			}
+			return result;
+		}
+	}
 }
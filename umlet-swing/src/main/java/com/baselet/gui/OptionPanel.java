@@ -28,6 +28,8 @@ import com.baselet.control.constants.Constants;
 import com.baselet.control.enums.Program;
 import com.baselet.control.enums.RuntimeType;
 import com.baselet.diagram.DiagramHandler;
+import com.baselet.diagram.FontHandler;
+import com.baselet.element.ElementImageCache;
 
 @SuppressWarnings("serial")
 public class OptionPanel extends JPanel implements ActionListener {
@@ -191,6 +193,8 @@ public class OptionPanel extends JPanel implements ActionListener {
 
 			String newfamily = (String) default_fontfamily.getSelectedItem();
 			Config.getInstance().setDefaultFontFamily(newfamily);
+			ElementImageCache.getInstance().clear(); // cached element images could still show the old font or sticking polygon settings
+			FontHandler.clearTextMetricsCache(); // the measured texts of the old default font are not needed anymore
 		}
 	}
 }
@@ -1,11 +1,19 @@
 package com.baselet.gui.command;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.baselet.control.Main;
 import com.baselet.diagram.DiagramHandler;
 import com.baselet.element.interfaces.GridElement;
 import com.baselet.gui.CurrentGui;
 import com.baselet.gui.pane.OwnSyntaxPane;
 
+/**
+ * Typing in the property panel creates one command per change, therefore long edit sessions produce long runs of these commands.
+ * To keep the undo history small, a command is compacted as soon as its successor in the history changes the same element:
+ * the full texts are replaced by a diff (the changed middle part of the text) and the texts are restored on demand from the successor.
+ */
 public class ChangePanelAttributes extends Command {
 	private GridElement _entity;
 
@@ -18,12 +26,39 @@ public class ChangePanelAttributes extends Command {
 	private int _oldCaret;
 	private int _newCaret;
 
+	// set if the command has been compacted (_newState and _oldState are null in this case)
+	private ChangePanelAttributes _successor;
+	private int _commonPrefix;
+	private int _commonSuffix;
+	private String _removedText;
+
 	public String getNewState() {
-		return _newState;
+		if (_successor == null) {
+			return _newState;
+		}
+		return _successor.getOldState();
 	}
 
 	public String getOldState() {
-		return _oldState;
+		if (_successor == null) {
+			return _oldState;
+		}
+		// walk along the compacted successors to the first one which still stores the full text and apply the diffs backwards (iterative, because runs can be long)
+		List<ChangePanelAttributes> run = new ArrayList<ChangePanelAttributes>();
+		ChangePanelAttributes c = this;
+		while (c._successor != null) {
+			run.add(c);
+			c = c._successor;
+		}
+		String state = c._oldState;
+		for (int i = run.size() - 1; i >= 0; i--) {
+			state = run.get(i).revertDiff(state);
+		}
+		return state;
+	}
+
+	private String revertDiff(String newState) {
+		return newState.substring(0, _commonPrefix) + _removedText + newState.substring(newState.length() - _commonSuffix);
 	}
 
 	public int getOldCaret() {
@@ -45,7 +80,7 @@ public class ChangePanelAttributes extends Command {
 	@Override
 	public void execute(DiagramHandler handler) {
 		super.execute(handler);
-		_entity.setPanelAttributes(_newState);
+		_entity.setPanelAttributes(getNewState());
 		_entity.repaint();
 
 		GridElement gridElement = Main.getInstance().getEditedGridElement();
@@ -63,6 +98,7 @@ public class ChangePanelAttributes extends Command {
 	public void undo(DiagramHandler handler) {
 		// AB: Do not call super.undo() which would deselect the entity
 		// super.undo(handler);
+		uncompact(); // the texts are reconstructed once, therefore undoing a long compacted run only walks to the next uncompacted command each time
 		_entity.setPanelAttributes(_oldState);
 		_entity.repaint();
 
@@ -90,6 +126,58 @@ public class ChangePanelAttributes extends Command {
 		return ret;
 	}
 
+	@Override
+	public boolean compact(Command successor) {
+		if (_successor != null || !(successor instanceof ChangePanelAttributes)) {
+			return false;
+		}
+		ChangePanelAttributes next = (ChangePanelAttributes) successor;
+		String newState = getNewState();
+		if (next._entity != _entity || _oldState == null || newState == null || !newState.equals(next.getOldState())) {
+			return false; // the successor doesn't continue the text of this command, therefore it cannot be used to restore it
+		}
+		int maxCommon = Math.min(_oldState.length(), newState.length());
+		int prefix = 0;
+		while (prefix < maxCommon && _oldState.charAt(prefix) == newState.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < maxCommon - prefix && _oldState.charAt(_oldState.length() - 1 - suffix) == newState.charAt(newState.length() - 1 - suffix)) {
+			suffix++;
+		}
+		_commonPrefix = prefix;
+		_commonSuffix = suffix;
+		_removedText = _oldState.substring(prefix, _oldState.length() - suffix);
+		_successor = next;
+		_oldState = null;
+		_newState = null;
+		return true;
+	}
+
+	@Override
+	public void uncompact() {
+		if (_successor == null) {
+			return;
+		}
+		String newState = _successor.getOldState();
+		_oldState = revertDiff(newState);
+		_newState = newState;
+		_successor = null;
+		_removedText = null;
+	}
+
+	@Override
+	public long getEstimatedSize() {
+		if (_successor == null) {
+			return super.getEstimatedSize() + 2L * (length(_oldState) + length(_newState));
+		}
+		return super.getEstimatedSize() + 2L * _removedText.length();
+	}
+
+	private static int length(String text) {
+		return text == null ? 0 : text.length();
+	}
+
 	@Override
 	public String toString() {
 		return "Changestate from " + getOldState() + " to " + getNewState();
@@ -33,4 +33,26 @@ public abstract class Command {
 	public boolean isChangingDiagram() {
 		return true;
 	}
+
+	/**
+	 * @return rough estimate of the memory in bytes which is retained by this command in the undo history (referenced grid elements are not counted because they are part of the diagram anyway)
+	 */
+	public long getEstimatedSize() {
+		return 64;
+	}
+
+	/**
+	 * Called by the {@link CommandHistory} after the successor of this command has been executed.
+	 * A command can use this hook to drop data which can be derived from its successor.
+	 * @return true if the command has been compacted
+	 */
+	public boolean compact(@SuppressWarnings("unused") Command successor) {
+		return false;
+	}
+
+	/**
+	 * Restores the data which has been dropped by {@link #compact(Command)}, so the command no longer depends on its successor.
+	 * Called by the {@link CommandHistory} before the successor is removed from the history.
+	 */
+	public void uncompact() {}
 }
@@ -0,0 +1,231 @@
+package com.baselet.gui.command;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Undo history of a diagram, stored in a ring buffer which is limited by the number of commands and by their estimated memory usage.
+ * If one of the limits is exceeded, the oldest commands are dropped (the newest command is always kept, even if it alone exceeds the memory limit).
+ *
+ * Every command which is added to the history gets the chance to compact itself against its successor (see {@link Command#compact(Command)}),
+ * e.g. consecutive changes of the panel attributes are stored as text diffs instead of full copies of the text.
+ */
+public class CommandHistory {
+
+	private static final Logger log = LoggerFactory.getLogger(CommandHistory.class);
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int maxEntries;
+	private final long maxBytes;
+
+	private Command[] commands;
+	private long[] estimatedSizes;
+	private int first = 0; // ring position of the oldest command
+	private int count = 0;
+	private int cursor = 0; // number of commands which are currently executed (= can be undone)
+	private long estimatedBytes = 0;
+	private long evictedCommands = 0;
+	private long compactedCommands = 0;
+
+	/**
+	 * @param maxEntries maximum number of stored commands (at least 1)
+	 * @param maxBytes maximum estimated memory usage of all stored commands
+	 */
+	public CommandHistory(int maxEntries, long maxBytes) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.maxBytes = maxBytes;
+		clear();
+	}
+
+	/**
+	 * adds a new executed command; all commands which could have been redone are dropped
+	 */
+	public void add(Command command) {
+		discardRedoableCommands();
+		if (count > 0) {
+			int lastPos = pos(count - 1);
+			if (commands[lastPos].compact(command)) {
+				compactedCommands++;
+				updateEstimatedSize(lastPos);
+			}
+		}
+		ensureCapacity(count + 1);
+		int newPos = pos(count);
+		commands[newPos] = command;
+		estimatedSizes[newPos] = 0;
+		updateEstimatedSize(newPos);
+		count++;
+		cursor = count;
+		evictOldCommands();
+	}
+
+	/**
+	 * replaces the last executed command (used if the last command has been merged with a new one)
+	 */
+	public void replaceLast(Command command) {
+		if (cursor == 0) {
+			throw new IllegalStateException("there is no executed command which could be replaced");
+		}
+		discardRedoableCommands();
+		removeLast();
+		cursor = count;
+		add(command);
+	}
+
+	public void discardRedoableCommands() {
+		while (count > cursor) {
+			removeLast();
+		}
+	}
+
+	/**
+	 * @return the command which would be undone next or null if there is none
+	 */
+	public Command getUndoCommand() {
+		return cursor > 0 ? commands[pos(cursor - 1)] : null;
+	}
+
+	/**
+	 * @return the command which would be redone next or null if there is none
+	 */
+	public Command getRedoCommand() {
+		return cursor < count ? commands[pos(cursor)] : null;
+	}
+
+	/**
+	 * must be called after the command returned by {@link #getUndoCommand()} has been undone
+	 */
+	public void commandUndone() {
+		if (cursor > 0) {
+			cursor--;
+			updateEstimatedSize(pos(cursor)); // an undone command may have restored the data it dropped during compaction
+		}
+	}
+
+	/**
+	 * must be called after the command returned by {@link #getRedoCommand()} has been redone
+	 */
+	public void commandRedone() {
+		if (cursor < count) {
+			cursor++;
+		}
+	}
+
+	public boolean isUndoable() {
+		return cursor > 0;
+	}
+
+	public boolean isRedoable() {
+		return cursor < count;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	public void clear() {
+		commands = new Command[Math.min(INITIAL_CAPACITY, maxEntries)];
+		estimatedSizes = new long[commands.length];
+		first = 0;
+		count = 0;
+		cursor = 0;
+		estimatedBytes = 0;
+		evictedCommands = 0;
+		compactedCommands = 0;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	/**
+	 * @return number of commands which have been dropped because the history exceeded one of its limits
+	 */
+	public long getEvictedCommands() {
+		return evictedCommands;
+	}
+
+	/**
+	 * @return number of commands which have been compacted against their successor
+	 */
+	public long getCompactedCommands() {
+		return compactedCommands;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "CommandHistory [entries=" + count + "/" + maxEntries + ", estimatedBytes=" + estimatedBytes + "/" + maxBytes + ", evicted=" + evictedCommands + ", compacted=" + compactedCommands + "]";
+	}
+
+	private void evictOldCommands() {
+		long evictedBefore = evictedCommands;
+		while (count > 1 && (count > maxEntries || estimatedBytes > maxBytes)) {
+			removeAt(first);
+			first = (first + 1) % commands.length;
+			count--;
+			cursor--;
+			evictedCommands++;
+		}
+		if (log.isDebugEnabled() && evictedCommands != evictedBefore) {
+			log.debug("Dropped oldest undo commands: " + this);
+		}
+	}
+
+	/**
+	 * the predecessor of the removed command must not depend on it anymore, otherwise the removed command would stay reachable without being counted
+	 */
+	private void removeLast() {
+		if (count > 1) {
+			int predecessorPos = pos(count - 2);
+			commands[predecessorPos].uncompact();
+			updateEstimatedSize(predecessorPos);
+		}
+		removeAt(pos(--count));
+	}
+
+	private void removeAt(int ringPos) {
+		estimatedBytes -= estimatedSizes[ringPos];
+		commands[ringPos] = null;
+		estimatedSizes[ringPos] = 0;
+	}
+
+	private void updateEstimatedSize(int ringPos) {
+		long newSize = commands[ringPos].getEstimatedSize();
+		estimatedBytes += newSize - estimatedSizes[ringPos];
+		estimatedSizes[ringPos] = newSize;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= commands.length) {
+			return;
+		}
+		// the ring may temporarily hold one command more than maxEntries until the oldest one is evicted
+		int newLength = (int) Math.min(Math.max(capacity, (long) commands.length * 2), (long) maxEntries + 1);
+		Command[] newCommands = new Command[newLength];
+		long[] newSizes = new long[newLength];
+		for (int i = 0; i < count; i++) {
+			newCommands[i] = commands[pos(i)];
+			newSizes[i] = estimatedSizes[pos(i)];
+		}
+		commands = newCommands;
+		estimatedSizes = newSizes;
+		first = 0;
+	}
+
+	private int pos(int index) {
+		return (first + index) % commands.length;
+	}
+}
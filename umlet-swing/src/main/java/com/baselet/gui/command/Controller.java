@@ -1,43 +1,36 @@
 package com.baselet.gui.command;
 
-import java.util.Vector;
-
+import com.baselet.control.config.Config;
 import com.baselet.diagram.CurrentDiagram;
 import com.baselet.diagram.DiagramHandler;
 import com.baselet.gui.CurrentGui;
 
 public class Controller {
-	private Vector<Command> commands;
+	private CommandHistory history;
 	private final DiagramHandler handler;
-	private int _cursor;
 
 	public Controller(DiagramHandler handler) {
-		commands = new Vector<Command>();
-		_cursor = -1;
+		history = createHistory();
 		this.handler = handler;
 	}
 
+	private static CommandHistory createHistory() {
+		Config cfg = Config.getInstance();
+		return new CommandHistory(cfg.getUndoHistorySize(), cfg.getUndoHistoryMemoryMb() * 1024L * 1024L);
+	}
+
 	public void executeCommand(Command newCommand) {
 		// Remove future commands
-		for (int i = commands.size() - 1; i > _cursor; i--) {
-			commands.removeElementAt(i);
-		}
-		commands.add(newCommand);
+		history.discardRedoableCommands();
 		newCommand.execute(handler);
 
-		if (commands.size() >= 2) {
-			Command c_n, c_nMinus1;
-			c_n = commands.elementAt(commands.size() - 1);
-			c_nMinus1 = commands.elementAt(commands.size() - 2);
-
-			if (c_n.isMergeableTo(c_nMinus1)) {
-				commands.removeElement(c_n);
-				commands.removeElement(c_nMinus1);
-				Command c = c_n.mergeTo(c_nMinus1);
-				commands.add(c);
-			}
+		Command lastCommand = history.getUndoCommand();
+		if (lastCommand != null && newCommand.isMergeableTo(lastCommand)) {
+			history.replaceLast(newCommand.mergeTo(lastCommand));
+		}
+		else {
+			history.add(newCommand);
 		}
-		_cursor = commands.size() - 1;
 
 		if (newCommand.isChangingDiagram()) {
 			handler.setChanged(true);
@@ -48,9 +41,9 @@ public class Controller {
 
 	public void undo() {
 		if (isUndoable()) {
-			Command c = commands.elementAt(_cursor);
+			Command c = history.getUndoCommand();
 			c.undo(handler);
-			_cursor--;
+			history.commandUndone();
 			if (c.isChangingDiagram()) {
 				handler.setChanged(true);
 			}
@@ -60,9 +53,9 @@ public class Controller {
 
 	public void redo() {
 		if (isRedoable()) {
-			Command c = commands.elementAt(_cursor + 1);
+			Command c = history.getRedoCommand();
 			c.redo(handler);
-			_cursor++;
+			history.commandRedone();
 			if (c.isChangingDiagram()) {
 				handler.setChanged(true);
 			}
@@ -71,20 +64,40 @@ public class Controller {
 	}
 
 	public boolean isEmpty() {
-		return commands.isEmpty();
+		return history.isEmpty();
 	}
 
 	public boolean isUndoable() {
-		return _cursor >= 0;
+		return history.isUndoable();
 	}
 
 	public boolean isRedoable() {
-		return _cursor < commands.size() - 1;
+		return history.isRedoable();
 	}
 
 	public void clear() {
-		commands = new Vector<Command>();
-		_cursor = -1;
+		history = createHistory();
+	}
+
+	/**
+	 * @return number of commands in the undo history
+	 */
+	public int getHistorySize() {
+		return history.size();
+	}
+
+	/**
+	 * @return estimated memory usage of the undo history in bytes
+	 */
+	public long getEstimatedHistoryBytes() {
+		return history.getEstimatedBytes();
+	}
+
+	/**
+	 * @return number of commands which have been dropped from the undo history because it exceeded its configured limits
+	 */
+	public long getEvictedCommandCount() {
+		return history.getEvictedCommands();
 	}
 
 }
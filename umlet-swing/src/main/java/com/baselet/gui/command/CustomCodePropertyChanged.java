@@ -99,6 +99,11 @@ public class CustomCodePropertyChanged extends Command {
 		}
 	}
 
+	@Override
+	public long getEstimatedSize() {
+		return super.getEstimatedSize() + 2L * ((_oldState == null ? 0 : _oldState.length()) + (_newState == null ? 0 : _newState.length()));
+	}
+
 	@Override
 	public String toString() {
 		return "Changestate from " + getOldState() + " to " + getNewState();
@@ -86,4 +86,9 @@ public class HelpPanelChanged extends Command {
 		HelpPanelChanged ret = new HelpPanelChanged(tmp.changed_from, changed_to);
 		return ret;
 	}
+
+	@Override
+	public long getEstimatedSize() {
+		return super.getEstimatedSize() + 2L * ((changed_from == null ? 0 : changed_from.length()) + (changed_to == null ? 0 : changed_to.length()));
+	}
 }
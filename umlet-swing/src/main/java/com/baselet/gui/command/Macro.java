@@ -78,6 +78,15 @@ public class Macro extends Command {
 		return ret;
 	}
 
+	@Override
+	public long getEstimatedSize() {
+		long size = super.getEstimatedSize();
+		for (Command c : _commands) {
+			size += c.getEstimatedSize();
+		}
+		return size;
+	}
+
 	@Override
 	public boolean isChangingDiagram() {
 		for (Command c : _commands) {
@@ -2,8 +2,10 @@ package com.baselet.gui.command;
 
 import java.awt.Color;
 import java.awt.Point;
-import java.util.regex.Matcher;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import com.baselet.control.basics.Converter;
 import com.baselet.control.basics.geom.Rectangle;
@@ -12,15 +14,44 @@ import com.baselet.diagram.DrawPanel;
 import com.baselet.diagram.SelectorOld;
 import com.baselet.element.interfaces.GridElement;
 
+/**
+ * Selects all elements whose panel attributes match the search text.
+ * Plain search texts are answered by the text index of the DrawPanel (every whitespace separated token must be contained, case insensitive).
+ * Search texts which contain regex characters are still interpreted as regex (if they are valid) and checked against every element.
+ */
 public class Search extends Command {
 
+	private static final Pattern REGEX_CHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
 	static Color _failed = new Color(227, 127, 127);
 	static Color _success = new Color(148, 172, 251);
-	private String regex;
-	private Pattern pattern;
+	private final String query;
+
+	public Search(String query) {
+		this.query = query;
+	}
+
+	public static List<GridElement> findMatches(DrawPanel d, String query) {
+		if (query.trim().isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (REGEX_CHARACTERS.matcher(query).find()) {
+			try {
+				return d.findGridElements(Pattern.compile(query.toLowerCase()));
+			} catch (PatternSyntaxException e) {
+				// incomplete regex (eg while typing) - search for the plain text instead
+			}
+		}
+		return d.findGridElements(query);
+	}
 
-	public Search(String regex) {
-		this.regex = ".*(" + regex.toLowerCase() + ").*";
+	/**
+	 * highlights the matches of the query in the diagram by selecting only them (an empty query selects nothing)
+	 * The selection is changed without the after selection action, therefore the property panel doesn't change.
+	 */
+	public static void highlight(DiagramHandler handler, String query) {
+		DrawPanel d = handler.getDrawPanel();
+		d.getSelector().selectOnlyWithoutAfterAction(findMatches(d, query));
 	}
 
 	@Override
@@ -29,18 +60,11 @@ public class Search extends Command {
 		SelectorOld s = handler.getDrawPanel().getSelector();
 		s.deselectAll();
 		DrawPanel d = handler.getDrawPanel();
-		pattern = Pattern.compile(regex);
-		Matcher m;
-		for (GridElement e : d.getGridElements()) {
-			m = pattern.matcher(e.getPanelAttributes().toLowerCase());
-			if (m.find()) {
-				s.select(e);
-			}
-		}
-
-		if (s.getSelectedElements().size() == 0) {
+		List<GridElement> found = findMatches(d, query);
+		if (found.isEmpty()) {
 			return;
 		}
+		s.select(found);
 
 		Rectangle panelview = Converter.convert(d.getVisibleRect());
 		Point p = null;
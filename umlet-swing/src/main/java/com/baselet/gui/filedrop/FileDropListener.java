@@ -45,7 +45,7 @@ public class FileDropListener implements FileDrop.Listener {
 	private boolean isJavaFile(String filename) {
 		int dotPosition = filename.lastIndexOf(".");
 		String extension = filename.substring(dotPosition + 1, filename.length());
-		if (extension.equals("class") || extension.equals("java")) {
+		if (extension.equals("class") || extension.equals("java") || extension.equals("jar")) {
 			return true;
 		}
 		return false;
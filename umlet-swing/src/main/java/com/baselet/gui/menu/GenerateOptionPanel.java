@@ -20,8 +20,10 @@ import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JDialog;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
+import javax.swing.JTextField;
 
 import com.baselet.control.config.ConfigClassGen;
 import com.baselet.control.enums.generator.FieldOptions;
@@ -39,6 +41,8 @@ public class GenerateOptionPanel extends JDialog {
 	private ButtonGroup methods;
 	private ButtonGroup signatures;
 	private ButtonGroup sortings;
+	private JTextField packageIncludes;
+	private JTextField packageExcludes;
 
 	private static final String okButton = "Ok";
 	private static final String cancelButton = "Cancel";
@@ -75,6 +79,14 @@ public class GenerateOptionPanel extends JDialog {
 		sortings = createButtonGroup(SortOptions.values());
 		optionPanel.add(createSubPanel("Sorting", sortings), layout(c, 1, 2));
 
+		packageIncludes = new JTextField(20);
+		packageIncludes.setToolTipText("Comma separated packages which are imported (including their subpackages); empty to import all packages");
+		optionPanel.add(createTextPanel("Include packages", packageIncludes), layout(c, 0, 3));
+
+		packageExcludes = new JTextField(20);
+		packageExcludes.setToolTipText("Comma separated packages which are not imported (including their subpackages)");
+		optionPanel.add(createTextPanel("Exclude packages", packageExcludes), layout(c, 1, 3));
+
 		optionPanel.validate();
 		return optionPanel;
 	}
@@ -107,6 +119,17 @@ public class GenerateOptionPanel extends JDialog {
 		return panel;
 	}
 
+	private JPanel createTextPanel(String title, JTextField textField) {
+		JPanel panel = new JPanel();
+		panel.setLayout(new GridLayout(0, 1));
+		panel.setBorder(BorderFactory.createTitledBorder(title));
+		JLabel label = new JLabel("e.g. com.example, org.test");
+		label.setLabelFor(textField);
+		panel.add(textField);
+		panel.add(label);
+		return panel;
+	}
+
 	private JPanel createButtonPanel() {
 		CancelOkListener listener = new CancelOkListener();
 		JButton button_ok = new JButton(okButton);
@@ -147,6 +170,8 @@ public class GenerateOptionPanel extends JDialog {
 				genCfg.setGenerateClassMethods(MethodOptions.getEnum(methods.getSelection().getActionCommand().toString()));
 				genCfg.setGenerateClassSignatures(SignatureOptions.getEnum(signatures.getSelection().getActionCommand().toString()));
 				genCfg.setGenerateClassSortings(SortOptions.getEnum(sortings.getSelection().getActionCommand().toString()));
+				genCfg.setGenerateClassPackageIncludes(packageIncludes.getText().trim());
+				genCfg.setGenerateClassPackageExcludes(packageExcludes.getText().trim());
 			}
 		}
 	}
@@ -158,6 +183,8 @@ public class GenerateOptionPanel extends JDialog {
 		setSelectedRadioButton(methods, genCfg.getGenerateClassMethods());
 		setSelectedRadioButton(signatures, genCfg.getGenerateClassSignatures());
 		setSelectedRadioButton(sortings, genCfg.getGenerateClassSortings());
+		packageIncludes.setText(genCfg.getGenerateClassPackageIncludes());
+		packageExcludes.setText(genCfg.getGenerateClassPackageExcludes());
 		setVisible(true);
 		toFront();
 	}
@@ -0,0 +1,48 @@
+package com.baselet.diagram;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.font.FontRenderContext;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.baselet.control.StringStyle;
+import com.baselet.control.basics.geom.DimensionDouble;
+import com.baselet.control.enums.Program;
+import com.baselet.control.enums.RuntimeType;
+
+public class FontHandlerTest {
+
+	@BeforeClass
+	public static void initProgram() {
+		if (!Program.isInitialized()) { // the default font is read from the config
+			Program.init("test", RuntimeType.BATCH);
+		}
+	}
+
+	@Test
+	public void repeatedMeasurementIsAnsweredByTheCache() {
+		FontHandler fontHandler = new FontHandler(null); // the handler is only used to apply the zoom
+		StringStyle text = StringStyle.analyzeFormatLabels("*measured text*");
+
+		DimensionDouble first = fontHandler.getTextSize(text, false);
+		DimensionDouble second = fontHandler.getTextSize(StringStyle.analyzeFormatLabels("*measured text*"), false);
+
+		assertThat(second).isSameAs(first);
+		DimensionDouble uncached = FontHandler.getTextSizeStatic(new FormattedFont(text, fontHandler.getFontSize(false), fontHandler.getFont(false), new FontRenderContext(null, true, true)));
+		assertThat(first.getWidth()).isEqualTo(uncached.getWidth());
+		assertThat(first.getHeight()).isEqualTo(uncached.getHeight());
+	}
+
+	@Test
+	public void clearedCacheMeasuresTheTextAgain() {
+		FontHandler fontHandler = new FontHandler(null);
+		DimensionDouble first = fontHandler.getTextSize("cleared text", false);
+		FontHandler.clearTextMetricsCache();
+		DimensionDouble second = fontHandler.getTextSize("cleared text", false);
+
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getWidth()).isEqualTo(first.getWidth());
+	}
+}
@@ -0,0 +1,40 @@
+package com.baselet.diagram.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class DiagramXmlWriterTest {
+
+	private static final String NL = System.getProperty("line.separator");
+
+	@Test
+	public void nestedElementsAreIndented() throws IOException {
+		StringWriter out = new StringWriter();
+		DiagramXmlWriter xml = new DiagramXmlWriter(out);
+		xml.writeDeclaration();
+		xml.startElement("diagram", "program", "umlet", "version", "14.3");
+		xml.startElement("element");
+		xml.textElement("x", "10");
+		xml.textElement("additional_attributes", "");
+		xml.endElement("element");
+		xml.endElement("diagram");
+		assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>" + NL +
+				"<diagram program=\"umlet\" version=\"14.3\">" + NL +
+				"  <element>" + NL +
+				"    <x>10</x>" + NL +
+				"    <additional_attributes/>" + NL +
+				"  </element>" + NL +
+				"</diagram>" + NL, out.toString());
+	}
+
+	@Test
+	public void specialCharactersAreEscapedLikeTheDomTransformer() throws IOException {
+		StringWriter out = new StringWriter();
+		new DiagramXmlWriter(out).textElement("t", "a<b>&\"'\r\n\tä😀\u0001\u0085]]>");
+		assertEquals("<t>a&lt;b&gt;&amp;\"'&#13;" + NL + "\tä&#128512;&#1;&#133;]]&gt;</t>" + NL, out.toString());
+	}
+}
@@ -0,0 +1,117 @@
+package com.baselet.diagram.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+public class StripImageTest {
+
+	private static final int WIDTH = 50;
+	private static final int HEIGHT = 45;
+
+	@Test
+	public void stripsContainTheSamePixelsAsTheWholeImage() {
+		StripImage image = new TestImage(4 * WIDTH * 10);
+		BufferedImage expected = paintWholeImage();
+
+		assertThat(image.getStripHeight()).isEqualTo(10);
+		assertThat(image.getNumYTiles()).isEqualTo(5);
+		assertPixelsEqual(expected, image.getData(new Rectangle(0, 0, WIDTH, HEIGHT)), new Rectangle(0, 0, WIDTH, HEIGHT));
+		assertPixelsEqual(expected, image.getData(new Rectangle(5, 8, 20, 25)), new Rectangle(5, 8, 20, 25)); // spans multiple strips
+		assertPixelsEqual(expected, image.getData(new Rectangle(0, 42, WIDTH, 1)), new Rectangle(0, 42, WIDTH, 1)); // row of the last (shorter) strip
+	}
+
+	@Test
+	public void pngIsWrittenStripByStrip() throws Exception {
+		TestImage image = new TestImage(4 * WIDTH * 10);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+
+		assertThat(image.getPaintedStrips()).isEqualTo(image.getNumYTiles()); // every strip is only painted once
+		BufferedImage read = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+		assertPixelsEqual(paintWholeImage(), read.getRaster(), new Rectangle(0, 0, WIDTH, HEIGHT));
+	}
+
+	@Test
+	public void stripHasAtLeastOneRow() {
+		StripImage image = new TestImage(1);
+		assertThat(image.getStripHeight()).isEqualTo(1);
+		assertThat(image.getNumYTiles()).isEqualTo(HEIGHT);
+	}
+
+	@Test
+	public void stripIsClippedToItsArea() {
+		TestImage image = new TestImage(4 * WIDTH * 10);
+		image.getData();
+
+		assertThat(image.clips).containsExactly(new Rectangle(0, 0, WIDTH, 10), new Rectangle(0, 10, WIDTH, 10), new Rectangle(0, 20, WIDTH, 10), new Rectangle(0, 30, WIDTH, 10), new Rectangle(0, 40, WIDTH, 5));
+		assertThat(image.paintedShapes).containsExactly(2, 2, 2, 2, 2); // every strip skips one of the 3 shapes: the green rectangle (y 30-45) in the first 3 strips, the red rectangle (y 7-27) in the last 2
+	}
+
+	private static BufferedImage paintWholeImage() {
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, WIDTH, HEIGHT);
+		paintPattern(g);
+		g.dispose();
+		return image;
+	}
+
+	private static void paintPattern(Graphics2D g) {
+		g.setColor(Color.RED);
+		g.fillRect(3, 7, 30, 20);
+		g.setColor(Color.BLUE);
+		g.drawLine(0, 0, WIDTH - 1, HEIGHT - 1);
+		g.setColor(Color.GREEN);
+		g.drawRect(10, 30, 35, 14);
+	}
+
+	private static void assertPixelsEqual(BufferedImage expected, Raster actual, Rectangle rect) {
+		assertThat(actual.getBounds()).isEqualTo(rect);
+		int[] expectedPixel = new int[3];
+		int[] actualPixel = new int[3];
+		for (int y = rect.y; y < rect.y + rect.height; y++) {
+			for (int x = rect.x; x < rect.x + rect.width; x++) {
+				assertThat(actual.getPixel(x, y, actualPixel)).as("pixel " + x + "," + y).isEqualTo(expected.getRaster().getPixel(x, y, expectedPixel));
+			}
+		}
+	}
+
+	private static class TestImage extends StripImage {
+		private final List<Rectangle> clips = new ArrayList<Rectangle>();
+		private final int[] paintedShapes;
+
+		public TestImage(long maxStripBytes) {
+			super(WIDTH, HEIGHT, maxStripBytes);
+			paintedShapes = new int[getNumYTiles()];
+		}
+
+		@Override
+		protected void paint(Graphics2D g) {
+			Rectangle clip = g.getClipBounds();
+			clips.add(clip);
+			// count the shapes which would be painted if shapes outside of the clip are skipped (like OutputHandler does with grid elements)
+			int count = 0;
+			for (Rectangle shape : new Rectangle[] { new Rectangle(3, 7, 30, 20), new Rectangle(0, 0, WIDTH, HEIGHT), new Rectangle(10, 30, 36, 15) }) {
+				if (clip.intersects(shape)) {
+					count++;
+				}
+			}
+			paintedShapes[clip.y / getStripHeight()] = count;
+			paintPattern(g);
+		}
+	}
+}
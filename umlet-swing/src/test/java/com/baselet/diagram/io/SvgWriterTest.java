@@ -0,0 +1,107 @@
+package com.baselet.diagram.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import com.baselet.control.enums.FormatLabels;
+import com.baselet.diagram.draw.DoubleStroke;
+import com.baselet.diagram.draw.helper.ColorOwn;
+import com.baselet.diagram.draw.helper.ColorOwn.Transparency;
+
+public class SvgWriterTest {
+
+	@Test
+	public void numbersAreFormattedWithoutTrailingZeros() {
+		assertThat(SvgWriter.format(10)).isEqualTo("10");
+		assertThat(SvgWriter.format(0.5)).isEqualTo("0.5");
+		assertThat(SvgWriter.format(25.0547)).isEqualTo("25.055");
+		assertThat(SvgWriter.format(-3.0401)).isEqualTo("-3.04");
+		assertThat(SvgWriter.format(-0.0001)).isEqualTo("0");
+	}
+
+	@Test
+	public void equalStylesShareOneClass() throws IOException {
+		StringWriter out = new StringWriter();
+		SvgWriter svg = new SvgWriter(out);
+		svg.startDocument(-10, -10, 100, 50);
+		svg.startGroup(10, 10, 80, 30);
+		svg.drawShape(new Rectangle2D.Double(0.5, 0.5, 79, 29), null, ColorOwn.BLACK, new BasicStroke(1));
+		svg.drawShape(new Ellipse2D.Double(10, 10, 20, 10), null, ColorOwn.BLACK, new BasicStroke(1));
+		svg.drawShape(new Line2D.Double(0, 0, 10, 5), ColorOwn.RED, ColorOwn.BLACK, new BasicStroke(1));
+		svg.endGroup();
+		svg.endDocument();
+
+		String result = out.toString();
+		assertThat(result).contains("viewBox=\"-10 -10 100 50\"");
+		assertThat(result).contains("<g transform=\"translate(10,10)\" clip-path=\"url(#c1)\">");
+		assertThat(result).contains("<rect x=\"0.5\" y=\"0.5\" width=\"79\" height=\"29\" class=\"s1\"/>");
+		assertThat(result).contains("<ellipse cx=\"20\" cy=\"15\" rx=\"10\" ry=\"5\" class=\"s1\"/>");
+		assertThat(result).contains("<path d=\"M0 0 L10 5\" class=\"s2\"/>");
+		assertThat(count(result, "<style")).isEqualTo(2);
+		assertThat(result).endsWith("</svg>\n");
+	}
+
+	@Test
+	public void invisibleColorsAreNotWritten() throws IOException {
+		StringWriter out = new StringWriter();
+		SvgWriter svg = new SvgWriter(out);
+		svg.drawShape(new Rectangle2D.Double(0, 0, 10, 10), ColorOwn.TRANSPARENT, null, new BasicStroke(1));
+		svg.drawText("invisible", 0, 0, Font.SANS_SERIF, 14, Collections.<FormatLabels> emptySet(), ColorOwn.BLACK.transparency(Transparency.FULL_TRANSPARENT));
+		assertThat(out.toString()).isEmpty();
+	}
+
+	@Test
+	public void specialStrokesAreWrittenAsFilledOutline() throws IOException {
+		StringWriter out = new StringWriter();
+		SvgWriter svg = new SvgWriter(out);
+		svg.drawShape(new Line2D.Double(0, 0, 10, 0), null, ColorOwn.BLACK, new DoubleStroke(1, 4, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5, null, 0));
+		assertThat(out.toString()).contains("{fill:#000000;stroke:none}").contains("<path d=\"M");
+	}
+
+	@Test
+	public void textIsEscapedAndFormatted() throws IOException {
+		StringWriter out = new StringWriter();
+		SvgWriter svg = new SvgWriter(out);
+		svg.drawText("a<b & c>d", 5, 12.5, Font.MONOSPACED, 8, EnumSet.of(FormatLabels.BOLD, FormatLabels.UNDERLINE), ColorOwn.BLACK);
+		assertThat(out.toString()).contains("{fill:#000000;font-family:monospace;font-size:8px;font-weight:bold;text-decoration:underline}");
+		assertThat(out.toString()).contains("<text x=\"5\" y=\"12.5\" class=\"s1\">a&lt;b &amp; c&gt;d</text>");
+	}
+
+	@Test(expected = IOException.class)
+	public void writeErrorIsThrownAtTheEndOfTheDocument() throws IOException {
+		SvgWriter svg = new SvgWriter(new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				throw new IOException("disk full");
+			}
+
+			@Override
+			public void flush() {}
+
+			@Override
+			public void close() {}
+		});
+		svg.startDocument(0, 0, 10, 10);
+		svg.endDocument();
+	}
+
+	private static int count(String s, String part) {
+		int count = 0;
+		for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+}
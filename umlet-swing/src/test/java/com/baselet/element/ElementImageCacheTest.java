@@ -0,0 +1,51 @@
+package com.baselet.element;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+public class ElementImageCacheTest {
+
+	@Test
+	public void imageIsOnlyReturnedForSameState() {
+		ElementImageCache cache = new ElementImageCache(1024 * 1024);
+		ComponentSwing component = new ComponentSwing(null);
+		BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+		cache.put(component, state(10, false, 1), image);
+		assertThat(cache.get(component, state(10, false, 1))).isSameAs(image);
+		assertThat(cache.get(component, state(10, true, 1))).isNull();
+		assertThat(cache.get(component, state(10, false, 2))).isNull();
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void leastRecentlyUsedImagesAreEvictedIfMemoryBudgetIsExceeded() {
+		ElementImageCache cache = new ElementImageCache(3 * 4 * 10 * 10); // space for 3 images with 10x10 pixels
+		ComponentSwing[] components = new ComponentSwing[4];
+		for (int i = 0; i < components.length; i++) {
+			components[i] = new ComponentSwing(null);
+		}
+		cache.put(components[0], state(10, false, 0), new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+		cache.put(components[1], state(10, false, 0), new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+		cache.put(components[2], state(10, false, 0), new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+		cache.get(components[0], state(10, false, 0)); // components[1] is now the least recently used one
+		cache.put(components[3], state(10, false, 0), new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.getBytes()).isEqualTo(3 * 4 * 10 * 10);
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+		assertThat(cache.get(components[1], state(10, false, 0))).isNull();
+		assertThat(cache.get(components[0], state(10, false, 0))).isNotNull();
+		assertThat(cache.isCacheable(100, 100)).isFalse();
+
+		cache.remove(components[0]);
+		assertThat(cache.getBytes()).isEqualTo(2 * 4 * 10 * 10);
+	}
+
+	private static ElementImageCache.State state(int size, boolean selected, int modificationCount) {
+		return new ElementImageCache.State(size, size, 1.0, selected, modificationCount, 0);
+	}
+}
@@ -0,0 +1,53 @@
+package com.baselet.generator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simple benchmark for parsing the classes of a class diagram import (the generation of the element texts is included).
+ * It's not executed as part of the test suite; run the main method manually with a directory which contains .class or .java files
+ * (by default the compiled classes of this module) and compare the numbers before and after a change.
+ */
+public class ClassDiagramConverterBenchmark {
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+
+	public static void main(String[] args) {
+		File corpus = new File(args.length > 0 ? args[0] : "target/classes");
+		List<String> files = new ArrayList<String>();
+		collectFiles(corpus, files);
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (int threads : new int[] { 1, processors }) {
+			for (int i = 0; i < WARMUP_ROUNDS; i++) {
+				parse(files, threads);
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < MEASURED_ROUNDS; i++) {
+				parse(files, threads);
+			}
+			long millis = (System.nanoTime() - start) / 1000000;
+			System.out.println(files.size() + " files with " + threads + " threads: " + millis / MEASURED_ROUNDS + " milliseconds per import");
+		}
+	}
+
+	private static void parse(List<String> files, int threads) {
+		List<Exception> failures = new ArrayList<Exception>();
+		ClassDiagramConverter.parseFiles(files, threads, failures); // files which can't be parsed (eg enums) are only reported as failures
+	}
+
+	private static void collectFiles(File file, List<String> files) {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					collectFiles(child, files);
+				}
+			}
+		}
+		else if (file.getName().endsWith(".class") || file.getName().endsWith(".java")) {
+			files.add(file.getAbsolutePath());
+		}
+	}
+}
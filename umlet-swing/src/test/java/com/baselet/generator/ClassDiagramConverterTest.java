@@ -0,0 +1,71 @@
+package com.baselet.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.baselet.generator.ClassDiagramConverter.ParsedFile;
+
+public class ClassDiagramConverterTest {
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	@Test
+	public void parsedFilesKeepTheInputOrderAndFailuresAreCollectedPerFile() throws Exception {
+		List<String> filenames = Arrays.asList(
+				writeClass(Test.class),
+				writeClass(PackageFilter.class),
+				tmpDir.newFile("first.txt").getPath(),
+				writeClass(ClassDiagramConverterTest.class),
+				tmpDir.newFile("second.xml").getPath(),
+				writeClass(Rule.class));
+		List<Exception> failures = new ArrayList<Exception>();
+
+		List<ParsedFile> parsedFiles = ClassDiagramConverter.parseFiles(filenames, 3, failures);
+
+		assertThat(parsedFiles).hasSize(4);
+		assertThat(parsedFiles.get(0).getParsedClass().getName()).isEqualTo("Test");
+		assertThat(parsedFiles.get(1).getParsedClass().getName()).isEqualTo("PackageFilter");
+		assertThat(parsedFiles.get(2).getParsedClass().getName()).isEqualTo("ClassDiagramConverterTest");
+		assertThat(parsedFiles.get(3).getParsedClass().getName()).isEqualTo("Rule");
+		assertThat(parsedFiles.get(1).getPropertiesText()).contains("+accepts(java.lang.String): boolean\n");
+		assertThat(failures).hasSize(2);
+		assertThat(failures.get(0).getMessage()).isEqualTo("Unknown extension txt of file " + filenames.get(2));
+		assertThat(failures.get(1).getMessage()).isEqualTo("Unknown extension xml of file " + filenames.get(4));
+	}
+
+	@Test
+	public void emptyInputGivesNoResults() {
+		List<Exception> failures = new ArrayList<Exception>();
+		assertThat(ClassDiagramConverter.parseFiles(new ArrayList<String>(), 4, failures)).isEmpty();
+		assertThat(failures).isEmpty();
+	}
+
+	private String writeClass(Class<?> clazz) throws IOException {
+		File file = tmpDir.newFile(clazz.getSimpleName() + ".class");
+		InputStream in = clazz.getResourceAsStream(clazz.getSimpleName() + ".class");
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			out.close();
+			in.close();
+		}
+		return file.getPath();
+	}
+}
@@ -0,0 +1,136 @@
+package com.baselet.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.baselet.generator.ClassDiagramConverter.ParsedFile;
+
+public class ClassSourceTest {
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	@Test
+	public void classesAreReadFromJarWithoutMetaClassesAnonymousClassesAndFilteredPackages() throws Exception {
+		File jar = tmpDir.newFile("test.jar");
+		ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+		try {
+			addClass(out, "com/baselet/generator/PackageFilter.class", PackageFilter.class);
+			addClass(out, "com/baselet/generator/ClassSourceTest.class", ClassSourceTest.class);
+			addClass(out, "org/junit/Test.class", Test.class);
+			addClass(out, "META-INF/versions/9/com/baselet/generator/PackageFilter.class", PackageFilter.class);
+			addClass(out, "com/baselet/generator/package-info.class", PackageFilter.class);
+			addClass(out, "com/baselet/generator/PackageFilter$1.class", PackageFilter.class);
+			addClass(out, "com/baselet/generator/PackageFilter$2Local.class", PackageFilter.class);
+		} finally {
+			out.close();
+		}
+
+		ClassSource.Collector collector = new ClassSource.Collector(new PackageFilter("com.baselet", ""));
+		List<ParsedFile> parsedFiles;
+		List<Exception> failures = new ArrayList<Exception>();
+		try {
+			collector.add(tmpDir.getRoot()); // the directory contains only the jar file
+			assertThat(collector.getSources()).hasSize(2);
+			parsedFiles = ClassDiagramConverter.parse(collector.getSources(), PackageFilter.ALL, 2, failures);
+		} finally {
+			collector.close();
+		}
+
+		assertThat(failures).isEmpty();
+		assertThat(parsedFiles).hasSize(2);
+		assertThat(parsedFiles.get(0).getParsedClass().getName()).isEqualTo("PackageFilter");
+		assertThat(parsedFiles.get(1).getParsedClass().getName()).isEqualTo("ClassSourceTest");
+	}
+
+	@Test
+	public void parsedClassesOfFilteredPackagesAreSkipped() throws Exception {
+		File classFile = tmpDir.newFile("Test.class"); // the path doesn't tell the package of a class file outside of a jar
+		FileOutputStream out = new FileOutputStream(classFile);
+		try {
+			copy(Test.class, out);
+		} finally {
+			out.close();
+		}
+		List<ClassSource> sources = ClassSource.ofFiles(Arrays.asList(classFile.getPath()));
+		List<Exception> failures = new ArrayList<Exception>();
+
+		assertThat(ClassDiagramConverter.parse(sources, new PackageFilter("", "org.junit"), 1, failures)).isEmpty();
+		assertThat(ClassDiagramConverter.parse(sources, new PackageFilter("org.junit", ""), 1, failures)).hasSize(1);
+		assertThat(failures).isEmpty();
+	}
+
+	@Test
+	public void unsupportedFilesAndAnonymousClassesOfDirectoriesAreSkipped() throws Exception {
+		File directory = tmpDir.newFolder("classes");
+		writeClass(new File(directory, "Test.class"), Test.class);
+		writeClass(new File(directory, "Test$1.class"), Test.class);
+		writeClass(new File(directory, "notes.txt"), Test.class);
+
+		ClassSource.Collector collector = new ClassSource.Collector(PackageFilter.ALL);
+		try {
+			collector.add(directory);
+			assertThat(collector.getSources()).hasSize(1);
+			assertThat(collector.getSources().get(0).getName()).endsWith("Test.class");
+		} finally {
+			collector.close();
+		}
+	}
+
+	@Test
+	public void explicitlySelectedFileWithUnknownExtensionIsReported() throws Exception {
+		File file = tmpDir.newFile("notes.txt");
+		ClassSource.Collector collector = new ClassSource.Collector(PackageFilter.ALL);
+		List<Exception> failures = new ArrayList<Exception>();
+		try {
+			collector.add(file);
+			assertThat(ClassDiagramConverter.parse(collector.getSources(), PackageFilter.ALL, 1, failures)).isEmpty();
+		} finally {
+			collector.close();
+		}
+		assertThat(failures).hasSize(1);
+		assertThat(failures.get(0).getMessage()).isEqualTo("Unknown extension txt of file " + file.getPath());
+	}
+
+	private static void writeClass(File file, Class<?> clazz) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			copy(clazz, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void addClass(ZipOutputStream out, String entryName, Class<?> clazz) throws IOException {
+		out.putNextEntry(new ZipEntry(entryName));
+		copy(clazz, out);
+		out.closeEntry();
+	}
+
+	private static void copy(Class<?> clazz, OutputStream out) throws IOException {
+		InputStream in = clazz.getResourceAsStream(clazz.getSimpleName() + ".class");
+		try {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
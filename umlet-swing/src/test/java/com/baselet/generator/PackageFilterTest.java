@@ -0,0 +1,31 @@
+package com.baselet.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PackageFilterTest {
+
+	@Test
+	public void emptyFilterAcceptsEveryPackage() {
+		PackageFilter filter = new PackageFilter("", " ");
+		assertThat(filter.isAcceptingAll()).isTrue();
+		assertThat(filter.accepts("")).isTrue();
+		assertThat(filter.accepts("com.baselet")).isTrue();
+	}
+
+	@Test
+	public void filtersMatchSubpackagesButNotPrefixes() {
+		PackageFilter filter = new PackageFilter("com.baselet, org.example.*", "com.baselet.gui");
+		assertThat(filter.accepts("com.baselet")).isTrue();
+		assertThat(filter.accepts("com.baselet.generator")).isTrue();
+		assertThat(filter.accepts("org.example.sub")).isTrue();
+		assertThat(filter.accepts("com.baseletx")).isFalse();
+		assertThat(filter.accepts("com")).isFalse();
+		assertThat(filter.accepts("com.baselet.gui")).isFalse();
+		assertThat(filter.accepts("com.baselet.gui.menu")).isFalse();
+		assertThat(filter.acceptsPath("com/baselet/generator/PackageFilter.class")).isTrue();
+		assertThat(filter.acceptsPath("com/baselet/gui/Gui.class")).isFalse();
+		assertThat(filter.acceptsPath("Main.class")).isFalse();
+	}
+}
@@ -0,0 +1,69 @@
+package com.baselet.generator.sorting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.baselet.control.basics.geom.Dimension;
+import com.baselet.control.basics.geom.Point;
+import com.baselet.control.basics.geom.Rectangle;
+
+public class RelationLayoutTest {
+
+	private static final int GRID_SIZE = 10;
+
+	@Test
+	public void elementsAreAlignedAndDontOverlap() {
+		Random random = new Random(1);
+		Dimension[] sizes = new Dimension[300];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = new Dimension((5 + random.nextInt(20)) * GRID_SIZE, (3 + random.nextInt(30)) * GRID_SIZE);
+		}
+		RelationLayout.Relations relations = new RelationLayout.Relations();
+		for (int i = 1; i < sizes.length; i++) {
+			relations.add(i, random.nextInt(i), 1);
+		}
+		RelationLayout layout = new RelationLayout(GRID_SIZE);
+		Point[] locations = layout.arrange(sizes, relations);
+
+		for (int i = 0; i < locations.length; i++) {
+			assertThat(locations[i].x % GRID_SIZE).isZero();
+			assertThat(locations[i].y % GRID_SIZE).isZero();
+			assertThat(locations[i].x).isGreaterThanOrEqualTo(GRID_SIZE);
+			assertThat(locations[i].y).isGreaterThanOrEqualTo(GRID_SIZE);
+			assertThat(locations[i].x + sizes[i].width).isLessThanOrEqualTo(layout.bounds.width);
+			assertThat(locations[i].y + sizes[i].height).isLessThanOrEqualTo(layout.bounds.height);
+			Rectangle r1 = new Rectangle(locations[i].x, locations[i].y, sizes[i].width, sizes[i].height);
+			for (int j = i + 1; j < locations.length; j++) {
+				Rectangle r2 = new Rectangle(locations[j].x, locations[j].y, sizes[j].width, sizes[j].height);
+				assertThat(r1.intersects(r2)).as(i + " and " + j).isFalse();
+			}
+		}
+	}
+
+	@Test
+	public void relatedElementsArePlacedNearEachOther() {
+		Dimension[] sizes = new Dimension[40];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = new Dimension(100, 60);
+		}
+		// two groups (even and odd indices), which are initially placed alternating
+		RelationLayout.Relations relations = new RelationLayout.Relations();
+		for (int i = 2; i < sizes.length; i++) {
+			relations.add(i, i - 2, 1);
+		}
+		Point[] locations = new RelationLayout(GRID_SIZE).arrange(sizes, relations);
+
+		double related = 0;
+		for (int i = 2; i < sizes.length; i++) {
+			related += locations[i].distance(locations[i - 2]);
+		}
+		double unrelated = 0;
+		for (int i = 1; i < sizes.length; i++) {
+			unrelated += locations[i].distance(locations[i - 1]);
+		}
+		assertThat(related / (sizes.length - 2)).isLessThan(unrelated / (sizes.length - 1));
+	}
+}
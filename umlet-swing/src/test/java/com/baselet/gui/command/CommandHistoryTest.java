@@ -0,0 +1,132 @@
+package com.baselet.gui.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class CommandHistoryTest {
+
+	@Test
+	public void oldestCommandsAreEvictedIfEntryLimitIsReached() {
+		CommandHistory history = new CommandHistory(3, Long.MAX_VALUE);
+		Command[] commands = new Command[5];
+		for (int i = 0; i < commands.length; i++) {
+			commands[i] = new TestCommand();
+			history.add(commands[i]);
+		}
+		assertThat(history.size()).isEqualTo(3);
+		assertThat(history.getEvictedCommands()).isEqualTo(2);
+		assertThat(history.getUndoCommand()).isSameAs(commands[4]);
+		history.commandUndone();
+		history.commandUndone();
+		assertThat(history.getUndoCommand()).isSameAs(commands[2]);
+		history.commandUndone();
+		assertThat(history.isUndoable()).isFalse();
+		assertThat(history.getRedoCommand()).isSameAs(commands[2]);
+	}
+
+	@Test
+	public void oldestCommandsAreEvictedIfMemoryLimitIsReached() {
+		CommandHistory history = new CommandHistory(100, 1000);
+		for (int i = 0; i < 10; i++) {
+			history.add(new ChangePanelAttributes(null, "", repeat('a', 100), 0, 0)); // texts don't continue each other, therefore no compaction
+		}
+		assertThat(history.getEstimatedBytes()).isLessThanOrEqualTo(1000);
+		assertThat(history.size()).isEqualTo((int) (1000 / new ChangePanelAttributes(null, "", repeat('a', 100), 0, 0).getEstimatedSize()));
+	}
+
+	@Test
+	public void addingCommandDiscardsRedoableCommands() {
+		CommandHistory history = new CommandHistory(10, Long.MAX_VALUE);
+		history.add(new TestCommand());
+		history.add(new TestCommand());
+		history.commandUndone();
+		assertThat(history.isRedoable()).isTrue();
+		Command c = new TestCommand();
+		history.add(c);
+		assertThat(history.isRedoable()).isFalse();
+		assertThat(history.size()).isEqualTo(2);
+		assertThat(history.getUndoCommand()).isSameAs(c);
+	}
+
+	@Test
+	public void runOfPanelAttributeChangesIsCompactedToDiffs() {
+		CommandHistory history = new CommandHistory(100, Long.MAX_VALUE);
+		String base = repeat('x', 10000);
+		ChangePanelAttributes c1 = new ChangePanelAttributes(null, base, base + "a", 0, 0);
+		ChangePanelAttributes c2 = new ChangePanelAttributes(null, base + "a", "b" + base + "a", 0, 0);
+		ChangePanelAttributes c3 = new ChangePanelAttributes(null, "b" + base + "a", "b" + base, 0, 0);
+		history.add(c1);
+		long uncompactedSize = history.getEstimatedBytes();
+		history.add(c2);
+		history.add(c3);
+		assertThat(history.getCompactedCommands()).isEqualTo(2);
+		assertThat(history.getEstimatedBytes()).isLessThan(2 * uncompactedSize);
+
+		assertThat(c1.getOldState()).isEqualTo(base);
+		assertThat(c1.getNewState()).isEqualTo(base + "a");
+		assertThat(c2.getOldState()).isEqualTo(base + "a");
+		assertThat(c2.getNewState()).isEqualTo("b" + base + "a");
+		assertThat(c3.getOldState()).isEqualTo("b" + base + "a");
+		assertThat(c3.getNewState()).isEqualTo("b" + base);
+	}
+
+	@Test
+	public void discardedSuccessorIsRestoredInItsPredecessor() {
+		CommandHistory history = new CommandHistory(100, Long.MAX_VALUE);
+		String base = repeat('x', 10000);
+		ChangePanelAttributes c1 = new ChangePanelAttributes(null, base, base + "a", 0, 0);
+		history.add(c1);
+		long uncompactedSize = history.getEstimatedBytes();
+		history.add(new ChangePanelAttributes(null, base + "a", base + "ab", 0, 0));
+		assertThat(history.getCompactedCommands()).isEqualTo(1);
+
+		history.commandUndone();
+		history.add(new TestCommand()); // discards the successor of c1
+		assertThat(history.getEstimatedBytes()).isEqualTo(uncompactedSize + new TestCommand().getEstimatedSize());
+		assertThat(c1.getEstimatedSize()).isEqualTo(uncompactedSize);
+		assertThat(c1.getOldState()).isEqualTo(base);
+		assertThat(c1.getNewState()).isEqualTo(base + "a");
+	}
+
+	@Test
+	public void uncompactedCommandsOfARunKeepTheirTexts() {
+		CommandHistory history = new CommandHistory(100, Long.MAX_VALUE);
+		ChangePanelAttributes[] run = new ChangePanelAttributes[5];
+		String text = "";
+		for (int i = 0; i < run.length; i++) {
+			run[i] = new ChangePanelAttributes(null, text, text + i, 0, 0);
+			history.add(run[i]);
+			text += i;
+		}
+		assertThat(history.getCompactedCommands()).isEqualTo(4);
+		for (int i = run.length - 1; i >= 0; i--) { // the order of undo
+			run[i].uncompact();
+			assertThat(run[i].getOldState()).isEqualTo("01234".substring(0, i));
+			assertThat(run[i].getNewState()).isEqualTo("01234".substring(0, i + 1));
+		}
+	}
+
+	@Test
+	public void clearResetsTheStatistics() {
+		CommandHistory history = new CommandHistory(1, Long.MAX_VALUE);
+		history.add(new ChangePanelAttributes(null, "", "a", 0, 0));
+		history.add(new ChangePanelAttributes(null, "a", "ab", 0, 0));
+		assertThat(history.getCompactedCommands()).isEqualTo(1);
+		assertThat(history.getEvictedCommands()).isEqualTo(1);
+		history.clear();
+		assertThat(history.getCompactedCommands()).isZero();
+		assertThat(history.getEvictedCommands()).isZero();
+		assertThat(history.getEstimatedBytes()).isZero();
+	}
+
+	private static class TestCommand extends Command {}
+
+	private static String repeat(char c, int count) {
+		StringBuilder sb = new StringBuilder(count);
+		for (int i = 0; i < count; i++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+}